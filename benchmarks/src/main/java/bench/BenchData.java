@@ -0,0 +1,51 @@
+package bench;
+
+import dao.TaskDAO;
+import model.Task;
+import store.LogTaskRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Deterministic task lists and throwaway embedded stores for the benchmarks
+final class BenchData {
+
+    private static final String[] WORDS = {
+        "buy", "milk", "call", "mom", "fix", "bug", "write", "report", "review", "pull request",
+        "book", "flight", "pay", "rent", "clean", "garage", "plan", "sprint", "email", "Bob, \"urgent\""
+    };
+
+    private BenchData() {
+    }
+
+    static List<Task> tasks(int count) {
+        Random rnd = new Random(42);
+        List<Task> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String title = WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)] + " #" + i;
+            String description = rnd.nextInt(4) == 0 ? "" : "Note " + WORDS[rnd.nextInt(WORDS.length)] + " " + rnd.nextInt(10_000);
+            list.add(new Task(i, title, description, rnd.nextInt(3) == 0 ? "Completed" : "Pending"));
+        }
+        return list;
+    }
+
+    // Fresh LogTaskRepository in dir holding count tasks, installed behind TaskDAO
+    static LogTaskRepository openStore(Path dir, int count) throws Exception {
+        LogTaskRepository repo = LogTaskRepository.open(dir.resolve("tasks.log"), false);
+        repo.insertBatch(tasks(count), 10_000);
+        TaskDAO.setRepository(repo);
+        return repo;
+    }
+
+    static void deleteTree(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import model.StatusCounters;
+import model.TaskStatus;
+import model.TaskStore;
+import org.openjdk.jmh.annotations.*;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Status bar totals (Main.updateCountsLabel): delta-maintained counters vs a full recount
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountsBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private TaskStore store;
+    private StatusCounters counters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new TaskStore();
+        store.load(BenchData.tasks(rows));
+        counters = new StatusCounters();
+        counters.seed(Map.of("Pending", rows / 2, "Completed", rows - rows / 2));
+    }
+
+    // A completed/reopened task followed by the label text, as after each edit
+    @Benchmark
+    public String countersDelta() {
+        counters.statusChanged("Pending", "Completed");
+        counters.statusChanged("Completed", "Pending");
+        return "Total: " + counters.getTotal() + "   Pending: " + counters.getPending()
+                + "   Completed: " + counters.getCompleted();
+    }
+
+    // The O(rows) recount the counters replace
+    @Benchmark
+    public String fullRecount() {
+        byte completed = TaskStatus.COMPLETED.code();
+        int done = 0;
+        int n = store.size();
+        for (int r = 0; r < n; r++) {
+            if (store.statusCode(r) == completed) done++;
+        }
+        return "Total: " + n + "   Pending: " + (n - done) + "   Completed: " + done;
+    }
+}
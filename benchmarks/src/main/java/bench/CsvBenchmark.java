@@ -0,0 +1,64 @@
+package bench;
+
+import dao.TaskDAO;
+import io.CsvExporter;
+import io.CsvWriter;
+import store.LogTaskRepository;
+import org.openjdk.jmh.annotations.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// CSV escaping and full export (store cursor -> CsvWriter -> file)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvBenchmark {
+
+    @State(Scope.Thread)
+    public static class Escape {
+        @Param({ "Buy milk and eggs", "Call Bob, \"urgent\"\nthen email" })
+        public String value;
+
+        final StringBuilder out = new StringBuilder(256);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int appendEscaped(Escape s) {
+        s.out.setLength(0);
+        CsvWriter.appendEscaped(s.out, s.value);
+        return s.out.length();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Export {
+        @Param({ "1000", "100000" })
+        public int rows;
+
+        Path dir;
+        Path target;
+        LogTaskRepository repo;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            dir = Files.createTempDirectory("todo-bench-csv");
+            target = dir.resolve("export.csv");
+            repo = BenchData.openStore(dir, rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            TaskDAO.setRepository(null);
+            repo.close();
+            BenchData.deleteTree(dir);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long export(Export s) throws Exception {
+        return CsvExporter.export(s.target, n -> { }, () -> false);
+    }
+}
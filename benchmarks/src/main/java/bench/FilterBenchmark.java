@@ -0,0 +1,50 @@
+package bench;
+
+import model.TaskStore;
+import search.TaskFilter;
+import search.TrigramIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+// Search box / status filtering (Main.applyFilter's background pass) over loaded rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    // Short queries bypass the trigram index and scan
+    @Param({ "milk", "re", "#12345" })
+    public String query;
+
+    @Param({ "All", "Completed" })
+    public String status;
+
+    private TaskStore store;
+    private TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new TaskStore();
+        store.load(BenchData.tasks(rows));
+        index = new TrigramIndex();
+        index.rebuild(BenchData.tasks(rows));
+    }
+
+    @Benchmark
+    public BitSet matchRows() {
+        return TaskFilter.matchRows(store, query, status, index);
+    }
+
+    // Same filter without the index: the plain scan it replaces
+    @Benchmark
+    public BitSet matchRowsScan() {
+        return TaskFilter.matchRows(store, query, status, null);
+    }
+}
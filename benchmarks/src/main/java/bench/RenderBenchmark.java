@@ -0,0 +1,81 @@
+package bench;
+
+import model.Task;
+import ui.StatusRenderer;
+import ui.TaskTableModel;
+import ui.Theme;
+import ui.ZebraTable;
+import org.openjdk.jmh.annotations.*;
+import javax.swing.JTable;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Paints the task table headlessly into an image, one viewport per call, scrolling
+// down through all rows (and wrapping). Shows paint time per screen; run with
+// -prof gc for the allocation rate (gc.alloc.rate.norm = bytes per screen).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    private static final int VIEW_WIDTH = 940;
+    private static final int VIEW_HEIGHT = 480;
+    private static final int ROW_HEIGHT = 40;
+
+    @Param({ "100000" })
+    public int rows;
+
+    private JTable table;
+    private BufferedImage image;
+    private Graphics2D g;
+    private int top;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Task> tasks = BenchData.tasks(rows);
+        TaskTableModel model = new TaskTableModel();
+        model.setTasks(tasks);
+
+        // Same setup as the main window's table
+        table = new ZebraTable(model);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setFont(Theme.UI_FONT.deriveFont(15f));
+        table.setSelectionBackground(Theme.PRIMARY);
+        table.setShowGrid(false);
+        table.getTableHeader().setFont(Theme.UI_FONT.deriveFont(Font.BOLD, 16f));
+        table.getColumnModel().getColumn(TaskTableModel.COL_STATUS).setCellRenderer(new StatusRenderer());
+        table.getColumnModel().getColumn(TaskTableModel.COL_ID).setMinWidth(0);
+        table.getColumnModel().getColumn(TaskTableModel.COL_ID).setMaxWidth(0);
+        table.getColumnModel().getColumn(TaskTableModel.COL_ID).setWidth(0);
+        table.setSize(VIEW_WIDTH, rows * ROW_HEIGHT);
+        table.doLayout();
+        // A few selected rows so both renderer branches are exercised
+        table.getSelectionModel().addSelectionInterval(3, 5);
+
+        image = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    // One screen of rows, then scroll down by a screen
+    @Benchmark
+    public BufferedImage paintScreen() {
+        g.translate(0, -top);
+        g.setClip(0, top, VIEW_WIDTH, VIEW_HEIGHT);
+        table.paint(g);
+        g.translate(0, top);
+        top += VIEW_HEIGHT;
+        if (top + VIEW_HEIGHT > table.getHeight()) top = 0;
+        return image;
+    }
+}
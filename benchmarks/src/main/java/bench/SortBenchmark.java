@@ -0,0 +1,74 @@
+package bench;
+
+import model.Task;
+import ui.TaskRowSorter;
+import ui.TaskTableModel;
+import org.openjdk.jmh.annotations.*;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.table.TableRowSorter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Header clicks on a loaded table: TaskRowSorter (maintained per-column permutations)
+// against Swing's TableRowSorter (full re-sort with the Collator on every click), plus
+// what one edit costs while the list is sorted. The sorters are installed on a JTable
+// so they receive the model events exactly as in the app.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SortBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int rows;
+
+    private TaskTableModel model;
+    private RowSorter<TaskTableModel> indexed;
+    private RowSorter<TaskTableModel> swing;
+    private int column = TaskTableModel.COL_TITLE;
+    private int edit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Task> tasks = BenchData.tasks(rows);
+        model = new TaskTableModel();
+        model.setTasks(tasks);
+        indexed = new TaskRowSorter(model);
+        swing = new TableRowSorter<>(model);
+        new JTable(model).setRowSorter(indexed);
+        // First sort per column builds its index; measured below is every click after that
+        indexed.toggleSortOrder(TaskTableModel.COL_TITLE);
+        indexed.toggleSortOrder(TaskTableModel.COL_STATUS);
+        indexed.toggleSortOrder(TaskTableModel.COL_TITLE);
+    }
+
+    // Alternate Title / Status, as a user clicking between headers
+    private int nextColumn() {
+        column = column == TaskTableModel.COL_TITLE ? TaskTableModel.COL_STATUS : TaskTableModel.COL_TITLE;
+        return column;
+    }
+
+    @Benchmark
+    public int toggleIndexed() {
+        indexed.toggleSortOrder(nextColumn());
+        return indexed.convertRowIndexToModel(0);
+    }
+
+    @Benchmark
+    public int toggleTableRowSorter() {
+        swing.toggleSortOrder(nextColumn());
+        return swing.convertRowIndexToModel(0);
+    }
+
+    // Retitle one task while sorted by title: the row moves, nothing is re-sorted
+    @Benchmark
+    public int editWhileSorted() {
+        int row = edit++ % rows;
+        Task t = model.getTask(row);
+        model.updateTask(new Task(t.getId(), "Edited " + edit, t.getDescription(), t.getStatus(), t.getVersion()));
+        return indexed.convertRowIndexToView(row);
+    }
+}
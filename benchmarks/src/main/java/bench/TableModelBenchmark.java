@@ -0,0 +1,58 @@
+package bench;
+
+import model.Task;
+import ui.TaskTableModel;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Filling the Swing table model (no window needed) and applying single-row deltas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableModelBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int rows;
+
+    private List<Task> tasks;
+    private TaskTableModel loaded;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = BenchData.tasks(rows);
+        loaded = new TaskTableModel();
+        loaded.setTasks(tasks);
+        nextId = rows + 1;
+    }
+
+    @Benchmark
+    public TaskTableModel populate() {
+        TaskTableModel model = new TaskTableModel();
+        model.setTasks(tasks);
+        return model;
+    }
+
+    // Add + remove one task through the delta path (what an edit costs after load)
+    @Benchmark
+    public int addRemoveDelta() {
+        int id = nextId++;
+        loaded.addTask(new Task(id, "Delta task", "", "Pending"));
+        loaded.removeTask(id);
+        return loaded.getRowCount();
+    }
+
+    @Benchmark
+    public Object readAllCells() {
+        Object last = null;
+        int n = loaded.getRowCount();
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < 4; c++) last = loaded.getValueAt(r, c);
+        }
+        return last;
+    }
+}
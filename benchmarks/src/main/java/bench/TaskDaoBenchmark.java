@@ -0,0 +1,82 @@
+package bench;
+
+import dao.TaskDAO;
+import model.Task;
+import model.TaskOrder;
+import store.LogTaskRepository;
+import org.openjdk.jmh.annotations.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// TaskDAO CRUD against the embedded log store (no MySQL needed)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskDaoBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private Path dir;
+    private LogTaskRepository repo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("todo-bench-dao");
+        repo = BenchData.openStore(dir, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TaskDAO.setRepository(null);
+        repo.close();
+        BenchData.deleteTree(dir);
+    }
+
+    private int randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    // Insert + delete, so the table size stays put across iterations
+    @Benchmark
+    public int addThenDelete() {
+        int id = TaskDAO.addTask(new Task(0, "Benchmark task", "created by JMH", "Pending"));
+        TaskDAO.deleteTask(id);
+        return id;
+    }
+
+    @Benchmark
+    public boolean updateTask() {
+        int id = randomId();
+        return TaskDAO.updateTask(new Task(id, "Edited #" + id, "edited by JMH", "Pending"));
+    }
+
+    @Benchmark
+    public int completeTasks() {
+        return TaskDAO.updateStatus(new int[] { randomId(), randomId(), randomId() }, "Completed");
+    }
+
+    // One table page (PagedTaskTableModel's keyset query)
+    @Benchmark
+    public List<Task> readPage() {
+        return TaskDAO.getPage(TaskOrder.BY_ID, new Task(randomId(), null, null, null), 500);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countByStatus() {
+        return TaskDAO.countByStatus();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Task> loadAll() {
+        return TaskDAO.getAllTasks();
+    }
+}
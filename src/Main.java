@@ -2,57 +2,159 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
-import javax.swing.table.TableCellRenderer;
-import javax.swing.RowFilter;
 import javax.swing.event.DocumentListener;
 import javax.swing.KeyStroke;
 import javax.swing.InputMap;
 import javax.swing.ActionMap;
 import javax.swing.AbstractAction;
 import java.awt.event.ActionEvent;
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.awt.event.KeyEvent;
 import java.awt.event.InputEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import dao.TaskDAO;
+import io.CsvExporter;
+import io.CsvImporter;
+import metrics.Metrics;
+import model.StatusCounters;
 import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import model.TaskStore;
+import search.TaskFilter;
+import search.TrigramIndex;
+import service.SaveResult;
+import service.TaskMerge;
+import service.TaskService;
+import store.TaskSnapshot;
+import service.WriteBehindQueue;
+import ui.DiagnosticsPanel;
+import ui.EdtWatchdog;
+import ui.PagedTaskTableModel;
+import ui.ServerSortRowSorter;
+import ui.StatusRenderer;
+import ui.TaskRowSorter;
+import ui.TaskTableModel;
+import ui.Theme;
+import ui.ZebraTable;
 
 public class Main extends JFrame {
 
     private static final long serialVersionUID = 1L;
 
-    // Color palette (CSS-like variables)
-    private static final Color BG = new Color(245, 247, 250);           // app background
-    private static final Color CARD = new Color(255, 255, 255);         // panel/card bg
-    private static final Color PRIMARY = new Color(30, 116, 230);       // primary blue
-    private static final Color SUCCESS = new Color(46, 125, 50);        // green (kept for theme references)
-    private static final Color DANGER  = new Color(211, 47, 47);        // red (kept for theme references)
-    private static final Color ACCENT  = new Color(100, 116, 139);      // neutral
-    private static final Font   HEAD_FONT = new Font("Segoe UI", Font.BOLD, 26);
-    private static final Font   UI_FONT   = new Font("Segoe UI", Font.PLAIN, 15);
+    // Color palette (CSS-like variables, defined in ui.Theme)
+    private static final Color BG = Theme.BG;                // app background
+    private static final Color CARD = Theme.CARD;            // panel/card bg
+    private static final Color PRIMARY = Theme.PRIMARY;      // primary blue
+    private static final Color SUCCESS = Theme.SUCCESS;      // green (kept for theme references)
+    private static final Color DANGER  = Theme.DANGER;       // red (kept for theme references)
+    private static final Color ACCENT  = Theme.ACCENT;       // neutral
+    private static final Font   HEAD_FONT = Theme.HEAD_FONT;
+    private static final Font   UI_FONT   = Theme.UI_FONT;
+
+    // Above this many tasks the table pages rows in on demand instead of loading them all
+    private static final int PAGED_THRESHOLD = 50_000;
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_CACHED_PAGES = 12;
+    // Paged edits that move rows between pages within this window share one re-anchor
+    private static final int REANCHOR_DELAY_MS = 1000;
+    // Keystrokes within this window are coalesced into one filter pass
+    private static final int FILTER_DEBOUNCE_MS = 150;
+    // Change notifications arriving within this window are refetched together
+    private static final int REMOTE_CHANGE_DELAY_MS = 100;
+    // Large lists are searched in the database; at most this many matches are shown
+    private static final int SEARCH_LIMIT = 1000;
+    // A delta bigger than this is cheaper to apply as a full reload
+    private static final int MAX_DELTA_ROWS = 10_000;
+    // Last-known task list, shown at startup before the store answers
+    private static final Path SNAPSHOT_PATH = Paths.get(System.getProperty("todo.snapshot.path",
+            Paths.get(System.getProperty("user.home"), ".todo", "tasks.snap").toString()));
+    // Rows per transaction when importing CSV
+    private static final int IMPORT_COMMIT_SIZE = Integer.getInteger("todo.import.commitSize", 5_000);
+
+    // Async results are handed back on the Event Dispatch Thread
+    private static final Executor EDT = SwingUtilities::invokeLater;
+
+    private final TaskService service = new TaskService(Boolean.getBoolean("todo.writeBehind")
+            ? new WriteBehindQueue(Integer.getInteger("todo.writeBehind.batch", 200),
+                                   Long.getLong("todo.writeBehind.delayMs", 500L))
+            : null);
+    // Substring index over the loaded tasks, kept in step with the table model
+    private final TrigramIndex textIndex = new TrigramIndex();
+    // Status bar totals, seeded from the database and then updated by deltas
+    private final StatusCounters counters = new StatusCounters();
+    private int busyCount;
 
     private JPanel contentPane;
     private JTable table;
-    private DefaultTableModel model;
-    private TableRowSorter<DefaultTableModel> sorter;
+    private TaskTableModel model;
+    private TaskRowSorter sorter;
+    private PagedTaskTableModel pagedModel;
+    private ServerSortRowSorter pagedSorter;
+    // Order the current page anchors were computed in
+    private TaskOrder pagedOrder = TaskOrder.BY_ID;
+    private boolean pagedMode;
+    private boolean serverFiltering;
     private JTextField searchField;
     private String statusFilter = "All";
+    private Timer filterDebounce;
+    private int filterGeneration;
+    // Change version the in-memory list is current to; -1 = unknown (full reload needed)
+    private long syncVersion = -1;
+    private JDialog diagnosticsDialog;
+    // Ids other clients changed, waiting for the next refetch (null = lost track)
+    private Set<Integer> remoteChanges = new HashSet<>();
+    private Timer remoteChangeTimer;
+    private Timer reanchorTimer;
     private JButton filterAllBtn;
     private JButton filterPendingBtn;
     private JButton filterCompletedBtn;
     private JLabel countsLabel;
+    private JLabel busyLabel;
     private JButton editBtn;
     private JButton completeBtn;
     private JButton deleteBtn;
     private JButton refreshBtn;
     private JButton exportBtn;
+    private JButton importBtn;
 
     public static void main(String[] args) {
+        // Open the task store (pooled connections or the local log index) while the UI is being built
+        Thread warmUp = new Thread(() -> {
+            try {
+                TaskDAO.warmUp();
+            } catch (IllegalStateException e) {
+                // The store can't be opened at all, e.g. the local log is in use by the CLI
+                EventQueue.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(null, e.getMessage(), "Task store unavailable", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                });
+            }
+        }, "db-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(TaskDAO::shutdown, "db-shutdown"));
+        Metrics.registerMBean();
+        // Logs what froze the UI whenever an event takes too long (-Dtodo.edt.watchdog=false to disable)
+        if (Boolean.parseBoolean(System.getProperty("todo.edt.watchdog", "true"))) EdtWatchdog.install();
+
         EventQueue.invokeLater(() -> {
             try {
                 Main frame = new Main();
@@ -66,21 +168,36 @@ public class Main extends JFrame {
     public Main() {
         setTitle("Modern To-Do (Swing) — No FlatLaf");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Runs before EXIT_ON_CLOSE exits: writes out anything still queued
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowClosing(WindowEvent e) {
+                service.shutdown();
+                if (canSnapshot()) writeSnapshot(model.snapshot(), syncVersion);
+            }
+        });
+        if (service.getWriteBehind() != null) {
+            service.getWriteBehind().setListener(() -> SwingUtilities.invokeLater(this::updateCountsLabel));
+        }
         setSize(980, 620);
         setLocationRelativeTo(null);
 
         // Root
         contentPane = new JPanel(new BorderLayout()) {
+            // Rebuilt only when the size changes
+            private GradientPaint gradient;
+
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                Color c1 = new Color(241, 245, 255);
-                Color c2 = new Color(236, 252, 203);
-                GradientPaint gp = new GradientPaint(0, 0, c1, getWidth(), getHeight(), c2);
-                g2.setPaint(gp);
-                g2.fillRect(0, 0, getWidth(), getHeight());
-                g2.dispose();
+                int w = getWidth();
+                int h = getHeight();
+                if (gradient == null || gradient.getPoint2().getX() != w || gradient.getPoint2().getY() != h) {
+                    gradient = new GradientPaint(0, 0, Theme.GRADIENT_START, w, h, Theme.GRADIENT_END);
+                }
+                Graphics2D g2 = (Graphics2D) g;
+                Paint old = g2.getPaint();
+                g2.setPaint(gradient);
+                g2.fillRect(0, 0, w, h);
+                g2.setPaint(old);
             }
         };
         contentPane.setBackground(BG);
@@ -147,39 +264,26 @@ public class Main extends JFrame {
         JPanel centerCard = buildCard(new BorderLayout());
         contentPane.add(centerCard, BorderLayout.CENTER);
 
-        model = new DefaultTableModel(new String[] { "ID", "Title", "Description", "Status" }, 0) {
-            private static final long serialVersionUID = 1L;
-            // Make ID column non-editable in table
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
-        table = new JTable(model) {
-            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
-                Component c = super.prepareRenderer(renderer, row, column);
-                if (!isRowSelected(row)) {
-                    c.setBackground(row % 2 == 0 ? new Color(250, 252, 255) : Color.WHITE);
-                }
-                return c;
-            }
-        };
+        model = new TaskTableModel();
+        pagedModel = new PagedTaskTableModel(PAGE_SIZE, MAX_CACHED_PAGES,
+                (after, limit) -> service.page(pagedOrder, after, limit));
+        // Paged header clicks re-anchor the pages in the new order on the server
+        pagedSorter = new ServerSortRowSorter(pagedModel, order -> loadTasks());
+        table = new ZebraTable(model);
         table.setRowHeight(40);
         table.setFont(UI_FONT.deriveFont(15f));
         table.setSelectionBackground(PRIMARY);
         table.setSelectionForeground(Color.WHITE);
         table.getTableHeader().setFont(UI_FONT.deriveFont(Font.BOLD, 16f));
-        table.getTableHeader().setBackground(new Color(250,250,250));
+        table.getTableHeader().setBackground(Theme.HEADER_BG);
         table.getTableHeader().setPreferredSize(new Dimension(0, 42));
         table.setShowGrid(false);
         table.setIntercellSpacing(new Dimension(0, 0));
         table.setAutoResizeMode(JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS);
 
-        sorter = new TableRowSorter<>(model);
+        sorter = new TaskRowSorter(model);
         table.setRowSorter(sorter);
-        // Chip-like colored status
-        table.getColumnModel().getColumn(3).setCellRenderer(new StatusRenderer());
-        // Hide ID column
-        table.getColumnModel().getColumn(0).setMinWidth(0);
-        table.getColumnModel().getColumn(0).setMaxWidth(0);
-        table.getColumnModel().getColumn(0).setWidth(0);
+        configureColumns();
 
         JScrollPane scroll = new JScrollPane(table);
         scroll.setBorder(BorderFactory.createEmptyBorder());
@@ -191,6 +295,11 @@ public class Main extends JFrame {
         countsLabel.setFont(UI_FONT);
         countsLabel.setForeground(ACCENT);
         statusBar.add(countsLabel, BorderLayout.WEST);
+        busyLabel = new JLabel("⏳ Working…");
+        busyLabel.setFont(UI_FONT);
+        busyLabel.setForeground(ACCENT);
+        busyLabel.setVisible(false);
+        statusBar.add(busyLabel, BorderLayout.EAST);
         contentPane.add(statusBar, BorderLayout.SOUTH);
 
         // Bottom: action buttons
@@ -208,25 +317,30 @@ public class Main extends JFrame {
         styleActionButton(refreshBtn, new Color(107, 114, 128));
         exportBtn = new RoundedButton("⬇ Export CSV");
         styleActionButton(exportBtn, new Color(147, 51, 234));
+        importBtn = new RoundedButton("⬆ Import CSV");
+        styleActionButton(importBtn, new Color(124, 58, 237));
         editBtn.setPreferredSize(new Dimension(140, 44));
         completeBtn.setPreferredSize(new Dimension(140, 44));
         deleteBtn.setPreferredSize(new Dimension(140, 44));
         refreshBtn.setPreferredSize(new Dimension(140, 44));
         exportBtn.setPreferredSize(new Dimension(140, 44));
+        importBtn.setPreferredSize(new Dimension(140, 44));
 
         bottomCard.add(editBtn);
         bottomCard.add(completeBtn);
         bottomCard.add(deleteBtn);
         bottomCard.add(exportBtn);
+        bottomCard.add(importBtn);
         bottomCard.add(refreshBtn);
 
         // Wire actions
         addBtn.addActionListener(e -> { if (e != null) e.getSource(); addTask(); });
-        refreshBtn.addActionListener(e -> { if (e != null) e.getSource(); loadTasks(); });
+        refreshBtn.addActionListener(e -> { if (e != null) e.getSource(); refreshTasks(); });
         deleteBtn.addActionListener(e -> { if (e != null) e.getSource(); deleteTask(); });
         editBtn.addActionListener(e -> { if (e != null) e.getSource(); editTask(); });
         completeBtn.addActionListener(e -> { if (e != null) e.getSource(); markCompleted(); });
         exportBtn.addActionListener(e -> { if (e != null) e.getSource(); exportCSV(); });
+        importBtn.addActionListener(e -> { if (e != null) e.getSource(); importCSV(); });
 
         // Filter button actions
         filterAllBtn.addActionListener(e -> { if (e != null) e.getSource(); statusFilter = "All"; applyFilter(); });
@@ -234,10 +348,12 @@ public class Main extends JFrame {
         filterCompletedBtn.addActionListener(e -> { if (e != null) e.getSource(); statusFilter = "Completed"; applyFilter(); });
 
         // Search filter
+        filterDebounce = new Timer(FILTER_DEBOUNCE_MS, e -> { if (e != null) e.getSource(); applyFilter(); });
+        filterDebounce.setRepeats(false);
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); applyFilter(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); applyFilter(); }
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); applyFilter(); }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); scheduleFilter(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); scheduleFilter(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { if (e != null) e.getDocument(); scheduleFilter(); }
         });
         searchField.addActionListener(e -> { if (e != null) e.getSource(); if (searchField.getText().trim().isEmpty()) applyFilter(); });
 
@@ -257,8 +373,18 @@ public class Main extends JFrame {
         // Keyboard shortcuts
         setupKeyBindings();
 
-        // Load initial tasks
-        loadTasks();
+        // Load initial tasks (from the local snapshot first, when there is one)
+        loadFromSnapshot();
+
+        // Other clients' changes arrive as task ids; only those rows are refetched
+        remoteChangeTimer = new Timer(REMOTE_CHANGE_DELAY_MS, e -> { if (e != null) e.getSource(); fetchRemoteChanges(); });
+        remoteChangeTimer.setRepeats(false);
+        reanchorTimer = new Timer(REANCHOR_DELAY_MS, e -> { if (e != null) e.getSource(); reanchor(); });
+        reanchorTimer.setRepeats(false);
+        service.submit(() -> {
+            TaskDAO.getNotifier().start(ids -> SwingUtilities.invokeLater(() -> onRemoteChange(ids)));
+            return null;
+        });
     }
 
     // --- UI helpers ----------------------------------------------------
@@ -292,66 +418,360 @@ public class Main extends JFrame {
         });
     }
 
+    // Re-applied whenever the table model is swapped, since JTable rebuilds its columns
+    private void configureColumns() {
+        // Chip-like colored status
+        table.getColumnModel().getColumn(3).setCellRenderer(new StatusRenderer());
+        // Hide ID column
+        table.getColumnModel().getColumn(0).setMinWidth(0);
+        table.getColumnModel().getColumn(0).setMaxWidth(0);
+        table.getColumnModel().getColumn(0).setWidth(0);
+    }
+
     // --- Data actions -------------------------------------------------
 
     private void loadTasks() {
-        SwingUtilities.invokeLater(() -> {
-            model.setRowCount(0);
-            List<Task> tasks = TaskDAO.getAllTasks(); // static in your DAO earlier
-            for (Task t : tasks) {
-                model.addRow(new Object[] { t.getId(), t.getTitle(), t.getDescription(), t.getStatus() });
+        syncVersion = -1;
+        runAsync(service.countByStatus(), byStatus -> {
+            if (byStatus != null) counters.seed(byStatus);
+            int count = counters.getTotal();
+            serverFiltering = count > PAGED_THRESHOLD;
+            if (serverFiltering) {
+                if (hasActiveFilter()) searchOnServer();
+                else loadPaged(count);
+            } else {
+                // A newer load cancels this one, so only the latest result is shown
+                runAsync(service.loadAll(), all -> {
+                    if (all == null) return; // store unreachable: keep what is shown
+                    usePagedModel(false);
+                    model.setTasks(all.getUpserts());
+                    textIndex.rebuild(all.getUpserts());
+                    syncVersion = all.getVersion();
+                    applyFilter();
+                    saveSnapshot();
+                });
             }
+        });
+    }
+
+    // Refresh button: with every task loaded, fetch only what changed since the last
+    // sync and merge it in; otherwise (paged, server search, no tracking) reload
+    private void refreshTasks() {
+        if (syncVersion < 0 || pagedMode || serverFiltering) {
+            loadTasks();
+            return;
+        }
+        long since = syncVersion;
+        runAsync(service.changesSince(since), changes -> {
+            if (since != syncVersion) return; // a full load replaced the list meanwhile
+            // A clock behind what we last saw means the store was recreated or restored
+            // (new log file, rebuilt database at the same URL): the delta would miss rows.
+            // So would one from before the store's pruned tombstones (isTooOld)
+            if (changes == null || changes.isTooOld() || changes.getVersion() < since
+                    || changes.size() > MAX_DELTA_ROWS
+                    || counters.getTotal() + changes.getUpserts().size() > PAGED_THRESHOLD) {
+                loadTasks();
+                return;
+            }
+            if (changes.getVersion() == syncVersion) return;
+            syncVersion = changes.getVersion();
+            if (!changes.isEmpty()) {
+                applyDelta(List.of(), changes.getUpserts(), changes.getDeletedIds(), () -> mergeChanges(changes));
+            }
+            saveSnapshot();
+        });
+    }
+
+    // Upserts and tombstones go through the same deltas as local edits (idempotent,
+    // so our own changes coming back are no-ops)
+    private void mergeChanges(TaskChanges changes) {
+        for (Task t : changes.getUpserts()) {
+            String before = loadedStatus(t.getId());
+            if (before == null) counters.added(t.getStatus());
+            else counters.statusChanged(before, t.getStatus());
+            model.updateTask(t);
+            textIndex.put(t);
+        }
+        int[] deleted = changes.getDeletedIds();
+        for (int id : deleted) {
+            String old = loadedStatus(id);
+            if (old != null) counters.removed(old);
+            textIndex.remove(id);
+        }
+        model.removeTasks(deleted);
+    }
+
+    // --- Change notifications -------------------------------------------
+
+    private void onRemoteChange(int[] ids) {
+        if (ids == null || remoteChanges == null) {
+            remoteChanges = null;
+        } else {
+            for (int id : ids) remoteChanges.add(id);
+        }
+        if (!remoteChangeTimer.isRunning()) remoteChangeTimer.start();
+    }
+
+    private void fetchRemoteChanges() {
+        Set<Integer> changed = remoteChanges;
+        remoteChanges = new HashSet<>();
+        // Paged and server-filtered views hold a window of rows and reload on demand
+        if (syncVersion < 0 || pagedMode || serverFiltering) return;
+        if (changed == null || changed.size() > MAX_DELTA_ROWS) {
+            refreshTasks();
+            return;
+        }
+        int[] ids = changed.stream().mapToInt(Integer::intValue).toArray();
+        // Not through runAsync: background sync shouldn't flash the busy indicator
+        service.tasksById(ids).whenCompleteAsync((tasks, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            if (tasks == null || syncVersion < 0 || pagedMode || serverFiltering) return;
+            Set<Integer> found = new HashSet<>();
+            for (Task t : tasks) found.add(t.getId());
+            int[] gone = Arrays.stream(ids).filter(id -> !found.contains(id)).toArray();
+            applyDelta(List.of(), tasks, gone, () -> mergeChanges(new TaskChanges(tasks, gone, syncVersion)));
+        }, EDT);
+    }
+
+    // --- Local snapshot -----------------------------------------------
+
+    // Startup: show the last saved list right away, then catch up with the store in the background
+    private void loadFromSnapshot() {
+        runAsync(service.submit(() -> TaskSnapshot.read(SNAPSHOT_PATH)), snap -> {
+            if (snap == null || syncVersion >= 0 || snap.getTasks().size() > PAGED_THRESHOLD) {
+                loadTasks();
+                return;
+            }
+            List<Task> tasks = snap.getTasks();
+            model.setTasks(tasks);
+            textIndex.rebuild(tasks);
+            counters.seed(Map.of());
+            for (Task t : tasks) counters.added(t.getStatus());
+            applyFilter();
+            // Only trust the snapshot's version against the store it was taken from
+            runAsync(service.submitRead(TaskDAO::getStoreId), storeId -> {
+                if (snap.getVersion() < 0 || storeId == null || !storeId.equals(snap.getStoreId())) {
+                    loadTasks();
+                } else {
+                    syncVersion = snap.getVersion();
+                    refreshTasks();
+                }
+            });
+        });
+    }
+
+    // Only a complete list that is in sync (and has no unsaved write-behind edits) is saved
+    private boolean canSnapshot() {
+        if (syncVersion < 0 || pagedMode || serverFiltering) return false;
+        WriteBehindQueue queue = service.getWriteBehind();
+        return queue == null || queue.getPendingCount() == 0;
+    }
+
+    // After a sync: write the snapshot in the background (a newer save supersedes it)
+    private void saveSnapshot() {
+        if (!canSnapshot()) return;
+        TaskStore rows = model.snapshot();
+        long version = syncVersion;
+        service.computeLatest("snapshot", () -> {
+            writeSnapshot(rows, version);
+            return null;
+        });
+    }
+
+    private static void writeSnapshot(TaskStore rows, long version) {
+        try {
+            String storeId = TaskDAO.getStoreId();
+            if (storeId != null) TaskSnapshot.write(SNAPSHOT_PATH, rows, version, storeId);
+        } catch (ClosedByInterruptException e) {
+            // superseded by a newer save
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Very large lists: fetch only page anchors now, rows are paged in as they scroll into view
+    private void loadPaged(int count) {
+        TaskOrder order = pagedSorter.getOrder();
+        runAsync(service.pageAnchors(PAGE_SIZE, order), anchors -> {
+            if (anchors == null) return;
+            usePagedModel(true);
+            reanchorTimer.stop();
+            pagedOrder = order;
+            model.setTasks(List.of());
+            textIndex.clear();
+            syncVersion = -1;
+            pagedModel.reset(count, anchors, order);
             updateCountsLabel();
         });
     }
 
-    private void applyFilter() {
-        String text = searchField.getText();
-        if (text == null || text.trim().isEmpty()) {
-            // still apply status filter if not All
-            if ("All".equals(statusFilter)) {
-                sorter.setRowFilter(null);
+    private void usePagedModel(boolean paged) {
+        if (paged == pagedMode) return;
+        pagedMode = paged;
+        table.setRowSorter(null);
+        table.setModel(paged ? pagedModel : model);
+        // Client-side sorting/filtering needs every row in memory; paged rows sort on the server
+        table.setRowSorter(paged ? pagedSorter : sorter);
+        configureColumns();
+    }
+
+    // Applies a successful mutation locally: delta updates the full list; in paged mode the
+    // same tasks go to the loaded pages instead (see applyPaged)
+    private void applyDelta(List<Task> added, List<Task> changed, int[] deleted, Runnable delta) {
+        if (pagedMode) {
+            applyPaged(added, changed, deleted);
+            return;
+        }
+        delta.run();
+        // Filter results are a row set computed from a snapshot; recompute against the new data
+        if (hasActiveFilter()) applyFilter();
+        else updateCountsLabel();
+    }
+
+    // Paged mode: rows are edited and removed in place, new ones are slotted into their
+    // page (see PagedTaskTableModel). Anchoring scans the whole table, so it is redone only
+    // when rows moved to a page that can't be worked out here, once the edits pause.
+    // Counters need the old status, so a change to a row that isn't loaded reloads.
+    private void applyPaged(List<Task> added, List<Task> changed, int[] deleted) {
+        boolean reanchor = false;
+        for (Task t : added) {
+            counters.added(t.getStatus());
+            if (!pagedModel.insert(t)) reanchor = true;
+        }
+        for (Task t : changed) {
+            Task before = pagedModel.findTask(t.getId());
+            if (before == null) { loadTasks(); return; }
+            counters.statusChanged(before.getStatus(), t.getStatus());
+            if (!pagedModel.update(t)) reanchor = true;
+        }
+        for (int id : deleted) {
+            Task before = pagedModel.findTask(id);
+            if (before == null) { loadTasks(); return; }
+            counters.removed(before.getStatus());
+            pagedModel.remove(id);
+        }
+        updateCountsLabel();
+        if (reanchor) reanchorTimer.restart();
+    }
+
+    // Fresh anchors in the current order; the total comes from the counters, not a recount
+    private void reanchor() {
+        if (!pagedMode) return;
+        int count = counters.getTotal();
+        if (count > PAGED_THRESHOLD) loadPaged(count);
+        else loadTasks();
+    }
+
+    // Task at a model row, or null while its page is still loading
+    private Task taskAt(int modelRow) {
+        return pagedMode ? pagedModel.getTask(modelRow) : model.getTask(modelRow);
+    }
+
+    // Runs DAO work off the EDT, shows progress meanwhile, and delivers only the result on the EDT
+    private <T> void runAsync(CompletableFuture<T> work, Consumer<T> onResult) {
+        setBusy(1);
+        work.whenCompleteAsync((result, error) -> {
+            setBusy(-1);
+            if (error == null) {
+                onResult.accept(result);
             } else {
-                sorter.setRowFilter(new RowFilter<DefaultTableModel, Integer>() {
-                    @Override
-                    public boolean include(Entry<? extends DefaultTableModel, ? extends Integer> entry) {
-                        Object s = entry.getValue(3);
-                        return s != null && s.toString().equalsIgnoreCase(statusFilter);
-                    }
-                });
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!(cause instanceof CancellationException)) cause.printStackTrace();
             }
+        }, EDT);
+    }
+
+    private void setBusy(int delta) {
+        busyCount += delta;
+        boolean busy = busyCount > 0;
+        busyLabel.setVisible(busy);
+        table.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    private boolean hasActiveFilter() {
+        return TaskFilter.isActive(searchField.getText(), statusFilter);
+    }
+
+    // Large lists: the database filters (indexed status + full-text), only matches are fetched
+    private void searchOnServer() {
+        runAsync(service.search(searchField.getText(), statusFilter, SEARCH_LIMIT), tasks -> {
+            if (tasks == null) return;
+            usePagedModel(false);
+            sorter.setRowFilter(null);
+            model.setTasks(tasks);
+            syncVersion = -1; // only the matches are loaded
             updateCountsLabel();
+        });
+    }
+
+    private void applyFilter() {
+        filterDebounce.stop();
+        int generation = ++filterGeneration;
+        if (serverFiltering) {
+            if (hasActiveFilter()) searchOnServer();
+            else loadTasks();
             return;
         }
-        String q = text.trim().toLowerCase();
-        sorter.setRowFilter(new RowFilter<DefaultTableModel, Integer>() {
-            @Override
-            public boolean include(Entry<? extends DefaultTableModel, ? extends Integer> entry) {
-                boolean matchesSearch = false;
-                for (int i = 0; i < entry.getValueCount(); i++) {
-                    Object v = entry.getValue(i);
-                    if (v != null && v.toString().toLowerCase().contains(q)) { matchesSearch = true; break; }
-                }
-                if (!matchesSearch) return false;
-                if ("All".equals(statusFilter)) return true;
-                Object s = entry.getValue(3);
-                return s != null && s.toString().equalsIgnoreCase(statusFilter);
-            }
+        String query = searchField.getText();
+        String status = statusFilter;
+        if (!TaskFilter.isActive(query, status)) {
+            sorter.setRowFilter(null);
+            updateCountsLabel();
+            return;
+        }
+        // Match on a background worker over a snapshot; only the resulting row set comes back
+        TaskStore rows = model.snapshot();
+        long modCount = model.getModCount();
+        runAsync(service.computeLatest("filter",
+                () -> TaskFilter.matchRows(rows, query, status, textIndex)), matches -> {
+            if (matches == null || generation != filterGeneration) return; // superseded
+            if (model.getModCount() != modCount) { applyFilter(); return; } // rows moved meanwhile
+            sorter.setRowFilter(matches);
+            updateCountsLabel();
         });
-        updateCountsLabel();
     }
 
+    // Typing restarts the debounce window; the filter runs once input pauses
+    private void scheduleFilter() {
+        filterDebounce.restart();
+    }
+
+    // O(1): totals come from the delta-maintained counters, the filtered count from the view
     private void updateCountsLabel() {
-        int total = model.getRowCount();
-        int completed = 0;
-        int pending = 0;
-        for (int i = 0; i < total; i++) {
-            Object s = model.getValueAt(i, 3);
-            if (s != null && s.toString().equalsIgnoreCase("Completed")) completed++;
+        String totals = "Total: " + counters.getTotal() + "   Pending: " + counters.getPending()
+                + "   Completed: " + counters.getCompleted() + unsavedNote();
+        if (pagedMode) {
+            countsLabel.setText(totals + "   | Large list: rows load as you scroll");
+            return;
+        }
+        int shown = table.getRowCount();
+        if (serverFiltering) {
+            countsLabel.setText(totals + "   | Matches: " + shown + (shown >= SEARCH_LIMIT ? "+ (refine your search)" : "")
+                    + "   | Filter: " + statusFilter);
+            return;
         }
-        pending = total - completed;
         String filterNote = "All".equals(statusFilter) ? "All" : statusFilter;
-        countsLabel.setText("Total: " + total + "   Pending: " + pending + "   Completed: " + completed + "   | Filter: " + filterNote);
+        countsLabel.setText(totals + "   | Filter: " + filterNote + " (" + shown + " shown)");
+    }
+
+    // Write-behind mode: how many edited tasks aren't in the database yet, and how many
+    // edits the store refused (see WriteBehindQueue.getDroppedCount)
+    private String unsavedNote() {
+        WriteBehindQueue queue = service.getWriteBehind();
+        if (queue == null) return "";
+        int unsaved = queue.getPendingCount();
+        long dropped = queue.getDroppedCount();
+        return (unsaved == 0 ? "" : "   | 💾 " + unsaved + " unsaved")
+                + (dropped == 0 ? "" : "   | ⚠ " + dropped + " not saved");
+    }
+
+    // Status of a loaded task, or null if it isn't in the model
+    private String loadedStatus(int id) {
+        int row = model.rowOf(id);
+        return row < 0 ? null : model.getStatusAt(row);
     }
 
     private void updateActionButtons() {
@@ -388,8 +808,28 @@ public class Main extends JFrame {
         contentPane.getActionMap().put("focusSearch", new AbstractAction() {
             public void actionPerformed(ActionEvent e) { if (e == null) return; searchField.requestFocusInWindow(); }
         });
+
+        // Store latency/error metrics with Ctrl+Shift+D
+        contentPane.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_D, InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK), "diagnostics");
+        contentPane.getActionMap().put("diagnostics", new AbstractAction() {
+            public void actionPerformed(ActionEvent e) { if (e == null) return; showDiagnostics(); }
+        });
+    }
+
+    // Non-modal, so it can stay open while the app is used
+    private void showDiagnostics() {
+        if (diagnosticsDialog == null) {
+            diagnosticsDialog = new JDialog(this, "Diagnostics", false);
+            diagnosticsDialog.setContentPane(new DiagnosticsPanel());
+            diagnosticsDialog.pack();
+            diagnosticsDialog.setLocationRelativeTo(this);
+        }
+        diagnosticsDialog.setVisible(true);
+        diagnosticsDialog.toFront();
     }
 
+    // Streams the whole tasks table (not just the loaded rows) to CSV in the background
     private void exportCSV() {
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle("Export tasks to CSV");
@@ -397,46 +837,92 @@ public class Main extends JFrame {
         int result = chooser.showSaveDialog(this);
         if (result != JFileChooser.APPROVE_OPTION) return;
         File file = chooser.getSelectedFile();
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-            // header
-            pw.println("ID,Title,Description,Status");
-            for (int i = 0; i < model.getRowCount(); i++) {
-                Object id = model.getValueAt(i, 0);
-                Object title = escapeCsv(model.getValueAt(i, 1));
-                Object desc = escapeCsv(model.getValueAt(i, 2));
-                Object status = escapeCsv(model.getValueAt(i, 3));
-                pw.println(id + "," + title + "," + desc + "," + status);
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting tasks to " + file.getName(), " ",
+                0, Math.max(1, counters.getTotal()));
+        monitor.setMillisToDecideToPopup(300);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        exportBtn.setEnabled(false);
+        service.submitRead(() -> {
+            try {
+                return CsvExporter.export(file.toPath(), rows -> SwingUtilities.invokeLater(() -> {
+                    if (monitor.isCanceled()) {
+                        cancelled.set(true);
+                        return;
+                    }
+                    monitor.setProgress((int) Math.min(rows, Integer.MAX_VALUE));
+                    monitor.setNote(rows + " tasks written");
+                }), cancelled::get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            JOptionPane.showMessageDialog(this, "Exported to " + file.getAbsolutePath());
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to export: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }).whenCompleteAsync((rows, error) -> {
+            monitor.close();
+            exportBtn.setEnabled(true);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof UncheckedIOException) cause = cause.getCause();
+                JOptionPane.showMessageDialog(this, "Failed to export: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (rows < 0) {
+                JOptionPane.showMessageDialog(this, "Export cancelled.");
+            } else {
+                JOptionPane.showMessageDialog(this, "Exported " + rows + " tasks to " + file.getAbsolutePath());
+            }
+        }, EDT);
     }
 
-    private String escapeCsv(Object value) {
-        String s = value == null ? "" : value.toString();
-        boolean needQuotes = s.contains(",") || s.contains("\n") || s.contains("\"");
-        s = s.replace("\"", "\"\"");
-        return needQuotes ? "\"" + s + "\"" : s;
-    }
+    // Bulk-loads a CSV (as written by Export) in the background, then reloads the table
+    private void importCSV() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import tasks from CSV");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
 
-    // Colored status renderer
-    private class StatusRenderer extends JLabel implements TableCellRenderer {
-        StatusRenderer() { setOpaque(true); setHorizontalAlignment(SwingConstants.CENTER); setFont(UI_FONT); }
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            String status = value == null ? "" : value.toString();
-            setText(status);
-            Color bg = CARD;
-            Color fg = ACCENT;
-            if ("Completed".equalsIgnoreCase(status)) { bg = new Color(223, 240, 216); fg = new Color(46, 125, 50); }
-            else if ("Pending".equalsIgnoreCase(status)) { bg = new Color(255, 243, 205); fg = new Color(204, 142, 0); }
-            setBackground(isSelected ? table.getSelectionBackground() : bg);
-            setForeground(isSelected ? table.getSelectionForeground() : fg);
-            setBorder(BorderFactory.createLineBorder(new Color(0,0,0,20)));
-            return this;
-        }
+        // Progress in per mille of the file's bytes
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + file.getName(), " ", 0, 1000);
+        monitor.setMillisToDecideToPopup(300);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        long startNanos = System.nanoTime();
+        importBtn.setEnabled(false);
+        CsvImporter importer = new CsvImporter(IMPORT_COMMIT_SIZE, Runtime.getRuntime().availableProcessors());
+        service.submitOrdered(() -> {
+            try {
+                return importer.importFile(file.toPath(), (rows, done, total) -> SwingUtilities.invokeLater(() -> {
+                    if (monitor.isCanceled()) {
+                        cancelled.set(true);
+                        return;
+                    }
+                    monitor.setProgress((int) (done * 1000 / Math.max(1, total)));
+                    double seconds = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+                    monitor.setNote(rows + " rows (" + (long) (rows / seconds) + " rows/s)");
+                }), cancelled::get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenCompleteAsync((res, error) -> {
+            monitor.close();
+            importBtn.setEnabled(true);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof UncheckedIOException) cause = cause.getCause();
+                JOptionPane.showMessageDialog(this, "Failed to import: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            StringBuilder msg = new StringBuilder();
+            msg.append(res.isCancelled() ? "Import cancelled. " : "Import finished. ")
+               .append(res.getImported()).append(" rows imported at ")
+               .append((long) res.getRowsPerSecond()).append(" rows/s, ")
+               .append(res.getRejected()).append(" rejected.");
+            List<String> errors = res.getErrors();
+            for (int i = 0; i < Math.min(10, errors.size()); i++) msg.append("\n").append(errors.get(i));
+            if (errors.size() > 10) msg.append("\n… and ").append(errors.size() - 10).append(" more");
+            JOptionPane.showMessageDialog(this, msg.toString(), "Import",
+                    errors.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            loadTasks();
+        }, EDT);
     }
 
+    // Colored status renderer
     private void addTask() {
         JTextField titleField = new JTextField();
         JTextField descField = new JTextField();
@@ -460,8 +946,18 @@ public class Main extends JFrame {
                 return;
             }
             Task t = new Task(0, title, desc, status);
-            TaskDAO.addTask(t);
-            loadTasks();
+            runAsync(service.addTask(t), id -> {
+                if (id > 0) {
+                    t.setId(id);
+                    applyDelta(List.of(t), List.of(), new int[0], () -> {
+                        model.addTask(t);
+                        textIndex.put(t);
+                        counters.added(t.getStatus());
+                    });
+                } else {
+                    loadTasks();
+                }
+            });
         }
     }
 
@@ -470,21 +966,32 @@ public class Main extends JFrame {
         if (sel.length == 0) { JOptionPane.showMessageDialog(this, "Select task(s) to delete."); return; }
         int ans = JOptionPane.showConfirmDialog(this, "Delete " + sel.length + " selected task(s)?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (ans != JOptionPane.YES_OPTION) return;
-        for (int viewRow : sel) {
-            int modelRow = table.convertRowIndexToModel(viewRow);
-            int id = (int) model.getValueAt(modelRow, 0);
-            TaskDAO.deleteTask(id);
-        }
-        loadTasks();
+        int[] ids = selectedIds(sel);
+        runAsync(service.deleteTasks(ids), n -> {
+            if (n >= 0) {
+                applyDelta(List.of(), List.of(), ids, () -> {
+                    for (int id : ids) {
+                        String old = loadedStatus(id);
+                        if (old != null) counters.removed(old);
+                    }
+                    model.removeTasks(ids);
+                    for (int id : ids) textIndex.remove(id);
+                });
+            } else {
+                loadTasks();
+            }
+        });
     }
 
     private void editTask() {
         int r = table.getSelectedRow();
         if (r == -1) { JOptionPane.showMessageDialog(this, "Select a task to edit."); return; }
-        int id = (int) model.getValueAt(r, 0);
-        String oldTitle = (String) model.getValueAt(r, 1);
-        String oldDesc  = (String) model.getValueAt(r, 2);
-        String oldStatus= (String) model.getValueAt(r, 3);
+        Task old = taskAt(table.convertRowIndexToModel(r));
+        if (old == null) { JOptionPane.showMessageDialog(this, "Task is still loading, try again."); return; }
+        int id = old.getId();
+        String oldTitle = old.getTitle();
+        String oldDesc  = old.getDescription();
+        String oldStatus= old.getStatus();
 
         JTextField titleField = new JTextField(oldTitle);
         JTextField descField  = new JTextField(oldDesc);
@@ -503,31 +1010,111 @@ public class Main extends JFrame {
             String newDesc  = descField.getText().trim();
             String newStatus = (String) statusBox.getSelectedItem();
             if (newTitle.isEmpty()) { JOptionPane.showMessageDialog(this, "Title cannot be empty."); return; }
-            Task updated = new Task(id, newTitle, newDesc, newStatus);
-            TaskDAO.updateTask(updated);
-            loadTasks();
+            // Carries the version it was read at, so a newer edit by someone else isn't overwritten
+            Task updated = new Task(id, newTitle, newDesc, newStatus, old.getVersion());
+            runAsync(service.saveTask(old, updated), this::applySaveResult);
         }
     }
 
     private void markCompleted() {
         int[] sel = table.getSelectedRows();
         if (sel.length == 0) { JOptionPane.showMessageDialog(this, "Select task(s) to mark completed."); return; }
-        for (int viewRow : sel) {
-            int modelRow = table.convertRowIndexToModel(viewRow);
-            int id = (int) model.getValueAt(modelRow, 0);
-            String title = (String) model.getValueAt(modelRow, 1);
-            String desc  = (String) model.getValueAt(modelRow, 2);
-            Task updated = new Task(id, title, desc, "Completed");
-            TaskDAO.updateTask(updated);
+        List<Task> seen = selectedTasks(sel);
+        runAsync(service.updateStatus(seen, "Completed"), this::applySaveResult);
+    }
+
+    // Shows what was written; for tasks changed or deleted elsewhere in the meantime,
+    // shows their current state and asks how to settle an edit that collided
+    private void applySaveResult(SaveResult result) {
+        if (result.isFailed()) {
+            loadTasks();
+            return;
+        }
+        List<Task> theirs = new ArrayList<>();
+        for (TaskMerge merge : result.getConflicts()) theirs.add(merge.getTheirs());
+        int[] deleted = result.getDeletedIds();
+        List<Task> changed = new ArrayList<>(result.getSaved());
+        changed.addAll(theirs);
+        applyDelta(List.of(), changed, deleted, () -> {
+            applyLocal(result.getSaved());
+            applyLocal(theirs);
+            for (int id : deleted) {
+                String old = loadedStatus(id);
+                if (old != null) counters.removed(old);
+                textIndex.remove(id);
+            }
+            model.removeTasks(deleted);
+        });
+        if (deleted.length > 0) {
+            JOptionPane.showMessageDialog(this, deleted.length + " task(s) were deleted by someone else.",
+                    "Not saved", JOptionPane.WARNING_MESSAGE);
+        }
+        if (result.getConflicts().size() == 1 && result.getSaved().isEmpty()) {
+            resolveConflict(result.getConflicts().get(0));
+        } else if (!result.getConflicts().isEmpty()) {
+            JOptionPane.showMessageDialog(this, result.getConflicts().size()
+                    + " task(s) were changed by someone else and were left as they are now.",
+                    "Not saved", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // Both sides changed the same field(s) of one task: keep ours on top of theirs, or take theirs
+    private void resolveConflict(TaskMerge merge) {
+        Task theirs = merge.getTheirs();
+        String msg = "\"" + theirs.getTitle() + "\" was changed by someone else while you were editing it ("
+                + String.join(", ", merge.getConflicts()) + ").\n\nTheir version:\n  " + theirs.getTitle()
+                + " / " + theirs.getDescription() + " / " + theirs.getStatus();
+        Object[] options = { "Keep mine", "Keep theirs" };
+        int ans = JOptionPane.showOptionDialog(this, msg, "Edit conflict", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.WARNING_MESSAGE, null, options, options[1]);
+        // Theirs is already shown; keeping mine is a new checked save over it
+        if (ans == 0) runAsync(service.saveTask(theirs, merge.merged(true)), this::applySaveResult);
+    }
+
+    // Replaces loaded rows with the given tasks, keeping counters and the search index in step
+    private void applyLocal(List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        for (Task t : tasks) {
+            String before = loadedStatus(t.getId());
+            if (before != null) counters.statusChanged(before, t.getStatus());
         }
-        loadTasks();
+        model.updateTasks(tasks);
+        for (Task t : tasks) {
+            if (model.rowOf(t.getId()) >= 0) textIndex.put(t);
+        }
+    }
+
+    // Tasks behind the given view rows, as currently shown (rows whose page isn't loaded are skipped)
+    private List<Task> selectedTasks(int[] viewRows) {
+        List<Task> tasks = new ArrayList<>(viewRows.length);
+        for (int viewRow : viewRows) {
+            Task t = taskAt(table.convertRowIndexToModel(viewRow));
+            if (t != null) tasks.add(t);
+        }
+        return tasks;
+    }
+
+    // Task ids behind the given view rows (rows whose page isn't loaded are skipped)
+    private int[] selectedIds(int[] viewRows) {
+        int[] ids = new int[viewRows.length];
+        int n = 0;
+        for (int viewRow : viewRows) {
+            Task t = taskAt(table.convertRowIndexToModel(viewRow));
+            if (t != null) ids[n++] = t.getId();
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
     }
 
     // --- RoundedButton inner class (simple "CSS-like" rounded button) ----
 
     static class RoundedButton extends JButton {
         private static final long serialVersionUID = 1L;
-        private int arc = 18;
+        private static final int ARC = 18;
+        private static final int PAD_V = 6;
+        private static final int PAD_H = 14;
+
+        // Handed out by getInsets(); reset on every call since callers may modify it
+        private final Insets insets = new Insets(PAD_V, PAD_H, PAD_V, PAD_H);
 
         public RoundedButton(String text) {
             super(text);
@@ -537,29 +1124,33 @@ public class Main extends JFrame {
             setFocusPainted(false);
         }
 
+        // Paints on g directly and restores what it changed, rather than g.create()
+        // on every repaint; text, icon and the disabled look come from the button UI
         @Override
         protected void paintComponent(Graphics g) {
-            Graphics2D g2 = (Graphics2D) g.create();
+            Graphics2D g2 = (Graphics2D) g;
+            Object antialias = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+            Color color = g2.getColor();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             // background
             g2.setColor(getBackground());
-            g2.fillRoundRect(0, 0, getWidth(), getHeight(), arc, arc);
-            // text
-            FontMetrics fm = g2.getFontMetrics();
-            Rectangle r = new Rectangle(0, 0, getWidth(), getHeight());
-            String text = getText();
-            g2.setColor(getForeground());
-            int tx = (r.width - fm.stringWidth(text)) / 2;
-            int ty = (r.height - fm.getHeight()) / 2 + fm.getAscent();
-            g2.setFont(getFont());
-            g2.drawString(text, tx, ty);
-            g2.dispose();
+            g2.fillRoundRect(0, 0, getWidth(), getHeight(), ARC, ARC);
+            g2.setColor(color);
+            if (antialias != null) g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
             super.paintComponent(g);
         }
 
         @Override
         public Insets getInsets() {
-            return new Insets(6, 14, 6, 14);
+            insets.set(PAD_V, PAD_H, PAD_V, PAD_H);
+            return insets;
+        }
+
+        @Override
+        public Insets getInsets(Insets in) {
+            if (in == null) return new Insets(PAD_V, PAD_H, PAD_V, PAD_H);
+            in.set(PAD_V, PAD_H, PAD_V, PAD_H);
+            return in;
         }
     }
 }
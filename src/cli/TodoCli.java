@@ -0,0 +1,372 @@
+package cli;
+
+import dao.TaskDAO;
+import io.CsvExporter;
+import io.CsvImporter;
+import io.CsvWriter;
+import model.Task;
+import model.TaskStatus;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Headless entry point for scripts and cron jobs; talks to TaskDAO only, so no
+// AWT/Swing class is ever loaded. Uses the same store settings as the app
+// (-Dtodo.store, -Dtodo.db.url, ...).
+//
+//   java -cp todo-app.jar cli.TodoCli list [--status S] [--limit N]
+//   java -cp todo-app.jar cli.TodoCli complete - < ids.txt
+//
+// list/search print one task per line: id TAB status TAB title TAB description
+// (tabs, newlines and backslashes inside fields are escaped as \t \n \r \\), rows
+// are written as the cursor delivers them. complete/delete take ids as arguments,
+// or "-" to read them from stdin (first field of each line, so list output can be
+// piped back in) and apply them in batches.
+// Exit status: 0 ok, 1 failure, 2 usage error.
+public class TodoCli {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: TodoCli <command> [args]",
+            "  list [--status S] [--limit N]            all tasks, in id order",
+            "  search <query> [--status S] [--limit N]  text search on title/description",
+            "  add <title> [description] [--status S]   prints the new id",
+            "  complete <id>... | -                     mark done (\"-\": ids from stdin)",
+            "  delete <id>... | -                       delete (\"-\": ids from stdin)",
+            "  import <file.csv>                        bulk insert (CSV as written by export)",
+            "  export [file.csv | -]                    CSV to a file, or stdout (default)");
+
+    private static final int ID_BATCH = 1_000;
+    private static final int DEFAULT_SEARCH_LIMIT = 1_000;
+    private static final int IMPORT_COMMIT_SIZE = 5_000;
+
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE_ERROR = 2;
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            status = run(args);
+        } catch (UsageException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            status = USAGE_ERROR;
+        } catch (Exception e) {
+            System.err.println("todo: " + e.getMessage());
+            status = FAILED;
+        } finally {
+            TaskDAO.shutdown();
+        }
+        System.exit(status);
+    }
+
+    static int run(String[] args) throws Exception {
+        if (args.length == 0) throw new UsageException("Missing command");
+        Args a = new Args(Arrays.copyOfRange(args, 1, args.length));
+        switch (args[0]) {
+            case "list": return list(a);
+            case "search": return search(a);
+            case "add": return add(a);
+            case "complete": return bulk(a, false);
+            case "delete": return bulk(a, true);
+            case "import": return importCsv(a);
+            case "export": return exportCsv(a);
+            case "help":
+            case "--help":
+            case "-h":
+                System.out.println(USAGE);
+                return OK;
+            default: throw new UsageException("Unknown command: " + args[0]);
+        }
+    }
+
+    // --- Commands -------------------------------------------------------
+
+    private static int list(Args a) throws IOException {
+        String status = a.status();
+        int limit = a.intOption("--limit", Integer.MAX_VALUE);
+        a.noMorePositionals();
+        try (LineOut out = new LineOut()) {
+            int[] printed = { 0 };
+            long rows = TaskDAO.streamTasks((id, title, description, st) -> {
+                if (status != null && !status.equalsIgnoreCase(st)) return true;
+                out.task(id, st, title, description);
+                return ++printed[0] < limit;
+            });
+            if (rows < 0) throw new IOException("Could not read tasks");
+        }
+        return OK;
+    }
+
+    private static int search(Args a) throws IOException {
+        String query = a.positional("query");
+        String status = a.status();
+        int limit = a.intOption("--limit", DEFAULT_SEARCH_LIMIT);
+        a.noMorePositionals();
+        List<Task> tasks = TaskDAO.search(query, status, limit);
+        if (tasks == null) throw new IOException("Could not search tasks");
+        try (LineOut out = new LineOut()) {
+            for (Task t : tasks) {
+                out.task(t.getId(), t.getStatus(), t.getTitle(), t.getDescription());
+            }
+        }
+        return OK;
+    }
+
+    private static int add(Args a) {
+        String title = a.positional("title").trim();
+        String description = a.hasPositional() ? a.positional("description") : "";
+        String status = a.status();
+        a.noMorePositionals();
+        if (title.isEmpty()) throw new UsageException("Title is required");
+        int id = TaskDAO.addTask(new Task(0, title, description,
+                status == null ? TaskStatus.PENDING.getLabel() : status));
+        if (id <= 0) {
+            System.err.println("todo: task was not added");
+            return FAILED;
+        }
+        System.out.println(id);
+        return OK;
+    }
+
+    // complete/delete: ids in batches of ID_BATCH, so huge stdin lists stream through
+    private static int bulk(Args a, boolean delete) throws IOException {
+        boolean fromStdin = a.remaining().equals(List.of("-"));
+        IdSource ids = fromStdin
+                ? new IdSource(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)))
+                : new IdSource(a.remaining());
+        if (!fromStdin && a.remaining().isEmpty()) throw new UsageException("No ids given");
+
+        long affected = 0;
+        boolean failed = false;
+        int[] batch;
+        while ((batch = ids.next(ID_BATCH)).length > 0) {
+            int n = delete ? TaskDAO.deleteTasks(batch)
+                    : TaskDAO.updateStatus(batch, TaskStatus.COMPLETED.getLabel());
+            if (n < 0) {
+                System.err.println("todo: batch of " + batch.length + " ids failed (first id " + batch[0] + ")");
+                failed = true;
+            } else {
+                affected += n;
+            }
+        }
+        System.out.println((delete ? "deleted " : "completed ") + affected);
+        return failed || ids.invalid > 0 ? FAILED : OK;
+    }
+
+    private static int importCsv(Args a) throws IOException {
+        Path file = Paths.get(a.positional("file"));
+        a.noMorePositionals();
+        CsvImporter importer = new CsvImporter(IMPORT_COMMIT_SIZE, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        CsvImporter.Result r = importer.importFile(file, (n, done, total) -> { }, () -> false);
+        for (String error : r.getErrors()) System.err.println(error);
+        System.out.println("imported " + r.getImported() + ", rejected " + r.getRejected());
+        return r.getRejected() > 0 ? FAILED : OK;
+    }
+
+    private static int exportCsv(Args a) throws IOException {
+        String target = a.hasPositional() ? a.positional("file") : "-";
+        a.noMorePositionals();
+        if (!"-".equals(target)) {
+            long rows = CsvExporter.export(Paths.get(target), n -> { }, () -> false);
+            System.err.println("exported " + rows);
+            return OK;
+        }
+        // Same escaping as CsvWriter, straight to stdout
+        try (LineOut out = new LineOut()) {
+            StringBuilder line = new StringBuilder(256);
+            out.line(line.append("ID,Title,Description,Status"));
+            long rows = TaskDAO.streamTasks((id, title, description, status) -> {
+                line.setLength(0);
+                line.append(id).append(',');
+                CsvWriter.appendEscaped(line, title);
+                line.append(',');
+                CsvWriter.appendEscaped(line, description);
+                line.append(',');
+                CsvWriter.appendEscaped(line, status);
+                out.line(line);
+                return true;
+            });
+            if (rows < 0) throw new IOException("Could not read tasks");
+        }
+        return OK;
+    }
+
+    // --- Output ---------------------------------------------------------
+
+    // Buffered UTF-8 stdout; flushed after every line when a terminal is attached
+    private static final class LineOut implements AutoCloseable {
+        private final Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16);
+        private final boolean interactive = System.console() != null;
+        private final StringBuilder line = new StringBuilder(256);
+
+        void task(int id, String status, String title, String description) throws IOException {
+            line.setLength(0);
+            line.append(id).append('\t');
+            appendField(line, status);
+            line.append('\t');
+            appendField(line, title);
+            line.append('\t');
+            appendField(line, description);
+            line(line);
+        }
+
+        void line(CharSequence text) throws IOException {
+            out.append(text).append(System.lineSeparator());
+            if (interactive) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static void appendField(StringBuilder out, String value) {
+        if (value == null) return;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\\': out.append("\\\\"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    // --- Input ----------------------------------------------------------
+
+    // Ids from arguments or from stdin lines (first field of each; blank and # lines skipped)
+    private static final class IdSource {
+        private final BufferedReader reader;
+        private final List<String> args;
+        private int argPos;
+        private long lineNo;
+        int invalid;
+
+        IdSource(BufferedReader reader) {
+            this.reader = reader;
+            this.args = null;
+        }
+
+        IdSource(List<String> args) {
+            this.reader = null;
+            this.args = args;
+        }
+
+        int[] next(int max) throws IOException {
+            int[] ids = new int[max];
+            int n = 0;
+            while (n < max) {
+                String token = nextToken();
+                if (token == null) break;
+                try {
+                    ids[n++] = Integer.parseInt(token);
+                } catch (NumberFormatException e) {
+                    n--;
+                    invalid++;
+                    System.err.println("todo: not an id" + (reader != null ? " on line " + lineNo : "") + ": " + token);
+                }
+            }
+            return n == max ? ids : Arrays.copyOf(ids, n);
+        }
+
+        private String nextToken() throws IOException {
+            if (args != null) return argPos < args.size() ? args.get(argPos++) : null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                String s = line.trim();
+                if (s.isEmpty() || s.startsWith("#")) continue;
+                int end = 0;
+                while (end < s.length() && !Character.isWhitespace(s.charAt(end)) && s.charAt(end) != ',') end++;
+                return s.substring(0, end);
+            }
+            return null;
+        }
+    }
+
+    // Positionals plus --name value options, in any order
+    private static final class Args {
+        private final List<String> positionals = new ArrayList<>();
+        private final List<String> options = new ArrayList<>();
+
+        Args(String[] args) {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].startsWith("--") && args[i].length() > 2) {
+                    if (i + 1 >= args.length) throw new UsageException("Missing value for " + args[i]);
+                    options.add(args[i]);
+                    options.add(args[++i]);
+                } else {
+                    positionals.add(args[i]);
+                }
+            }
+        }
+
+        String option(String name) {
+            for (int i = 0; i < options.size(); i += 2) {
+                if (options.get(i).equals(name)) return options.get(i + 1);
+            }
+            return null;
+        }
+
+        int intOption(String name, int defaultValue) {
+            String v = option(name);
+            if (v == null) return defaultValue;
+            try {
+                int n = Integer.parseInt(v);
+                if (n <= 0) throw new NumberFormatException();
+                return n;
+            } catch (NumberFormatException e) {
+                throw new UsageException(name + " must be a positive number: " + v);
+            }
+        }
+
+        // --status value as its canonical label; null when not given
+        String status() {
+            String v = option("--status");
+            if (v == null || "All".equalsIgnoreCase(v)) return null;
+            TaskStatus s = TaskStatus.fromLabel(v);
+            if (s == null) throw new UsageException("Unknown status: " + v);
+            return s.getLabel();
+        }
+
+        boolean hasPositional() {
+            return !positionals.isEmpty();
+        }
+
+        String positional(String what) {
+            if (positionals.isEmpty()) throw new UsageException("Missing " + what);
+            return positionals.remove(0);
+        }
+
+        List<String> remaining() {
+            return positionals;
+        }
+
+        void noMorePositionals() {
+            if (!positionals.isEmpty()) throw new UsageException("Unexpected argument: " + positionals.get(0));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static final class UsageException extends RuntimeException {
+        UsageException(String message) {
+            super(message);
+        }
+    }
+}
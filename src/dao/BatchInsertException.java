@@ -0,0 +1,20 @@
+package dao;
+
+import java.sql.SQLException;
+
+// A batch insert failed part way: the first getCommitted() tasks of the list are stored
+// (durably, in whole commit groups), the rest are not
+@SuppressWarnings("serial")
+public class BatchInsertException extends SQLException {
+
+    private final int committed;
+
+    public BatchInsertException(int committed, String reason, Throwable cause) {
+        super("Insert failed after " + committed + " committed rows: " + reason, cause);
+        this.committed = committed;
+    }
+
+    public int getCommitted() {
+        return committed;
+    }
+}
@@ -0,0 +1,299 @@
+package dao;
+
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Decorator that records calls, failures, latency and rows for every repository
+// operation under its method name (see metrics.Metrics). A call counts as failed when
+// it throws or returns the fail-safe value TaskRepository documents for it (-1, null,
+// false); getTask and deleteTask have none, so only a throw counts there. Rows are
+// tasks read or written; count queries report none. streamTasks time includes the
+// caller's handler, since rows are delivered while the cursor is open.
+public class InstrumentedTaskRepository implements TaskRepository {
+
+    private final TaskRepository delegate;
+
+    private final OperationMetrics addTask = Metrics.op("addTask");
+    private final OperationMetrics getAllTasks = Metrics.op("getAllTasks");
+    private final OperationMetrics getTask = Metrics.op("getTask");
+    private final OperationMetrics getTasks = Metrics.op("getTasks");
+    private final OperationMetrics countTasks = Metrics.op("countTasks");
+    private final OperationMetrics getCurrentVersion = Metrics.op("getCurrentVersion");
+    private final OperationMetrics getChangesSince = Metrics.op("getChangesSince");
+    private final OperationMetrics getChangedIds = Metrics.op("getChangedIds");
+    private final OperationMetrics streamTasks = Metrics.op("streamTasks");
+    private final OperationMetrics countByStatus = Metrics.op("countByStatus");
+    private final OperationMetrics getPage = Metrics.op("getPage");
+    private final OperationMetrics getPageAnchors = Metrics.op("getPageAnchors");
+    private final OperationMetrics search = Metrics.op("search");
+    private final OperationMetrics insertBatch = Metrics.op("insertBatch");
+    private final OperationMetrics applyMutations = Metrics.op("applyMutations");
+    private final OperationMetrics updateTask = Metrics.op("updateTask");
+    private final OperationMetrics updateTaskChecked = Metrics.op("updateTaskChecked");
+    private final OperationMetrics deleteTask = Metrics.op("deleteTask");
+    private final OperationMetrics deleteTasks = Metrics.op("deleteTasks");
+    private final OperationMetrics updateStatus = Metrics.op("updateStatus");
+    private final OperationMetrics warmUp = Metrics.op("warmUp");
+
+    public InstrumentedTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    public TaskRepository getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int addTask(Task task) {
+        long start = System.nanoTime();
+        int id = -1;
+        try {
+            return id = delegate.addTask(task);
+        } finally {
+            addTask.record(start, id > 0, id > 0 ? 1 : 0);
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long start = System.nanoTime();
+        List<Task> r = null;
+        try {
+            return r = delegate.getAllTasks();
+        } finally {
+            getAllTasks.record(start, r != null, r == null ? 0 : r.size());
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        long start = System.nanoTime();
+        Task t = null;
+        boolean ok = false;
+        try {
+            t = delegate.getTask(id);
+            ok = true;
+            return t;
+        } finally {
+            // A missing task is a valid answer; only a throw counts as failed
+            getTask.record(start, ok, t == null ? 0 : 1);
+        }
+    }
+
+    @Override
+    public List<Task> getTasks(int[] ids) {
+        long start = System.nanoTime();
+        List<Task> r = null;
+        try {
+            return r = delegate.getTasks(ids);
+        } finally {
+            getTasks.record(start, r != null, r == null ? 0 : r.size());
+        }
+    }
+
+    @Override
+    public int countTasks() {
+        long start = System.nanoTime();
+        int n = -1;
+        try {
+            return n = delegate.countTasks();
+        } finally {
+            countTasks.record(start, n >= 0, 0);
+        }
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        long start = System.nanoTime();
+        long v = -1;
+        try {
+            return v = delegate.getCurrentVersion();
+        } finally {
+            getCurrentVersion.record(start, v >= 0, 0);
+        }
+    }
+
+    @Override
+    public TaskChanges getChangesSince(long version) {
+        long start = System.nanoTime();
+        TaskChanges r = null;
+        try {
+            return r = delegate.getChangesSince(version);
+        } finally {
+            getChangesSince.record(start, r != null, r == null ? 0 : r.size());
+        }
+    }
+
+    @Override
+    public int[] getChangedIds(long after, long upTo) {
+        long start = System.nanoTime();
+        int[] r = null;
+        try {
+            return r = delegate.getChangedIds(after, upTo);
+        } finally {
+            getChangedIds.record(start, r != null, r == null ? 0 : r.length);
+        }
+    }
+
+    @Override
+    public long streamTasks(TaskRowHandler handler) {
+        long start = System.nanoTime();
+        long n = -1;
+        try {
+            return n = delegate.streamTasks(handler);
+        } finally {
+            streamTasks.record(start, n >= 0, n);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countByStatus() {
+        long start = System.nanoTime();
+        Map<String, Integer> r = null;
+        try {
+            return r = delegate.countByStatus();
+        } finally {
+            countByStatus.record(start, r != null, 0);
+        }
+    }
+
+    @Override
+    public List<Task> getPage(TaskOrder order, Task after, int limit) {
+        long start = System.nanoTime();
+        List<Task> r = null;
+        try {
+            return r = delegate.getPage(order, after, limit);
+        } finally {
+            getPage.record(start, r != null, r == null ? 0 : r.size());
+        }
+    }
+
+    @Override
+    public Task[] getPageAnchors(int pageSize, TaskOrder order) {
+        long start = System.nanoTime();
+        Task[] r = null;
+        try {
+            return r = delegate.getPageAnchors(pageSize, order);
+        } finally {
+            getPageAnchors.record(start, r != null, r == null ? 0 : r.length);
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, String status, int limit) {
+        long start = System.nanoTime();
+        List<Task> r = null;
+        try {
+            return r = delegate.search(query, status, limit);
+        } finally {
+            search.record(start, r != null, r == null ? 0 : r.size());
+        }
+    }
+
+    @Override
+    public int insertBatch(List<Task> tasks, int commitSize) throws SQLException {
+        long start = System.nanoTime();
+        int n = -1;
+        try {
+            return n = delegate.insertBatch(tasks, commitSize);
+        } finally {
+            insertBatch.record(start, n >= 0, n);
+        }
+    }
+
+    @Override
+    public Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException {
+        long start = System.nanoTime();
+        Map<Integer, Long> r = null;
+        try {
+            return r = delegate.applyMutations(mutations);
+        } finally {
+            applyMutations.record(start, r != null, r == null ? 0 : mutations.size());
+        }
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            return ok = delegate.updateTask(task);
+        } finally {
+            updateTask.record(start, ok, ok ? 1 : 0);
+        }
+    }
+
+    // A version conflict is a valid answer, not a failure
+    @Override
+    public long updateTaskChecked(Task task) {
+        long start = System.nanoTime();
+        long v = -1;
+        try {
+            return v = delegate.updateTaskChecked(task);
+        } finally {
+            updateTaskChecked.record(start, v != -1, v >= 0 ? 1 : 0);
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            delegate.deleteTask(id);
+            ok = true;
+        } finally {
+            deleteTask.record(start, ok, ok ? 1 : 0);
+        }
+    }
+
+    @Override
+    public int deleteTasks(int[] ids) {
+        long start = System.nanoTime();
+        int n = -1;
+        try {
+            return n = delegate.deleteTasks(ids);
+        } finally {
+            deleteTasks.record(start, n >= 0, n);
+        }
+    }
+
+    @Override
+    public int updateStatus(int[] ids, String status) {
+        long start = System.nanoTime();
+        int n = -1;
+        try {
+            return n = delegate.updateStatus(ids, status);
+        } finally {
+            updateStatus.record(start, n >= 0, n);
+        }
+    }
+
+    @Override
+    public String getStoreId() {
+        return delegate.getStoreId();
+    }
+
+    @Override
+    public void warmUp() {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            delegate.warmUp();
+            ok = true;
+        } finally {
+            warmUp.record(start, ok, 0);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,827 @@
+package dao;
+
+import db.DBConnection;
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.sql.*;
+import java.util.*;
+
+// TaskRepository over MySQL (see db/schema.sql), using pooled connections from DBConnection.
+public class MySqlTaskRepository implements TaskRepository {
+
+    // Max ids per "WHERE id IN (...)" statement in the bulk operations
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    // Shorter search words aren't in the full-text index (InnoDB's innodb_ft_min_token_size)
+    private static final int FULLTEXT_MIN_TOKEN = 3;
+
+    // Column list for readTask()
+    static final String TASK_COLUMNS = "id, title, description, status, version";
+
+    // Tombstones older than this are pruned at warm-up (0 = keep them forever). A client
+    // that last synced before the oldest one left gets TaskChanges.tooOld() and reloads.
+    private static final int TOMBSTONE_RETENTION_DAYS = Integer.getInteger("todo.tombstones.retentionDays", 30);
+
+    // --- Statements -----------------------------------------------------
+    // Package-private so the query-plan check (test/dao/QueryPlanIT) EXPLAINs exactly
+    // what is sent here; a new or changed statement belongs here and in that check.
+
+    static final String INSERT = "INSERT INTO tasks (title, description, status) VALUES (?,?,?)";
+    static final String SELECT_ALL = "SELECT * FROM tasks";
+    static final String SELECT_BY_ID = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE id = ?";
+    static final String COUNT = "SELECT COUNT(*) FROM tasks";
+    static final String CURRENT_VERSION = "SELECT v FROM task_clock WHERE id = 1";
+    static final String CLOCK = "SELECT v, pruned FROM task_clock WHERE id = 1";
+    static final String CHANGED_SINCE = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE version > ? ORDER BY id";
+    static final String DELETED_SINCE = "SELECT id FROM task_tombstones WHERE version > ?";
+    static final String PRUNABLE = "SELECT MAX(version) FROM task_tombstones WHERE deleted_at < NOW() - INTERVAL ? DAY";
+    static final String PRUNE_TOMBSTONES = "DELETE FROM task_tombstones WHERE version <= ?";
+    static final String SET_PRUNED = "UPDATE task_clock SET pruned = GREATEST(pruned, ?) WHERE id = 1";
+    static final String CHANGED_IDS = "SELECT id FROM tasks WHERE version > ? AND version <= ?"
+            + " UNION SELECT id FROM task_tombstones WHERE version > ? AND version <= ?";
+    static final String STREAM = "SELECT id, title, description, status FROM tasks ORDER BY id";
+    static final String COUNT_BY_STATUS = "SELECT status, COUNT(*) FROM tasks GROUP BY status";
+    static final String UPDATE = "UPDATE tasks SET title=?, description=?, status=? WHERE id=?";
+    static final String UPDATE_CHECKED = UPDATE + " AND version=?";
+    static final String UPDATE_STATUS = "UPDATE tasks SET status=? WHERE id=?";
+    static final String READ_VERSION = "SELECT version FROM tasks WHERE id=?";
+    static final String DELETE = "DELETE FROM tasks WHERE id=?";
+    // Completed with placeholders(n): "... IN (?,?,...)"
+    static final String SELECT_IN = "SELECT " + TASK_COLUMNS + " FROM tasks WHERE id IN ";
+    static final String VERSIONS_IN = "SELECT id, version FROM tasks WHERE id IN ";
+    static final String DELETE_IN = "DELETE FROM tasks WHERE id IN ";
+    static final String UPDATE_STATUS_IN = "UPDATE tasks SET status=? WHERE id IN ";
+
+    // How search() matches the text: not at all, full-text, or title prefix (short words)
+    enum TextMatch { NONE, FULL_TEXT, TITLE_PREFIX }
+
+    // Connections come from the DBConnection pool, so statements and result sets
+    // must be closed explicitly (closing the connection only returns it to the pool).
+
+    // ✅ Add Task (returns the generated id, or -1 on failure)
+    @Override
+    public int addTask(Task task) {
+        String sql = INSERT;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, task.getTitle());
+            ps.setString(2, task.getDescription());
+            ps.setString(3, task.getStatus());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) return keys.getInt(1);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // ✅ Get All Tasks (null on failure)
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> list = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_ALL)) {
+                while (rs.next()) {
+                    list.add(new Task(
+                        rs.getInt("id"),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        rs.getString("status"),
+                        rs.getLong("version")
+                    ));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return list;
+    }
+
+    // ✅ Get one task by id (null if it doesn't exist or on failure)
+    @Override
+    public Task getTask(int id) {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? readTask(rs) : null;
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // ✅ Get the tasks among ids that exist, by primary key (chunked IN lists); null on failure
+    @Override
+    public List<Task> getTasks(int[] ids) {
+        List<Task> list = new ArrayList<>(ids.length);
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            for (int from = 0; from < sorted.length; from += BULK_CHUNK_SIZE) {
+                int len = Math.min(BULK_CHUNK_SIZE, sorted.length - from);
+                try (PreparedStatement ps = conn.prepareStatement(
+                        SELECT_IN + placeholders(len) + " ORDER BY id")) {
+                    for (int i = 0; i < len; i++) ps.setInt(i + 1, sorted[from + i]);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) list.add(readTask(rs));
+                    }
+                }
+            }
+            return list;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Task readTask(ResultSet rs) throws SQLException {
+        return new Task(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5));
+    }
+
+    // ✅ Count Tasks (-1 on failure)
+    @Override
+    public int countTasks() {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(COUNT)) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // ✅ Current value of the change clock (task_clock), or -1 on failure / no change tracking.
+    // Read it before a full load: changes racing the load are then picked up by the next delta.
+    @Override
+    public long getCurrentVersion() {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(CURRENT_VERSION)) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // ✅ Tasks inserted/updated and ids deleted after the given version (idx_tasks_version,
+    // idx_tombstones_version). All three reads share one InnoDB snapshot, so the returned
+    // version matches the rows exactly. Null on failure; tooOld() when tombstones after
+    // version have been pruned (see pruneTombstones).
+    @Override
+    public TaskChanges getChangesSince(long version) {
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            conn.setAutoCommit(false);
+            try {
+                long now;
+                long pruned;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(CLOCK)) {
+                    if (!rs.next()) return null;
+                    now = rs.getLong(1);
+                    pruned = rs.getLong(2);
+                }
+                if (version < pruned) {
+                    conn.commit();
+                    return TaskChanges.tooOld(now);
+                }
+                List<Task> upserts = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(
+                        CHANGED_SINCE)) {
+                    ps.setLong(1, version);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) upserts.add(readTask(rs));
+                    }
+                }
+                int[] deleted = new int[16];
+                int n = 0;
+                try (PreparedStatement ps = conn.prepareStatement(
+                        DELETED_SINCE)) {
+                    ps.setLong(1, version);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == deleted.length) deleted = Arrays.copyOf(deleted, n * 2);
+                            deleted[n++] = rs.getInt(1);
+                        }
+                    }
+                }
+                conn.commit();
+                return new TaskChanges(upserts, Arrays.copyOf(deleted, n), now);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // ✅ Ids changed in (after, upTo]: both halves are covering scans of a version index
+    @Override
+    public int[] getChangedIds(long after, long upTo) {
+        String sql = CHANGED_IDS;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, after);
+                ps.setLong(2, upTo);
+                ps.setLong(3, after);
+                ps.setLong(4, upTo);
+                int[] ids = new int[16];
+                int n = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+                        ids[n++] = rs.getInt(1);
+                    }
+                }
+                return Arrays.copyOf(ids, n);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // ✅ Stream every task in id order through a forward-only, read-only cursor.
+    // Rows are handed over one at a time and never collected. Returns the number
+    // of rows delivered, or -1 on failure.
+    @Override
+    public long streamTasks(TaskRowHandler handler) {
+        long delivered = 0;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(streamingFetchSize(conn));
+                try (ResultSet rs = stmt.executeQuery(STREAM)) {
+                    while (rs.next()) {
+                        delivered++;
+                        if (!handler.row(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4))) break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return delivered;
+    }
+
+    // ✅ Task counts per status (index-only scan of idx_tasks_status); null on failure
+    @Override
+    public Map<String, Integer> countByStatus() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(COUNT_BY_STATUS)) {
+                while (rs.next()) {
+                    counts.put(rs.getString(1), rs.getInt(2));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return counts;
+    }
+
+    // ✅ Keyset page in any TaskOrder. Title and status pages walk idx_tasks_title /
+    // idx_tasks_status, whose entries end with the primary key, so (key, id) is the
+    // index order; the key bound is what makes it an index range in either direction.
+    @Override
+    public List<Task> getPage(TaskOrder order, Task after, int limit) {
+        String column = orderColumn(order);
+        List<Task> list = new ArrayList<>(limit);
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (PreparedStatement ps = conn.prepareStatement(pageSql(order, after != null))) {
+                int i = 1;
+                if (after != null) {
+                    if (column != null) ps.setString(i++, orderValue(order, after));
+                    ps.setInt(i++, after.getId());
+                    if (column != null) ps.setString(i++, orderValue(order, after));
+                }
+                ps.setInt(i, limit);
+                ps.setFetchSize(limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) list.add(readTask(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return list;
+    }
+
+    // ✅ Page anchors in any TaskOrder: streams (id, key) through the same index
+    @Override
+    public Task[] getPageAnchors(int pageSize, TaskOrder order) {
+        String column = orderColumn(order);
+        String sql = anchorSql(order);
+        List<Task> anchors = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(streamingFetchSize(conn));
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    int row = 0;
+                    Task prev = null;
+                    while (rs.next()) {
+                        if (row % pageSize == 0) anchors.add(prev);
+                        String key = column == null ? null : rs.getString(2);
+                        prev = order.getKey() == TaskOrder.Key.STATUS
+                                ? new Task(rs.getInt(1), null, null, key)
+                                : new Task(rs.getInt(1), key, null, null);
+                        row++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return anchors.toArray(new Task[0]);
+    }
+
+    // Parameters, when after: [key value,] id [, key value] of the row before the page; then limit.
+    // "(key, id) > (?, ?)" is spelled out: MariaDB (and older MySQL) can't turn a row
+    // comparison into an index range and would walk the index from its start, while
+    // "key = ? AND id > ?" OR "key > ?" is a range on both parts of the index.
+    static String pageSql(TaskOrder order, boolean after) {
+        String column = orderColumn(order);
+        String dir = order.isDescending() ? " DESC" : "";
+        String cmp = order.isDescending() ? " < " : " > ";
+        StringBuilder sql = new StringBuilder("SELECT " + TASK_COLUMNS + " FROM tasks");
+        if (after) {
+            sql.append(column == null ? " WHERE id" + cmp + "?"
+                    : " WHERE (" + column + " = ? AND id" + cmp + "?) OR " + column + cmp + "?");
+        }
+        sql.append(" ORDER BY ");
+        if (column != null) sql.append(column).append(dir).append(", ");
+        return sql.append("id").append(dir).append(" LIMIT ?").toString();
+    }
+
+    static String anchorSql(TaskOrder order) {
+        String column = orderColumn(order);
+        String dir = order.isDescending() ? " DESC" : "";
+        return column == null
+                ? "SELECT id FROM tasks ORDER BY id" + dir
+                : "SELECT id, " + column + " FROM tasks ORDER BY " + column + dir + ", id" + dir;
+    }
+
+    // Column behind an order's key; null for id
+    static String orderColumn(TaskOrder order) {
+        switch (order.getKey()) {
+            case TITLE: return "title";
+            case STATUS: return "status";
+            default: return null;
+        }
+    }
+
+    private static String orderValue(TaskOrder order, Task t) {
+        return order.getKey() == TaskOrder.Key.STATUS ? t.getStatus() : t.getTitle();
+    }
+
+    // ✅ Search in the database: full-text match on title/description plus an exact
+    // status filter ("All" or null = any status). Results are in id order, capped at limit;
+    // null on failure.
+    @Override
+    public List<Task> search(String query, String status, int limit) {
+        List<Task> list = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        boolean byStatus = status != null && !"All".equalsIgnoreCase(status);
+        if (byStatus) params.add(status);
+        TextMatch text = TextMatch.NONE;
+        String q = query == null ? "" : query.trim();
+        if (!q.isEmpty()) {
+            String fullText = toBooleanQuery(q);
+            if (fullText != null) {
+                text = TextMatch.FULL_TEXT;
+                params.add(fullText);
+            } else {
+                // Too short for the full-text index: prefix match on title
+                text = TextMatch.TITLE_PREFIX;
+                params.add(escapeLike(q) + "%");
+            }
+        }
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return null; // fail safe
+            try (PreparedStatement ps = conn.prepareStatement(searchSql(byStatus, text))) {
+                int idx = 1;
+                for (String p : params) ps.setString(idx++, p);
+                ps.setInt(idx, limit);
+                ps.setFetchSize(Math.min(limit, 1000));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) list.add(readTask(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+        return list;
+    }
+
+    // Parameters: [status,] [text,] limit
+    static String searchSql(boolean byStatus, TextMatch text) {
+        StringBuilder sql = new StringBuilder("SELECT " + TASK_COLUMNS + " FROM tasks WHERE 1=1");
+        if (byStatus) sql.append(" AND status = ?"); // idx_tasks_status
+        if (text == TextMatch.FULL_TEXT) {
+            sql.append(" AND MATCH (title, description) AGAINST (? IN BOOLEAN MODE)"); // ft_tasks_text
+        } else if (text == TextMatch.TITLE_PREFIX) {
+            sql.append(" AND title LIKE ?"); // idx_tasks_title
+        }
+        return sql.append(" ORDER BY id LIMIT ?").toString();
+    }
+
+    // "buy milk" -> "+buy* +milk*" (every word required, prefix match). Returns null when no
+    // word is long enough for the full-text index. Boolean-mode operators are dropped.
+    static String toBooleanQuery(String q) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : q.split("[^\\p{L}\\p{N}_]+")) {
+            if (word.length() < FULLTEXT_MIN_TOKEN) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('+').append(word).append('*');
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // MySQL only streams row by row with Integer.MIN_VALUE; other drivers take a normal hint
+    static int streamingFetchSize(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        return "MySQL".equalsIgnoreCase(product) ? Integer.MIN_VALUE : 1000;
+    }
+
+    // ✅ Insert many tasks with JDBC batching, committing every commitSize rows.
+    // With rewriteBatchedStatements=true (see DBConnection) the driver sends each
+    // batch as one multi-row INSERT. Returns the rows inserted; on failure the
+    // uncommitted group is rolled back and the exception is rethrown.
+    @Override
+    public int insertBatch(List<Task> tasks, int commitSize) throws SQLException {
+        if (tasks.isEmpty()) return 0;
+        String sql = INSERT;
+        int committed = 0;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLNonTransientConnectionException("No database connection");
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (Task t : tasks) {
+                    ps.setString(1, t.getTitle());
+                    ps.setString(2, t.getDescription());
+                    ps.setString(3, t.getStatus());
+                    ps.addBatch();
+                    if (++pending == commitSize) {
+                        ps.executeBatch();
+                        conn.commit();
+                        committed += pending;
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                    committed += pending;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new BatchInsertException(committed, e.getMessage(), e);
+            }
+        }
+        return committed;
+    }
+
+    // ✅ Apply a group of mutations in one transaction (JDBC batch per statement kind).
+    // Version-checked mutations are first compared with the rows' current versions,
+    // read with FOR UPDATE so nobody can change them between the check and the writes;
+    // the ones that no longer match are left out. All or nothing otherwise: throws
+    // after rolling back if any statement fails.
+    @Override
+    public Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException {
+        Map<Integer, Long> result = new HashMap<>();
+        if (mutations.isEmpty()) return result;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) throw new SQLNonTransientConnectionException("No database connection");
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement(
+                         UPDATE);
+                 PreparedStatement status = conn.prepareStatement(UPDATE_STATUS);
+                 PreparedStatement delete = conn.prepareStatement(DELETE)) {
+                Map<Integer, Long> current = lockVersions(conn, checkedIds(mutations));
+                Set<Integer> conflicts = new HashSet<>();
+                Set<Integer> touched = new LinkedHashSet<>();
+                int updates = 0, statuses = 0, deletes = 0;
+                for (TaskMutation m : mutations) {
+                    long expected = m.getExpectedVersion();
+                    if (expected != Task.NO_VERSION && !Long.valueOf(expected).equals(current.get(m.getId()))) {
+                        conflicts.add(m.getId());
+                        continue;
+                    }
+                    switch (m.getKind()) {
+                        case UPDATE:
+                            Task t = m.getTask();
+                            update.setString(1, t.getTitle());
+                            update.setString(2, t.getDescription());
+                            update.setString(3, t.getStatus());
+                            update.setInt(4, t.getId());
+                            update.addBatch();
+                            updates++;
+                            touched.add(m.getId());
+                            break;
+                        case STATUS:
+                            status.setString(1, m.getStatus());
+                            status.setInt(2, m.getId());
+                            status.addBatch();
+                            statuses++;
+                            touched.add(m.getId());
+                            break;
+                        case DELETE:
+                            delete.setInt(1, m.getId());
+                            delete.addBatch();
+                            deletes++;
+                            touched.remove(m.getId());
+                            break;
+                    }
+                }
+                if (updates > 0) update.executeBatch();
+                if (statuses > 0) status.executeBatch();
+                if (deletes > 0) delete.executeBatch();
+                // Versions the triggers just assigned (visible to this transaction only)
+                result.putAll(readVersions(conn, touched));
+                for (int id : conflicts) result.put(id, VERSION_CONFLICT);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    private static Set<Integer> checkedIds(List<TaskMutation> mutations) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (TaskMutation m : mutations) {
+            if (m.getExpectedVersion() != Task.NO_VERSION) ids.add(m.getId());
+        }
+        return ids;
+    }
+
+    // Current versions, row-locked until the transaction ends
+    private static Map<Integer, Long> lockVersions(Connection conn, Set<Integer> ids) throws SQLException {
+        return queryVersions(conn, ids, " FOR UPDATE");
+    }
+
+    private static Map<Integer, Long> readVersions(Connection conn, Set<Integer> ids) throws SQLException {
+        return queryVersions(conn, ids, "");
+    }
+
+    private static Map<Integer, Long> queryVersions(Connection conn, Set<Integer> ids, String suffix) throws SQLException {
+        Map<Integer, Long> versions = new HashMap<>();
+        int[] all = ids.stream().mapToInt(Integer::intValue).toArray();
+        for (int from = 0; from < all.length; from += BULK_CHUNK_SIZE) {
+            int len = Math.min(BULK_CHUNK_SIZE, all.length - from);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    VERSIONS_IN + placeholders(len) + suffix)) {
+                for (int i = 0; i < len; i++) ps.setInt(i + 1, all[from + i]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) versions.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+        }
+        return versions;
+    }
+
+    // ✅ Update Task (edit title/desc/status); false on failure
+    @Override
+    public boolean updateTask(Task task) {
+        String sql = UPDATE;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, task.getTitle());
+            ps.setString(2, task.getDescription());
+            ps.setString(3, task.getStatus());
+            ps.setInt(4, task.getId());
+            ps.executeUpdate();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // ✅ Update Task only if nobody changed it since it was read. The trigger assigns the
+    // new version; it is read back in the same transaction while the row is still locked.
+    // Returns the new version, VERSION_CONFLICT, or -1 on failure.
+    @Override
+    public long updateTaskChecked(Task task) {
+        if (task.getVersion() == Task.NO_VERSION) return updateTask(task) ? readVersion(task.getId()) : -1;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                         UPDATE_CHECKED);
+                 PreparedStatement read = conn.prepareStatement(READ_VERSION)) {
+                ps.setString(1, task.getTitle());
+                ps.setString(2, task.getDescription());
+                ps.setString(3, task.getStatus());
+                ps.setInt(4, task.getId());
+                ps.setLong(5, task.getVersion());
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    return VERSION_CONFLICT;
+                }
+                read.setInt(1, task.getId());
+                long version;
+                try (ResultSet rs = read.executeQuery()) {
+                    version = rs.next() ? rs.getLong(1) : -1;
+                }
+                conn.commit();
+                return version;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private long readVersion(int id) {
+        Task t = getTask(id);
+        return t == null ? -1 : t.getVersion();
+    }
+
+    // ✅ Delete Task
+    @Override
+    public void deleteTask(int id) {
+        String sql = DELETE;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ✅ Delete many tasks (one statement per chunk, single transaction)
+    @Override
+    public int deleteTasks(int[] ids) {
+        return bulkUpdate(DELETE_IN, null, ids);
+    }
+
+    // ✅ Set status on many tasks (one statement per chunk, single transaction)
+    @Override
+    public int updateStatus(int[] ids, String status) {
+        return bulkUpdate(UPDATE_STATUS_IN, status, ids);
+    }
+
+    // Runs "<sqlPrefix>(?,?,...)" for each chunk of ids; an optional leading parameter
+    // is bound before the ids. All chunks commit together or not at all.
+    // Returns the affected row count, or -1 if the transaction failed.
+    private int bulkUpdate(String sqlPrefix, String leadingParam, int[] ids) {
+        if (ids == null || ids.length == 0) return 0;
+        int affected = 0;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            conn.setAutoCommit(false);
+            try {
+                int fullChunks = ids.length / BULK_CHUNK_SIZE;
+                int tail = ids.length % BULK_CHUNK_SIZE;
+                if (fullChunks > 0) {
+                    try (PreparedStatement ps = conn.prepareStatement(sqlPrefix + placeholders(BULK_CHUNK_SIZE))) {
+                        for (int c = 0; c < fullChunks; c++) {
+                            affected += executeChunk(ps, leadingParam, ids, c * BULK_CHUNK_SIZE, BULK_CHUNK_SIZE);
+                        }
+                    }
+                }
+                if (tail > 0) {
+                    try (PreparedStatement ps = conn.prepareStatement(sqlPrefix + placeholders(tail))) {
+                        affected += executeChunk(ps, leadingParam, ids, fullChunks * BULK_CHUNK_SIZE, tail);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return affected;
+    }
+
+    private static int executeChunk(PreparedStatement ps, String leadingParam, int[] ids, int from, int len)
+            throws SQLException {
+        int idx = 1;
+        if (leadingParam != null) ps.setString(idx++, leadingParam);
+        for (int i = 0; i < len; i++) {
+            ps.setInt(idx++, ids[from + i]);
+        }
+        return ps.executeUpdate();
+    }
+
+    static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2 + 1).append('(');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public String getStoreId() {
+        try (Connection conn = DBConnection.getConnection()) {
+            return conn == null ? null : "mysql:" + conn.getMetaData().getURL();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // True when a pooled connection can be opened right now
+    public boolean isAvailable() {
+        try (Connection conn = DBConnection.getConnection()) {
+            return conn != null;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        DBConnection.warmUp();
+        pruneTombstones();
+    }
+
+    // ✅ Drops tombstones older than the retention period (idx_tombstones_deleted_at, then
+    // idx_tombstones_version) and raises task_clock.pruned to the newest version dropped,
+    // in one transaction, so a delta read sees either all the tombstones it needs or a
+    // pruned mark that says they are gone. The mark is written last: it locks the clock
+    // row, which every write needs, until the commit.
+    // Returns the tombstones removed, or -1 on failure.
+    public int pruneTombstones() {
+        if (TOMBSTONE_RETENTION_DAYS <= 0) return 0;
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) return -1; // fail safe
+            conn.setAutoCommit(false);
+            try (PreparedStatement find = conn.prepareStatement(PRUNABLE);
+                 PreparedStatement delete = conn.prepareStatement(PRUNE_TOMBSTONES);
+                 PreparedStatement mark = conn.prepareStatement(SET_PRUNED)) {
+                find.setInt(1, TOMBSTONE_RETENTION_DAYS);
+                long upTo;
+                try (ResultSet rs = find.executeQuery()) {
+                    upTo = rs.next() ? rs.getLong(1) : 0;
+                }
+                if (upTo <= 0) {
+                    conn.commit();
+                    return 0;
+                }
+                delete.setLong(1, upTo);
+                int removed = delete.executeUpdate();
+                mark.setLong(1, upTo);
+                mark.executeUpdate();
+                conn.commit();
+                return removed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        DBConnection.shutdown();
+    }
+}
@@ -1,71 +1,212 @@
 package dao;
 
-import db.DBConnection;
 import model.Task;
-import java.sql.*;
-import java.util.*;
+import model.TaskChanges;
+import model.TaskOrder;
+import store.LogTaskRepository;
+import store.StoreLockedException;
+import sync.AnnouncingTaskRepository;
+import sync.ChangeNotifier;
+import sync.DatagramChangeNotifier;
+import sync.PollingChangeNotifier;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
+// Static entry point used by the app; every call goes to the selected TaskRepository.
+// Chosen with -Dtodo.store:
+//   mysql (default) - MySQL through DBConnection
+//   local           - embedded log file at -Dtodo.store.path (default ~/.todo/tasks.log);
+//                     one process at a time (the app or cli.TodoCli), the other is refused
+//   auto            - MySQL when it answers at startup, otherwise the local file
+// The selected store is wrapped in an InstrumentedTaskRepository (latency/error metrics)
+// and an AnnouncingTaskRepository that reports every write to other clients through the
+// ChangeNotifier chosen with -Dtodo.notify:
+//   poll - poll the change clock with backoff (default for MySQL)
+//   udp  - multicast datagrams (-Dtodo.notify.group/port/ttl/channel) plus a slow poll
+//   off  - nothing (default for the local store, which only one process can have open)
 public class TaskDAO {
 
-    // ✅ Add Task
-    public static void addTask(Task task) {
-        try (Connection conn = DBConnection.getConnection()) {
-            String sql = "INSERT INTO tasks (title, description, status) VALUES (?,?,?)";
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setString(1, task.getTitle());
-            ps.setString(2, task.getDescription());
-            ps.setString(3, task.getStatus());
-            ps.executeUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static final String STORE = System.getProperty("todo.store", "mysql");
+    private static final Path LOCAL_PATH = Paths.get(System.getProperty("todo.store.path",
+            Paths.get(System.getProperty("user.home"), ".todo", "tasks.log").toString()));
+
+    private static final String NOTIFY = System.getProperty("todo.notify");
+
+    private static TaskRepository repository;
+    private static ChangeNotifier notifier;
+
+    // Swap the backing store (e.g. a LogTaskRepository in a temp dir for tests/benchmarks).
+    // The previous repository is not closed, and repo is used as given (not instrumented).
+    public static synchronized void setRepository(TaskRepository repo) {
+        repository = repo;
+    }
+
+    // Replaces the notifier chosen by -Dtodo.notify (e.g. a sync.LocalChangeNotifier in
+    // tests); takes effect for the next repository opened
+    public static synchronized void setNotifier(ChangeNotifier n) {
+        notifier = n;
+    }
+
+    public static synchronized TaskRepository getRepository() {
+        if (repository == null) {
+            TaskRepository store = open(STORE);
+            if (notifier == null) notifier = openNotifier(store);
+            repository = new AnnouncingTaskRepository(new InstrumentedTaskRepository(store), notifier);
         }
+        return repository;
     }
 
-    // ✅ Get All Tasks
-    public static List<Task> getAllTasks() {
-        List<Task> list = new ArrayList<>();
-        try (Connection conn = DBConnection.getConnection()) {
-            if (conn == null) return list; // fail safe
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("SELECT * FROM tasks");
-            while (rs.next()) {
-                list.add(new Task(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("status")
-                ));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    // Other clients' changes, for Main to subscribe to (opens the store if needed)
+    public static synchronized ChangeNotifier getNotifier() {
+        getRepository();
+        return notifier != null ? notifier : ChangeNotifier.NONE;
+    }
+
+    private static ChangeNotifier openNotifier(TaskRepository store) {
+        String mode = NOTIFY != null ? NOTIFY : store instanceof MySqlTaskRepository ? "poll" : "off";
+        if ("off".equalsIgnoreCase(mode)) return ChangeNotifier.NONE;
+        if (!"udp".equalsIgnoreCase(mode)) {
+            return new PollingChangeNotifier(Long.getLong("todo.notify.pollMinMs", 500L),
+                    Long.getLong("todo.notify.pollMaxMs", 8_000L));
         }
-        return list;
-    }
-
-    // ✅ Update Task (edit title/desc/status)
-    public static void updateTask(Task task) {
-        try (Connection conn = DBConnection.getConnection()) {
-            String sql = "UPDATE tasks SET title=?, description=?, status=? WHERE id=?";
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setString(1, task.getTitle());
-            ps.setString(2, task.getDescription());
-            ps.setString(3, task.getStatus());
-            ps.setInt(4, task.getId());
-            ps.executeUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Datagrams can be lost: a slow poll still catches what they missed
+        PollingChangeNotifier safetyNet = new PollingChangeNotifier(5_000L, 60_000L);
+        String group = System.getProperty("todo.notify.group", "239.255.42.42");
+        try {
+            return new DatagramChangeNotifier(InetAddress.getByName(group),
+                    Integer.getInteger("todo.notify.port", 47474), Integer.getInteger("todo.notify.ttl", 1),
+                    () -> System.getProperty("todo.notify.channel", store.getStoreId()), safetyNet);
+        } catch (UnknownHostException e) {
+            System.err.println("Bad -Dtodo.notify.group " + group + "; polling for changes instead");
+            return safetyNet;
         }
     }
 
-    // ✅ Delete Task
-    public static void deleteTask(int id) {
-        try (Connection conn = DBConnection.getConnection()) {
-            String sql = "DELETE FROM tasks WHERE id=?";
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setInt(1, id);
-            ps.executeUpdate();
+    private static TaskRepository open(String store) {
+        if ("local".equalsIgnoreCase(store)) return openLocal();
+        MySqlTaskRepository mysql = new MySqlTaskRepository();
+        if ("auto".equalsIgnoreCase(store) && !mysql.isAvailable()) {
+            System.err.println("MySQL is not reachable; using the local task store at " + LOCAL_PATH);
+            mysql.close();
+            return openLocal();
+        }
+        return mysql;
+    }
+
+    private static TaskRepository openLocal() {
+        try {
+            return LogTaskRepository.open(LOCAL_PATH);
+        } catch (StoreLockedException e) {
+            throw new IllegalStateException(e.getMessage() + "; close it and try again", e);
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new IllegalStateException("Cannot open local task store " + LOCAL_PATH, e);
         }
     }
+
+    // Selects and opens the store (pool warm-up or log index rebuild) ahead of first use
+    public static void warmUp() {
+        getRepository().warmUp();
+    }
+
+    public static synchronized void shutdown() {
+        if (notifier != null) {
+            notifier.close();
+            notifier = null;
+        }
+        if (repository != null) {
+            repository.close();
+            repository = null;
+        }
+    }
+
+    // --- Delegates ------------------------------------------------------
+
+    public static String getStoreId() {
+        return getRepository().getStoreId();
+    }
+
+    public static int addTask(Task task) {
+        return getRepository().addTask(task);
+    }
+
+    public static List<Task> getAllTasks() {
+        return getRepository().getAllTasks();
+    }
+
+    public static int countTasks() {
+        return getRepository().countTasks();
+    }
+
+    public static long getCurrentVersion() {
+        return getRepository().getCurrentVersion();
+    }
+
+    public static TaskChanges getChangesSince(long version) {
+        return getRepository().getChangesSince(version);
+    }
+
+    public static int[] getChangedIds(long after, long upTo) {
+        return getRepository().getChangedIds(after, upTo);
+    }
+
+    public static long streamTasks(TaskRowHandler handler) {
+        return getRepository().streamTasks(handler);
+    }
+
+    public static Map<String, Integer> countByStatus() {
+        return getRepository().countByStatus();
+    }
+
+    public static List<Task> getPage(TaskOrder order, Task after, int limit) {
+        return getRepository().getPage(order, after, limit);
+    }
+
+    public static Task[] getPageAnchors(int pageSize, TaskOrder order) {
+        return getRepository().getPageAnchors(pageSize, order);
+    }
+
+    public static List<Task> search(String query, String status, int limit) {
+        return getRepository().search(query, status, limit);
+    }
+
+    public static int insertBatch(List<Task> tasks, int commitSize) throws SQLException {
+        return getRepository().insertBatch(tasks, commitSize);
+    }
+
+    public static Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException {
+        return getRepository().applyMutations(mutations);
+    }
+
+    public static Task getTask(int id) {
+        return getRepository().getTask(id);
+    }
+
+    public static List<Task> getTasks(int[] ids) {
+        return getRepository().getTasks(ids);
+    }
+
+    public static boolean updateTask(Task task) {
+        return getRepository().updateTask(task);
+    }
+
+    public static long updateTaskChecked(Task task) {
+        return getRepository().updateTaskChecked(task);
+    }
+
+    public static void deleteTask(int id) {
+        getRepository().deleteTask(id);
+    }
+
+    public static int deleteTasks(int[] ids) {
+        return getRepository().deleteTasks(ids);
+    }
+
+    public static int updateStatus(int[] ids, String status) {
+        return getRepository().updateStatus(ids, status);
+    }
 }
@@ -0,0 +1,97 @@
+package dao;
+
+import model.Task;
+
+// One pending change to an existing task, as applied by TaskDAO.applyMutations.
+// A mutation made from a task the client read carries that task as its base: it is
+// then only applied while the row is still at the base's version (see
+// TaskRepository.VERSION_CONFLICT), and the base is what a conflict is merged against.
+public final class TaskMutation {
+
+    public enum Kind { UPDATE, STATUS, DELETE }
+
+    private final Kind kind;
+    private final int id;
+    private final Task task;      // UPDATE only
+    private final String status;  // STATUS only
+    private final Task base;      // the task as read before the change; null = unchecked
+
+    private TaskMutation(Kind kind, int id, Task task, String status, Task base) {
+        this.kind = kind;
+        this.id = id;
+        this.task = task;
+        this.status = status;
+        this.base = base != null && base.getVersion() != Task.NO_VERSION ? base : null;
+    }
+
+    // Unconditional: overwrites whatever the row holds
+    public static TaskMutation update(Task task) {
+        return new TaskMutation(Kind.UPDATE, task.getId(), task, null, null);
+    }
+
+    // Version-checked edit of base
+    public static TaskMutation update(Task base, Task task) {
+        return new TaskMutation(Kind.UPDATE, task.getId(), task, null, base);
+    }
+
+    public static TaskMutation status(int id, String status) {
+        return new TaskMutation(Kind.STATUS, id, null, status, null);
+    }
+
+    // Version-checked status change of base
+    public static TaskMutation status(Task base, String status) {
+        return new TaskMutation(Kind.STATUS, base.getId(), null, status, base);
+    }
+
+    public static TaskMutation delete(int id) {
+        return new TaskMutation(Kind.DELETE, id, null, null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Task getBase() {
+        return base;
+    }
+
+    // Version the row must still have, or Task.NO_VERSION when unchecked
+    public long getExpectedVersion() {
+        return base == null ? Task.NO_VERSION : base.getVersion();
+    }
+
+    // The task as this mutation would leave it, given the row before it (null if deleted)
+    public Task applyTo(Task before) {
+        switch (kind) {
+            case UPDATE: return task;
+            case STATUS: return before == null ? null
+                    : new Task(id, before.getTitle(), before.getDescription(), status, before.getVersion());
+            default: return null;
+        }
+    }
+
+    // The single mutation equivalent to applying this one and then next. It keeps the
+    // first base: the combined change is checked against what was read first.
+    public TaskMutation then(TaskMutation next) {
+        if (kind == Kind.DELETE) return this; // nothing to change once deleted
+        if (next.kind == Kind.DELETE) return next;
+        Task first = base != null ? base : next.base;
+        if (next.kind == Kind.UPDATE) return new TaskMutation(Kind.UPDATE, id, next.task, null, first);
+        if (kind == Kind.STATUS) return new TaskMutation(Kind.STATUS, id, null, next.status, first);
+        // Full update followed by a status change: keep the edit, take the new status
+        return new TaskMutation(Kind.UPDATE, id,
+                new Task(id, task.getTitle(), task.getDescription(), next.status, task.getVersion()), null, first);
+    }
+}
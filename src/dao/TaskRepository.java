@@ -0,0 +1,98 @@
+package dao;
+
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Storage behind TaskDAO. Implementations: MySqlTaskRepository (server) and
+// store.LogTaskRepository (embedded, single process). Reads return fail-safe
+// values (null, -1) instead of throwing, never an empty result that could pass
+// for "no tasks"; the batch writes throw so callers can retry or report.
+public interface TaskRepository {
+
+    // Result of a version-checked write whose row changed (or was deleted) after it was read
+    long VERSION_CONFLICT = -2;
+
+    // Returns the new task's id, or -1 on failure
+    int addTask(Task task);
+
+    // Null on failure
+    List<Task> getAllTasks();
+
+    // Null if there is no such task (or on failure)
+    Task getTask(int id);
+
+    // The tasks among ids that exist, in id order; null on failure
+    List<Task> getTasks(int[] ids);
+
+    // -1 on failure
+    int countTasks();
+
+    // Change clock the next getChangesSince() call should start from; -1 if not tracked
+    long getCurrentVersion();
+
+    // Null on failure; TaskChanges.tooOld() when deletes after version were already pruned
+    TaskChanges getChangesSince(long version);
+
+    // Ids inserted, updated or deleted with after < version <= upTo (ids only, for change
+    // notification); null on failure
+    int[] getChangedIds(long after, long upTo);
+
+    // Every task in id order, one at a time; rows delivered, or -1 on failure
+    long streamTasks(TaskRowHandler handler);
+
+    // Null on failure
+    Map<String, Integer> countByStatus();
+
+    // Keyset page in the given order: up to limit tasks strictly after the task after
+    // (compared on the order's key, then id), or from the start when after is null;
+    // null on failure
+    List<Task> getPage(TaskOrder order, Task after, int limit);
+
+    // Page anchors for order: anchors[p] is the last task before page p (null for the
+    // first page; only id and the order's key are filled in), so page p is
+    // getPage(order, anchors[p], pageSize); null on failure
+    Task[] getPageAnchors(int pageSize, TaskOrder order);
+
+    // Text match on title/description plus an exact status ("All"/null = any), id order;
+    // null on failure
+    List<Task> search(String query, String status, int limit);
+
+    // Rows inserted; durable every commitSize rows. A failure after some groups committed
+    // throws BatchInsertException, which says how many
+    int insertBatch(List<Task> tasks, int commitSize) throws SQLException;
+
+    // All or nothing, except that version-checked mutations (TaskMutation.getBase())
+    // whose row has moved on are skipped. Returns id -> the row's new version for every
+    // task still present afterwards, or VERSION_CONFLICT for the skipped ones; tasks
+    // deleted or not found are absent.
+    Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException;
+
+    // Unconditional update; false on failure
+    boolean updateTask(Task task);
+
+    // Update applied only while the row is still at task.getVersion() (WHERE id=? AND
+    // version=?). Returns the new version, VERSION_CONFLICT, or -1 on failure.
+    long updateTaskChecked(Task task);
+
+    void deleteTask(int id);
+
+    // Affected rows, or -1 if nothing was changed because of a failure
+    int deleteTasks(int[] ids);
+
+    int updateStatus(int[] ids, String status);
+
+    // Identifies the database/file behind this repository, so locally cached data
+    // (store.TaskSnapshot) is only reused against the store it came from; null if unknown
+    String getStoreId();
+
+    // Optional: open connections / load indexes ahead of the first call
+    default void warmUp() {
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,7 @@
+package dao;
+
+// Receives rows from a streaming TaskDAO cursor; return false to stop early.
+@FunctionalInterface
+public interface TaskRowHandler {
+    boolean row(int id, String title, String description, String status) throws Exception;
+}
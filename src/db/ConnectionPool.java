@@ -0,0 +1,401 @@
+package db;
+
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+// Small bounded JDBC pool: connections are validated on borrow, idle ones are
+// evicted in the background, and close() on a borrowed connection returns it.
+// A connection returned closed is discarded; one returned by a borrower that hit an
+// error or was interrupted (a cancelled read) is always validated on its next borrow.
+public class ConnectionPool implements DataSource {
+
+    // A connection used this recently is trusted without an isValid() round trip
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final int VALIDATION_TIMEOUT_SEC = 2;
+    // After a failed warm-up the evictor waits this long (doubling per failure) before trying again
+    private static final long WARM_UP_RETRY_MS = 5_000;
+    private static final long MAX_WARM_UP_RETRY_MS = 300_000;
+    // Time to hand out a connection (wait + validation + any new handshake); errors = timeouts/failures
+    private static final OperationMetrics ACQUIRE = Metrics.op("pool.acquire");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+
+    private final Semaphore permits;
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    // Guarded by this; 0 while warm-ups succeed
+    private long warmUpRetryMs;
+    private long nextWarmUpAt;
+
+    // Stats
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private volatile int open;
+
+    public ConnectionPool(String url, String user, String password,
+                          int maxSize, int minIdle, long borrowTimeoutMs, long idleTimeoutMs) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens connections until minIdle are sitting in the pool. A failure is reported in
+    // one line and the evictor's next attempt is put off (see evictIdle).
+    public void warmUp() {
+        while (!closed) {
+            synchronized (this) {
+                if (idle.size() >= minIdle || open >= maxSize) return;
+                open++;
+            }
+            try {
+                Connection raw = newRawConnection();
+                synchronized (this) {
+                    idle.push(new Pooled(raw));
+                    warmUpRetryMs = 0;
+                }
+            } catch (SQLException e) {
+                long retry;
+                synchronized (this) {
+                    open--;
+                    warmUpRetryMs = Math.min(MAX_WARM_UP_RETRY_MS, Math.max(WARM_UP_RETRY_MS, warmUpRetryMs * 2));
+                    nextWarmUpAt = System.currentTimeMillis() + warmUpRetryMs;
+                    retry = warmUpRetryMs;
+                }
+                // Driver messages can run over several lines; the first says what went wrong
+                String reason = String.valueOf(e.getMessage()).split("\\R", 2)[0];
+                System.err.println("Connection pool: warm-up failed (" + reason + "); retrying in "
+                        + retry / 1000 + " s");
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                ACQUIRE.record(start, false, 0);
+                throw new SQLException("Timed out after " + borrowTimeoutMs + " ms waiting for a connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ACQUIRE.record(start, false, 0);
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            Pooled p = takeValidIdle();
+            if (p == null) {
+                synchronized (this) { open++; }
+                try {
+                    p = new Pooled(newRawConnection());
+                } catch (SQLException e) {
+                    synchronized (this) { open--; }
+                    throw e;
+                }
+            }
+            borrowed.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+            ACQUIRE.record(start, true, 0);
+            return p.lease();
+        } catch (SQLException | RuntimeException e) {
+            ACQUIRE.record(start, false, 0);
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String pass) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool uses fixed credentials");
+    }
+
+    private Pooled takeValidIdle() {
+        while (true) {
+            Pooled p;
+            synchronized (this) {
+                p = idle.poll();
+            }
+            if (p == null) return null;
+            boolean trusted = !p.suspect && System.currentTimeMillis() - p.lastUsed < VALIDATION_BYPASS_MS;
+            if (trusted || isValid(p.raw)) {
+                p.suspect = false;
+                return p;
+            }
+            validationFailures.incrementAndGet();
+            discard(p);
+        }
+    }
+
+    private boolean isValid(Connection c) {
+        try {
+            return c.isValid(VALIDATION_TIMEOUT_SEC);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection newRawConnection() throws SQLException {
+        Connection c = DriverManager.getConnection(url, user, password);
+        created.incrementAndGet();
+        return c;
+    }
+
+    // failed: the borrower got an error from the connection or was interrupted while
+    // holding it, so its recent use says nothing about whether it still works
+    private void giveBack(Pooled p, boolean failed) {
+        boolean reusable = !closed;
+        try {
+            if (reusable && p.raw.isClosed()) reusable = false;
+            if (reusable && !p.raw.getAutoCommit()) {
+                p.raw.rollback();
+                p.raw.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        if (reusable) {
+            if (failed) p.suspect = true;
+            else p.lastUsed = System.currentTimeMillis();
+            synchronized (this) {
+                idle.push(p);
+            }
+        } else {
+            discard(p);
+        }
+        permits.release();
+    }
+
+    private void discard(Pooled p) {
+        synchronized (this) { open--; }
+        try {
+            p.raw.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        Deque<Pooled> victims = new ArrayDeque<>();
+        synchronized (this) {
+            // Oldest connections sit at the tail of the LIFO deque
+            Iterator<Pooled> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                Pooled p = it.next();
+                if (p.lastUsed >= cutoff) break;
+                it.remove();
+                victims.add(p);
+            }
+        }
+        for (Pooled p : victims) {
+            evicted.incrementAndGet();
+            discard(p);
+        }
+        boolean warmUpDue;
+        synchronized (this) {
+            warmUpDue = System.currentTimeMillis() >= nextWarmUpAt;
+        }
+        if (!closed && warmUpDue) warmUp();
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        Deque<Pooled> drain;
+        synchronized (this) {
+            drain = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        for (Pooled p : drain) discard(p);
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(maxSize, open, idle.size(), open - idle.size(),
+                permits.getQueueLength(), borrowed.get(), created.get(),
+                validationFailures.get(), evicted.get(), timeouts.get(), waitNanos.get());
+    }
+
+    // --- DataSource boilerplate -----------------------------------------
+
+    @Override public PrintWriter getLogWriter() { return null; }
+    @Override public void setLogWriter(PrintWriter out) { }
+    @Override public void setLoginTimeout(int seconds) { DriverManager.setLoginTimeout(seconds); }
+    @Override public int getLoginTimeout() { return DriverManager.getLoginTimeout(); }
+    @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException { throw new SQLFeatureNotSupportedException(); }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    // --- Pooled connection ----------------------------------------------
+
+    private final class Pooled {
+        final Connection raw;
+        volatile long lastUsed = System.currentTimeMillis();
+        // Validate on the next borrow even if lastUsed is recent
+        volatile boolean suspect;
+
+        Pooled(Connection raw) {
+            this.raw = raw;
+        }
+
+        // Each borrow gets its own proxy so a stale handle can't close someone else's lease
+        Connection lease() {
+            Lease handler = new Lease(this);
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private Pooled pooled;
+        private volatile boolean failed;
+
+        Lease(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    synchronized (this) {
+                        if (pooled != null) {
+                            Pooled p = pooled;
+                            pooled = null;
+                            giveBack(p, failed || Thread.currentThread().isInterrupted());
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    synchronized (this) {
+                        return pooled == null || pooled.raw.isClosed();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+            Pooled p;
+            synchronized (this) {
+                p = pooled;
+            }
+            if (p == null) throw new SQLException("Connection is closed");
+            try {
+                return method.invoke(p.raw, args);
+            } catch (InvocationTargetException e) {
+                failed = true;
+                throw e.getCause();
+            }
+        }
+    }
+
+    // --- Stats snapshot -------------------------------------------------
+
+    public static final class Stats {
+        private final int maxSize;
+        private final int open;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long borrowed;
+        private final long created;
+        private final long validationFailures;
+        private final long evicted;
+        private final long timeouts;
+        private final long totalWaitNanos;
+
+        Stats(int maxSize, int open, int idle, int active, int waiting, long borrowed, long created,
+              long validationFailures, long evicted, long timeouts, long totalWaitNanos) {
+            this.maxSize = maxSize;
+            this.open = open;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.borrowed = borrowed;
+            this.created = created;
+            this.validationFailures = validationFailures;
+            this.evicted = evicted;
+            this.timeouts = timeouts;
+            this.totalWaitNanos = totalWaitNanos;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getOpen() { return open; }
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowed() { return borrowed; }
+        public long getCreated() { return created; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getEvicted() { return evicted; }
+        public long getTimeouts() { return timeouts; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+
+        @Override
+        public String toString() {
+            return "open=" + open + "/" + maxSize + " idle=" + idle + " active=" + active
+                    + " waiting=" + waiting + " borrowed=" + borrowed + " created=" + created
+                    + " invalid=" + validationFailures + " evicted=" + evicted + " timeouts=" + timeouts;
+        }
+    }
+}
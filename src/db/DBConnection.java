@@ -1,23 +1,115 @@
 package db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.SQLException;
+import javax.sql.DataSource;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/todo_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "hasanali7623"; // 👈 change this!
+    // Defaults can be overridden with -Dtodo.db.url=... etc. (or configure() from code/tests)
+    // rewriteBatchedStatements lets JDBC batches go over the wire as multi-row INSERTs
+    private static final String URL = System.getProperty("todo.db.url",
+            "jdbc:mysql://localhost:3306/todo_db?rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("todo.db.user", "root");
+    private static final String PASSWORD = System.getProperty("todo.db.password", "hasanali7623"); // 👈 change this!
 
+    private static final int MAX_POOL_SIZE = Integer.getInteger("todo.db.pool.max", 8);
+    private static final int MIN_IDLE = Integer.getInteger("todo.db.pool.minIdle", 2);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("todo.db.pool.borrowTimeoutMs", 5_000L);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("todo.db.pool.idleTimeoutMs", 300_000L);
+    // -Dtodo.db.migrate=false leaves the schema alone (e.g. when the app user has no DDL rights)
+    private static final boolean MIGRATE = !"false".equalsIgnoreCase(System.getProperty("todo.db.migrate"));
+
+    private static ConnectionPool pool;
+    private static String poolUrl;
+    // Set once SchemaMigrator has run (or been skipped) for the current pool
+    private static volatile boolean schemaChecked;
+
+    // Point the pool somewhere else (e.g. an embedded database in tests); closes the old pool
+    public static synchronized void configure(String url, String user, String password, int maxPoolSize) {
+        if (pool != null) pool.close();
+        pool = newPool(url, user, password, maxPoolSize, Math.min(MIN_IDLE, maxPoolSize));
+        poolUrl = url;
+        schemaChecked = false;
+    }
+
+    public static synchronized DataSource getDataSource() {
+        if (pool == null) {
+            pool = newPool(URL, USER, PASSWORD, MAX_POOL_SIZE, MIN_IDLE);
+            poolUrl = URL;
+            schemaChecked = false;
+        }
+        return pool;
+    }
+
+    // The first connection handed out migrates the schema before anyone queries it
     public static Connection getConnection() {
         try {
-            // Load driver (required in some setups)
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
-            // Connect
-            return DriverManager.getConnection(URL, USER, PASSWORD);
+            Connection conn = getDataSource().getConnection();
+            if (!schemaChecked) checkSchema(conn);
+            return conn;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
+
+    // Runs once per pool, on a connection that is already open (so a database that is
+    // down costs no extra connect attempt). A failed migration is reported, not retried:
+    // queries then fail with the database's own error.
+    private static synchronized void checkSchema(Connection conn) {
+        if (schemaChecked) return;
+        try {
+            // Other threads' first connections wait here until the schema is in place
+            if (MIGRATE && poolUrl.startsWith("jdbc:mysql:")) SchemaMigrator.migrate(conn);
+        } catch (SQLException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            schemaChecked = true;
+        }
+    }
+
+    // Opens the minimum idle connections up front so the first query doesn't pay the
+    // handshake, and gets any schema migration out of the way
+    public static void warmUp() {
+        ((ConnectionPool) getDataSource()).warmUp();
+        if (!schemaChecked) {
+            // Borrowed only so checkSchema runs
+            Connection conn = getConnection();
+            try {
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return ((ConnectionPool) getDataSource()).getStats();
+    }
+
+    // Like getPoolStats() but never opens a pool; null when none is open (e.g. the local store)
+    public static synchronized ConnectionPool.Stats peekPoolStats() {
+        return pool == null ? null : pool.getStats();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+            schemaChecked = false;
+        }
+    }
+
+    private static ConnectionPool newPool(String url, String user, String password, int maxSize, int minIdle) {
+        if (url.startsWith("jdbc:mysql:")) {
+            try {
+                // Load driver (required in some setups)
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        return new ConnectionPool(url, user, password, maxSize, minIdle, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS);
+    }
 }
@@ -0,0 +1,207 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Brings a MySQL database up to the schema the app needs (see schema.sql for the same
+// DDL in readable form). Migrations are numbered and each runs once, in order; the
+// schema_version table records what has been applied. MySQL commits DDL as it goes, so
+// a migration is not atomic: every step first checks information_schema and skips what
+// already exists, which makes a half-applied migration safe to re-run and lets a
+// database built by hand from an older schema.sql be adopted as is.
+// Clients starting together serialize on a named lock (GET_LOCK).
+public final class SchemaMigrator {
+
+    private static final String LOCK_NAME = "todo_db.schema";
+    private static final int LOCK_TIMEOUT_SEC = 30;
+
+    // Append only: never edit a migration that has shipped, add the next version instead
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "tasks table",
+                    sql("CREATE TABLE IF NOT EXISTS tasks ("
+                            + " id INT AUTO_INCREMENT PRIMARY KEY,"
+                            + " title VARCHAR(255) NOT NULL,"
+                            + " description TEXT,"
+                            + " status VARCHAR(20) NOT NULL DEFAULT 'Pending')")),
+            new Migration(2, "status, title and full-text indexes",
+                    index("tasks", "idx_tasks_status", "CREATE INDEX idx_tasks_status ON tasks (status)"),
+                    index("tasks", "idx_tasks_title", "CREATE INDEX idx_tasks_title ON tasks (title)"),
+                    index("tasks", "ft_tasks_text",
+                            "CREATE FULLTEXT INDEX ft_tasks_text ON tasks (title, description)")),
+            new Migration(3, "row versions, change clock and tombstones",
+                    column("tasks", "version", "ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0"),
+                    index("tasks", "idx_tasks_version", "CREATE INDEX idx_tasks_version ON tasks (version)"),
+                    sql("CREATE TABLE IF NOT EXISTS task_clock (id TINYINT PRIMARY KEY, v BIGINT NOT NULL)"),
+                    sql("INSERT IGNORE INTO task_clock (id, v) VALUES (1, 0)"),
+                    sql("CREATE TABLE IF NOT EXISTS task_tombstones ("
+                            + " id INT PRIMARY KEY,"
+                            + " version BIGINT NOT NULL,"
+                            + " INDEX idx_tombstones_version (version))"),
+                    trigger("tasks_version_insert",
+                            "CREATE TRIGGER tasks_version_insert BEFORE INSERT ON tasks FOR EACH ROW BEGIN"
+                            + " UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;"
+                            + " SET NEW.version = LAST_INSERT_ID();"
+                            + " END"),
+                    trigger("tasks_version_update",
+                            "CREATE TRIGGER tasks_version_update BEFORE UPDATE ON tasks FOR EACH ROW BEGIN"
+                            + " UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;"
+                            + " SET NEW.version = LAST_INSERT_ID();"
+                            + " END"),
+                    trigger("tasks_tombstone",
+                            "CREATE TRIGGER tasks_tombstone AFTER DELETE ON tasks FOR EACH ROW BEGIN"
+                            + " UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;"
+                            + " INSERT INTO task_tombstones (id, version) VALUES (OLD.id, LAST_INSERT_ID())"
+                            + " ON DUPLICATE KEY UPDATE version = VALUES(version);"
+                            + " END")),
+            new Migration(4, "tombstone retention",
+                    column("task_tombstones", "deleted_at", "ALTER TABLE task_tombstones"
+                            + " ADD COLUMN deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP"),
+                    index("task_tombstones", "idx_tombstones_deleted_at",
+                            "CREATE INDEX idx_tombstones_deleted_at ON task_tombstones (deleted_at, version)"),
+                    column("task_clock", "pruned", "ALTER TABLE task_clock ADD COLUMN pruned BIGINT NOT NULL DEFAULT 0")));
+
+    public static final int LATEST_VERSION = MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+
+    private SchemaMigrator() {
+    }
+
+    // Applies the missing migrations over conn (left open); returns the schema version now
+    public static int migrate(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        try {
+            lock(conn);
+            try {
+                return applyMissing(conn);
+            } finally {
+                unlock(conn);
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int applyMissing(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + " version INT PRIMARY KEY,"
+                    + " description VARCHAR(255) NOT NULL,"
+                    + " applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+        int current = currentVersion(conn);
+        if (current > LATEST_VERSION) {
+            System.err.println("Database schema is at version " + current
+                    + ", newer than this client knows (" + LATEST_VERSION + ")");
+            return current;
+        }
+        for (Migration m : MIGRATIONS) {
+            if (m.version <= current) continue;
+            for (Step step : m.steps) step.apply(conn);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                ps.setInt(1, m.version);
+                ps.setString(2, m.description);
+                ps.executeUpdate();
+            }
+            current = m.version;
+            System.err.println("Database schema migrated to version " + current + " (" + m.description + ")");
+        }
+        return current;
+    }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SEC);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out after " + LOCK_TIMEOUT_SEC + " s waiting for the schema lock");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+
+    // --- Steps ----------------------------------------------------------
+
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Step[] steps;
+
+        Migration(int version, String description, Step... steps) {
+            this.version = version;
+            this.description = description;
+            this.steps = steps;
+        }
+    }
+
+    // Statements that are idempotent on their own (IF NOT EXISTS, INSERT IGNORE)
+    private static Step sql(String ddl) {
+        return conn -> execute(conn, ddl);
+    }
+
+    private static Step index(String table, String name, String ddl) {
+        return conn -> {
+            if (!exists(conn, "SELECT 1 FROM information_schema.statistics"
+                    + " WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?", table, name)) {
+                execute(conn, ddl);
+            }
+        };
+    }
+
+    private static Step column(String table, String name, String ddl) {
+        return conn -> {
+            if (!exists(conn, "SELECT 1 FROM information_schema.columns"
+                    + " WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", table, name)) {
+                execute(conn, ddl);
+            }
+        };
+    }
+
+    // Sent as one statement, so the body needs no DELIMITER (that is a mysql client command)
+    private static Step trigger(String name, String ddl) {
+        return conn -> {
+            if (!exists(conn, "SELECT 1 FROM information_schema.triggers"
+                    + " WHERE trigger_schema = DATABASE() AND trigger_name = ?", name)) {
+                execute(conn, ddl);
+            }
+        };
+    }
+
+    private static boolean exists(Connection conn, String sql, String... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) ps.setString(i + 1, params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
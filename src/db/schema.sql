@@ -0,0 +1,82 @@
+-- Schema for todo_db (MySQL 8, InnoDB)
+-- The app creates and upgrades this itself on first connect (db.SchemaMigrator, versions
+-- recorded in schema_version); this file is the same DDL for reading or manual setup.
+-- Keep the two in step. test/dao/QueryPlanIT (mvn verify) checks that the queries use these indexes.
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          INT AUTO_INCREMENT PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    description TEXT,
+    status      VARCHAR(20)  NOT NULL DEFAULT 'Pending',
+    -- Clock value of the last write to this row (set by the triggers below)
+    version     BIGINT       NOT NULL DEFAULT 0
+);
+
+-- Status filter buttons: WHERE status = ? ORDER BY id (InnoDB appends the PK to the index),
+-- and status-sorted paging: WHERE (status, id) > (?, ?) ORDER BY status, id
+CREATE INDEX idx_tasks_status ON tasks (status);
+
+-- Short search terms fall back to a title prefix match: WHERE title LIKE 'q%'
+-- Title-sorted paging walks it the same way as status (see TaskDAO.getPage)
+CREATE INDEX idx_tasks_title ON tasks (title);
+
+-- Search box: MATCH (title, description) AGAINST (... IN BOOLEAN MODE)
+CREATE FULLTEXT INDEX ft_tasks_text ON tasks (title, description);
+
+-- --- Change tracking (TaskDAO.getChangesSince) ---------------------------
+
+-- Delta refresh: WHERE version > ?
+CREATE INDEX idx_tasks_version ON tasks (version);
+
+-- Single-row clock; every insert/update/delete takes the next value. The row lock
+-- is held until commit, so versions become visible in increasing order.
+CREATE TABLE IF NOT EXISTS task_clock (
+    id     TINYINT PRIMARY KEY,
+    v      BIGINT  NOT NULL,
+    -- Newest tombstone version pruned; a client behind it has to reload in full
+    pruned BIGINT  NOT NULL DEFAULT 0
+);
+INSERT IGNORE INTO task_clock (id, v) VALUES (1, 0);
+
+-- One row per deleted task id, stamped with the clock value of the delete. Rows older
+-- than todo.tombstones.retentionDays (default 30) are pruned when a client warms up
+-- (MySqlTaskRepository.pruneTombstones), which raises task_clock.pruned.
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    id         INT       PRIMARY KEY,
+    version    BIGINT    NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_tombstones_version (version),
+    -- Pruning: MAX(version) WHERE deleted_at < ...; covering, so it never reads the rows
+    INDEX idx_tombstones_deleted_at (deleted_at, version)
+);
+
+-- Triggers stamp every write path (DAO, imports, manual SQL) the same way
+DELIMITER //
+
+CREATE TRIGGER tasks_version_insert BEFORE INSERT ON tasks FOR EACH ROW
+BEGIN
+    UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;
+    SET NEW.version = LAST_INSERT_ID();
+END//
+
+CREATE TRIGGER tasks_version_update BEFORE UPDATE ON tasks FOR EACH ROW
+BEGIN
+    UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;
+    SET NEW.version = LAST_INSERT_ID();
+END//
+
+CREATE TRIGGER tasks_tombstone AFTER DELETE ON tasks FOR EACH ROW
+BEGIN
+    UPDATE task_clock SET v = LAST_INSERT_ID(v + 1) WHERE id = 1;
+    INSERT INTO task_tombstones (id, version) VALUES (OLD.id, LAST_INSERT_ID())
+        ON DUPLICATE KEY UPDATE version = VALUES(version);
+END//
+
+DELIMITER ;
+
+-- Upgrading an existing database: add the columns before running the section above
+--   ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+-- and, where task_clock and task_tombstones already exist,
+--   ALTER TABLE task_tombstones ADD COLUMN deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+--   CREATE INDEX idx_tombstones_deleted_at ON task_tombstones (deleted_at, version);
+--   ALTER TABLE task_clock ADD COLUMN pruned BIGINT NOT NULL DEFAULT 0;
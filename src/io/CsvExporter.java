@@ -0,0 +1,55 @@
+package io;
+
+import dao.TaskDAO;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+// Streams the tasks table from a forward-only database cursor into a CSV file.
+// Memory stays flat regardless of row count; call from a background thread.
+public class CsvExporter {
+
+    // Progress is reported every this many rows
+    private static final int PROGRESS_INTERVAL = 5_000;
+
+    // Returns the number of rows written, or -1 if cancelled. The target file is
+    // only replaced once the export has completed.
+    public static long export(Path target, LongConsumer progress, BooleanSupplier cancelled) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".part");
+        long[] written = { 0 };
+        boolean[] stopped = { false };
+        IOException[] failure = { null };
+        try (CsvWriter out = new CsvWriter(tmp)) {
+            out.writeHeader();
+            long rows = TaskDAO.streamTasks((id, title, description, status) -> {
+                if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                    stopped[0] = true;
+                    return false;
+                }
+                try {
+                    out.writeRow(id, title, description, status);
+                } catch (IOException e) {
+                    failure[0] = e;
+                    return false;
+                }
+                if (++written[0] % PROGRESS_INTERVAL == 0) progress.accept(written[0]);
+                return true;
+            });
+            if (failure[0] != null) throw failure[0];
+            if (rows < 0) throw new IOException("Could not read tasks from the database");
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        if (stopped[0]) {
+            Files.deleteIfExists(tmp);
+            return -1;
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        progress.accept(written[0]);
+        return written[0];
+    }
+}
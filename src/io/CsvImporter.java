@@ -0,0 +1,261 @@
+package io;
+
+import dao.BatchInsertException;
+import dao.TaskDAO;
+import model.Task;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+// Bulk CSV import into the tasks table, reading the format CsvWriter produces
+// (ID,Title,Description,Status; RFC 4180 quoting). The file is split into chunks
+// at record boundaries, chunks are parsed in parallel, and parsed chunks are
+// inserted in file order with batched multi-row INSERTs. The ID column is ignored:
+// imported rows get new ids.
+public class CsvImporter {
+
+    private static final int TARGET_CHUNK_BYTES = 1 << 20;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
+    // Outcome of an import, including per-chunk errors
+    public static final class Result {
+        private final long imported;
+        private final long rejected;
+        private final List<String> errors;
+        private final long elapsedNanos;
+        private final boolean cancelled;
+
+        Result(long imported, long rejected, List<String> errors, long elapsedNanos, boolean cancelled) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.cancelled = cancelled;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public List<String> getErrors() { return errors; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public boolean isCancelled() { return cancelled; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : imported * 1e9 / elapsedNanos;
+        }
+    }
+
+    // Called after each chunk is inserted (on the importing thread)
+    public interface Progress {
+        void update(long imported, long bytesDone, long totalBytes);
+    }
+
+    // Byte range of the file holding whole records, plus the 1-based (physical) line it starts on
+    private static final class Chunk {
+        final int index;
+        final long offset;
+        final long length;
+        final long firstLine;
+
+        Chunk(int index, long offset, long length, long firstLine) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+            this.firstLine = firstLine;
+        }
+    }
+
+    private static final class Parsed {
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+    }
+
+    private final int commitSize;
+    private final int parallelism;
+
+    public CsvImporter(int commitSize, int parallelism) {
+        this.commitSize = Math.max(1, commitSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public Result importFile(Path file, Progress progress, BooleanSupplier cancelled) throws IOException {
+        long start = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        boolean stopped = false;
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "csv-import-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Chunk> chunks = split(channel);
+            long totalBytes = channel.size();
+            // Parse ahead of the inserter, but only a bounded window so memory stays flat
+            Deque<CompletableFuture<Parsed>> window = new ArrayDeque<>();
+            int next = 0;
+            while (next < chunks.size() || !window.isEmpty()) {
+                while (next < chunks.size() && window.size() < parallelism * 2) {
+                    Chunk c = chunks.get(next++);
+                    window.add(CompletableFuture.supplyAsync(() -> parse(channel, c), parsers));
+                }
+                if (cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+                    stopped = true;
+                    break;
+                }
+                Chunk chunk = chunks.get(next - window.size());
+                Parsed parsed = window.poll().join();
+                errors.addAll(parsed.errors);
+                rejected += parsed.errors.size();
+                try {
+                    imported += TaskDAO.insertBatch(parsed.tasks, commitSize);
+                } catch (BatchInsertException e) {
+                    // Groups before the failing one are committed: only the rest is lost
+                    int lost = parsed.tasks.size() - e.getCommitted();
+                    errors.add("Chunk " + chunk.index + " (line " + chunk.firstLine + "): " + lost + " of "
+                            + parsed.tasks.size() + " rows not inserted: " + e.getMessage());
+                    imported += e.getCommitted();
+                    rejected += lost;
+                } catch (Exception e) {
+                    errors.add("Chunk " + chunk.index + " (line " + chunk.firstLine + "): insert of "
+                            + parsed.tasks.size() + " rows failed: " + e.getMessage());
+                    rejected += parsed.tasks.size();
+                }
+                progress.update(imported, chunk.offset + chunk.length, totalBytes);
+            }
+            for (CompletableFuture<Parsed> f : window) f.cancel(true);
+        } finally {
+            parsers.shutdownNow();
+        }
+        return new Result(imported, rejected, errors, System.nanoTime() - start, stopped);
+    }
+
+    // --- Chunking -------------------------------------------------------
+
+    // Sequential quote-aware byte scan: a chunk ends at the first newline outside
+    // quotes after TARGET_CHUNK_BYTES. Newline bytes never occur inside a UTF-8
+    // multi-byte sequence, so chunks can be decoded independently.
+    private static List<Chunk> split(FileChannel channel) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long pos = 0;
+        long chunkStart = 0;
+        long line = 1;
+        long chunkFirstLine = 1;
+        boolean inQuotes = false;
+        channel.position(0);
+        while (channel.read(buf) > 0) {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                byte b = buf.get();
+                pos++;
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    line++;
+                    if (!inQuotes && pos - chunkStart >= TARGET_CHUNK_BYTES) {
+                        chunks.add(new Chunk(chunks.size(), chunkStart, pos - chunkStart, chunkFirstLine));
+                        chunkStart = pos;
+                        chunkFirstLine = line;
+                    }
+                }
+            }
+            buf.clear();
+        }
+        if (pos > chunkStart) chunks.add(new Chunk(chunks.size(), chunkStart, pos - chunkStart, chunkFirstLine));
+        return chunks;
+    }
+
+    // --- Parsing --------------------------------------------------------
+
+    private static Parsed parse(FileChannel channel, Chunk chunk) {
+        Parsed out = new Parsed();
+        CharBuffer text;
+        try {
+            text = StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset, chunk.length));
+        } catch (IOException e) {
+            out.errors.add("Chunk " + chunk.index + " (line " + chunk.firstLine + "): " + e.getMessage());
+            return out;
+        }
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        long line = chunk.firstLine;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            // One record
+            fields.clear();
+            long recordLine = line;
+            boolean endOfRecord = false;
+            while (!endOfRecord) {
+                field.setLength(0);
+                if (i < n && text.get(i) == '"') {
+                    i++;
+                    while (i < n) {
+                        char c = text.get(i++);
+                        if (c == '"') {
+                            if (i < n && text.get(i) == '"') {
+                                field.append('"');
+                                i++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            if (c == '\n') line++;
+                            field.append(c);
+                        }
+                    }
+                }
+                boolean sawComma = false;
+                while (i < n) {
+                    char c = text.get(i++);
+                    if (c == ',') {
+                        sawComma = true;
+                        break;
+                    }
+                    if (c == '\n') {
+                        line++;
+                        endOfRecord = true;
+                        break;
+                    }
+                    if (c != '\r') field.append(c);
+                }
+                fields.add(field.toString());
+                if (i >= n && !endOfRecord) {
+                    // "a,b," at end of input still has a trailing empty field
+                    if (sawComma) fields.add("");
+                    endOfRecord = true;
+                }
+            }
+            if (recordLine == 1 && fields.size() > 0 && "ID".equalsIgnoreCase(fields.get(0))) continue; // header
+            if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // blank line
+            String error = toTask(fields, out.tasks);
+            if (error != null) out.errors.add("Chunk " + chunk.index + ", line " + recordLine + ": " + error);
+        }
+        return out;
+    }
+
+    // Validates one record and adds it as a task; returns an error message instead if invalid
+    private static String toTask(List<String> fields, List<Task> tasks) {
+        if (fields.size() != 4) return "expected 4 fields but found " + fields.size();
+        String title = fields.get(1).trim();
+        if (title.isEmpty()) return "title is required";
+        String status = fields.get(3).trim();
+        if (status.isEmpty()) status = "Pending";
+        tasks.add(new Task(0, title, fields.get(2), status));
+        return null;
+    }
+}
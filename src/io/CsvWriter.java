@@ -0,0 +1,103 @@
+package io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Buffered CSV writer straight onto a FileChannel. Rows are escaped into one
+// reusable char buffer and encoded to UTF-8 in large chunks.
+public class CsvWriter implements Closeable {
+
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 256 * 1024;
+    private static final String LINE_END = System.lineSeparator();
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder line = new StringBuilder(CHAR_BUFFER_SIZE + 1024);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+
+    public CsvWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public void writeHeader() throws IOException {
+        line.append("ID,Title,Description,Status").append(LINE_END);
+    }
+
+    public void writeRow(int id, String title, String description, String status) throws IOException {
+        line.append(id).append(',');
+        appendEscaped(line, title);
+        line.append(',');
+        appendEscaped(line, description);
+        line.append(',');
+        appendEscaped(line, status);
+        line.append(LINE_END);
+        if (line.length() >= CHAR_BUFFER_SIZE) flushChars();
+    }
+
+    // Appends value as a CSV field in one pass: characters are copied as they are
+    // scanned, and only if a comma, quote or line break turns up is the opening
+    // quote inserted (and quotes doubled from there on).
+    public static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) return;
+        int start = out.length();
+        boolean quoted = false;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == ',' || c == '\n' || c == '\r') {
+                // Nothing copied before the first special char needs doubling
+                if (!quoted) {
+                    quoted = true;
+                    out.insert(start, '"');
+                }
+                if (c == '"') out.append('"');
+            }
+            out.append(c);
+        }
+        if (quoted) out.append('"');
+    }
+
+    private void flushChars() throws IOException {
+        CharBuffer in = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, false);
+            if (result.isError()) result.throwException();
+            if (result.isOverflow()) {
+                drainBytes();
+            } else {
+                break;
+            }
+        }
+        // Keep any trailing half of a surrogate pair for the next round
+        line.delete(0, line.length() - in.remaining());
+    }
+
+    private void drainBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) channel.write(bytes);
+        bytes.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushChars();
+            CharBuffer rest = CharBuffer.wrap(line);
+            while (encoder.encode(rest, bytes, true).isOverflow()) drainBytes();
+            while (encoder.flush(bytes).isOverflow()) drainBytes();
+            drainBytes();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Process-wide registry of operation metrics, published over JMX as todo:type=TaskMetrics
+public final class Metrics {
+
+    public static final String MBEAN_NAME = "todo:type=TaskMetrics";
+
+    private static final ConcurrentHashMap<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    // The metrics for name, created on first use; callers keep the reference
+    public static OperationMetrics op(String name) {
+        return OPERATIONS.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    // Operations that have been called at least once, by name
+    public static List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> list = new ArrayList<>();
+        for (OperationMetrics m : OPERATIONS.values()) {
+            OperationSnapshot s = m.snapshot();
+            if (s.getCalls() > 0) list.add(s);
+        }
+        list.sort(Comparator.comparing(OperationSnapshot::getName));
+        return list;
+    }
+
+    public static void reset() {
+        for (OperationMetrics m : OPERATIONS.values()) m.reset();
+    }
+
+    // Safe to call more than once
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(new TaskMetrics(), name);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
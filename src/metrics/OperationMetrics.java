@@ -0,0 +1,44 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Calls, failures, rows and latency for one named operation (e.g. "getAllTasks")
+public class OperationMetrics {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // One finished call that started at startNanos (System.nanoTime())
+    public void record(long startNanos, boolean ok, long rowCount) {
+        recordDuration(System.nanoTime() - startNanos, ok, rowCount);
+    }
+
+    // One finished call that took durationNanos
+    public void recordDuration(long durationNanos, boolean ok, long rowCount) {
+        latency.record(durationNanos);
+        if (!ok) errors.increment();
+        if (rowCount > 0) rows.add(rowCount);
+    }
+
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+    public OperationSnapshot snapshot() {
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        return new OperationSnapshot(name, s.getCount(), errors.sum(), rows.sum(),
+                s.getMeanNanos() / 1e3, s.getP50Nanos() / 1e3, s.getP99Nanos() / 1e3, s.getMaxNanos() / 1e3);
+    }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+import java.beans.ConstructorProperties;
+
+// Point-in-time view of an OperationMetrics; latencies in microseconds.
+// Shaped as a bean so the MXBean can publish it as CompositeData.
+public class OperationSnapshot {
+
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final long rows;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    @ConstructorProperties({ "name", "calls", "errors", "rows", "meanMicros", "p50Micros", "p99Micros", "maxMicros" })
+    public OperationSnapshot(String name, long calls, long errors, long rows,
+                             double meanMicros, double p50Micros, double p99Micros, double maxMicros) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getName() { return name; }
+    public long getCalls() { return calls; }
+    public long getErrors() { return errors; }
+    public long getRows() { return rows; }
+    public double getMeanMicros() { return meanMicros; }
+    public double getP50Micros() { return p50Micros; }
+    public double getP99Micros() { return p99Micros; }
+    public double getMaxMicros() { return maxMicros; }
+}
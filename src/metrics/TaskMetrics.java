@@ -0,0 +1,42 @@
+package metrics;
+
+import db.ConnectionPool;
+import db.DBConnection;
+import java.util.List;
+
+public class TaskMetrics implements TaskMetricsMXBean {
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        return Metrics.snapshot();
+    }
+
+    @Override
+    public int getPoolOpen() {
+        ConnectionPool.Stats s = DBConnection.peekPoolStats();
+        return s == null ? 0 : s.getOpen();
+    }
+
+    @Override
+    public int getPoolActive() {
+        ConnectionPool.Stats s = DBConnection.peekPoolStats();
+        return s == null ? 0 : s.getActive();
+    }
+
+    @Override
+    public int getPoolWaiting() {
+        ConnectionPool.Stats s = DBConnection.peekPoolStats();
+        return s == null ? 0 : s.getWaiting();
+    }
+
+    @Override
+    public long getPoolTimeouts() {
+        ConnectionPool.Stats s = DBConnection.peekPoolStats();
+        return s == null ? 0 : s.getTimeouts();
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+}
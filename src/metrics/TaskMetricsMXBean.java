@@ -0,0 +1,21 @@
+package metrics;
+
+import java.util.List;
+
+// JMX view (jconsole / VisualVM: todo -> TaskMetrics)
+public interface TaskMetricsMXBean {
+
+    // Per repository operation: calls, errors, rows, mean/p50/p99/max latency (µs)
+    List<OperationSnapshot> getOperations();
+
+    // Connection pool gauges; zero when no pool is open (e.g. the local store)
+    int getPoolOpen();
+
+    int getPoolActive();
+
+    int getPoolWaiting();
+
+    long getPoolTimeouts();
+
+    void reset();
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.Map;
+
+// Running task totals by status. Seeded once from a GROUP BY query, then kept
+// current with +1/-1 deltas as tasks are added, removed or change status.
+public class StatusCounters {
+
+    public static final String PENDING = "Pending";
+    public static final String COMPLETED = "Completed";
+
+    private int total;
+    private int pending;
+    private int completed;
+
+    public void seed(Map<String, Integer> countsByStatus) {
+        total = 0;
+        pending = 0;
+        completed = 0;
+        for (Map.Entry<String, Integer> e : countsByStatus.entrySet()) {
+            adjust(e.getKey(), e.getValue());
+        }
+    }
+
+    public void added(String status) {
+        adjust(status, 1);
+    }
+
+    public void removed(String status) {
+        adjust(status, -1);
+    }
+
+    public void statusChanged(String oldStatus, String newStatus) {
+        if (oldStatus == null ? newStatus == null : oldStatus.equalsIgnoreCase(newStatus)) return;
+        adjust(oldStatus, -1);
+        adjust(newStatus, 1);
+    }
+
+    private void adjust(String status, int delta) {
+        total += delta;
+        if (COMPLETED.equalsIgnoreCase(status)) completed += delta;
+        else if (PENDING.equalsIgnoreCase(status)) pending += delta;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+}
@@ -1,10 +1,15 @@
 package model;
 
 public class Task {
+    // Version of a task that wasn't read from the store (updates are then unconditional)
+    public static final long NO_VERSION = -1;
+
     private int id;
     private String title;
     private String description;
     private String status;
+    // Row version (tasks.version) as read; optimistic updates check it is still current
+    private long version = NO_VERSION;
 
     // Constructor
     public Task(int id, String title, String description, String status) {
@@ -14,6 +19,11 @@ public class Task {
         this.status = status;
     }
 
+    public Task(int id, String title, String description, String status, long version) {
+        this(id, title, description, status);
+        this.version = version;
+    }
+
     // Getters
     public int getId() {
         return id;
@@ -31,6 +41,10 @@ public class Task {
         return status;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Setters
     public void setId(int id) {
         this.id = id;
@@ -47,4 +61,8 @@ public class Task {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.List;
+
+// What changed in the tasks table after a given version: tasks inserted or
+// updated since then, ids deleted since then, and the version to ask from next.
+// A full load is the same shape with every task as an upsert and no deletes.
+// When the deletes asked about have already been pruned from the store, the answer
+// is tooOld(): empty, and the caller has to load everything again.
+public class TaskChanges {
+    private final List<Task> upserts;
+    private final int[] deletedIds;
+    private final long version;
+    private final boolean tooOld;
+
+    public TaskChanges(List<Task> upserts, int[] deletedIds, long version) {
+        this(upserts, deletedIds, version, false);
+    }
+
+    private TaskChanges(List<Task> upserts, int[] deletedIds, long version, boolean tooOld) {
+        this.upserts = upserts;
+        this.deletedIds = deletedIds;
+        this.version = version;
+        this.tooOld = tooOld;
+    }
+
+    // The store no longer has every delete after the version asked about
+    public static TaskChanges tooOld(long version) {
+        return new TaskChanges(List.of(), new int[0], version, true);
+    }
+
+    public boolean isTooOld() {
+        return tooOld;
+    }
+
+    public List<Task> getUpserts() {
+        return upserts;
+    }
+
+    public int[] getDeletedIds() {
+        return deletedIds;
+    }
+
+    // High-water mark: every change up to and including this version is reflected
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return upserts.size() + deletedIds.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import java.util.Objects;
+
+// Order of a task list that is paged by the store (see TaskDAO.getPage): one key
+// column, ties broken by id in the same direction, so every order is total and a
+// page can start strictly after the last row of the previous one (keyset paging).
+public final class TaskOrder {
+
+    public enum Key { ID, TITLE, STATUS }
+
+    public static final TaskOrder BY_ID = new TaskOrder(Key.ID, false);
+
+    private final Key key;
+    private final boolean descending;
+
+    public TaskOrder(Key key, boolean descending) {
+        this.key = Objects.requireNonNull(key);
+        this.descending = descending;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TaskOrder)) return false;
+        TaskOrder other = (TaskOrder) o;
+        return key == other.key && descending == other.descending;
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode() * 2 + (descending ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return key + (descending ? " DESC" : " ASC");
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+// Known task statuses with a compact byte code (the ordinal).
+public enum TaskStatus {
+    PENDING("Pending"),
+    COMPLETED("Completed");
+
+    private final String label;
+
+    TaskStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    // Case-insensitive lookup by label; null for anything else
+    public static TaskStatus fromLabel(String label) {
+        if (label == null) return null;
+        for (TaskStatus s : values()) {
+            if (s.label.equalsIgnoreCase(label)) return s;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,306 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Struct-of-arrays task storage: one primitive/reference array per column instead
+// of one object per row. Status is a byte code (TaskStatus ordinal, or an extra code
+// for unknown labels), titles are deduplicated, and id -> row is a primitive hash map.
+public class TaskStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private int size;
+
+    private IdIndex rowById = new IdIndex(INITIAL_CAPACITY);
+    // Labels for status codes; the first entries are the TaskStatus constants
+    private final List<String> statusLabels = new ArrayList<>();
+    // Shared title strings (lists repeat titles; descriptions are mostly unique, so they
+    // aren't pooled). Edits and removals leave stale entries; see intern()
+    private Map<String, String> titlePool = new HashMap<>();
+
+    public TaskStore() {
+        for (TaskStatus s : TaskStatus.values()) statusLabels.add(s.getLabel());
+    }
+
+    // --- Bulk -----------------------------------------------------------
+
+    public void clear() {
+        size = 0;
+        Arrays.fill(titles, null);
+        Arrays.fill(descriptions, null);
+        rowById = new IdIndex(INITIAL_CAPACITY);
+        titlePool = new HashMap<>();
+    }
+
+    public void load(List<Task> tasks) {
+        clear();
+        ensureCapacity(tasks.size());
+        rowById = new IdIndex(tasks.size());
+        for (Task t : tasks) add(t);
+    }
+
+    // Independent copy for background readers (strings are shared, arrays are not)
+    public TaskStore copy() {
+        TaskStore c = new TaskStore();
+        c.ids = Arrays.copyOf(ids, size);
+        c.statuses = Arrays.copyOf(statuses, size);
+        c.titles = Arrays.copyOf(titles, size);
+        c.descriptions = Arrays.copyOf(descriptions, size);
+        c.versions = Arrays.copyOf(versions, size);
+        c.size = size;
+        c.statusLabels.clear();
+        c.statusLabels.addAll(statusLabels);
+        // Lookups by id aren't needed on a snapshot, so rowById and titlePool stay empty
+        return c;
+    }
+
+    // --- Row deltas -----------------------------------------------------
+
+    // Appends a task, or overwrites it if the id is already stored; returns its row
+    public int add(Task t) {
+        int existing = rowById.get(t.getId());
+        if (existing >= 0) {
+            set(existing, t);
+            return existing;
+        }
+        ensureCapacity(size + 1);
+        int row = size++;
+        ids[row] = t.getId();
+        set(row, t);
+        rowById.put(t.getId(), row);
+        return row;
+    }
+
+    public void set(int row, Task t) {
+        titles[row] = intern(t.getTitle());
+        descriptions[row] = t.getDescription();
+        statuses[row] = codeFor(t.getStatus());
+        versions[row] = t.getVersion();
+    }
+
+    public void setStatus(int row, byte code) {
+        statuses[row] = code;
+    }
+
+    public void setVersion(int row, long version) {
+        versions[row] = version;
+    }
+
+    // Removes by swapping the last row into the hole. Returns the row that was
+    // vacated, or -1 if the id isn't stored; the former last row now lives there.
+    public int remove(int id) {
+        int row = rowById.remove(id);
+        if (row < 0) return -1;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            statuses[row] = statuses[last];
+            titles[row] = titles[last];
+            descriptions[row] = descriptions[last];
+            versions[row] = versions[last];
+            rowById.put(ids[row], row);
+        }
+        titles[last] = null;
+        descriptions[last] = null;
+        return row;
+    }
+
+    // Removes many ids, keeping the remaining rows in their original order
+    public void removeAll(int[] removeIds) {
+        for (int id : removeIds) rowById.remove(id);
+        int kept = 0;
+        for (int r = 0; r < size; r++) {
+            if (rowById.get(ids[r]) < 0) continue;
+            ids[kept] = ids[r];
+            statuses[kept] = statuses[r];
+            titles[kept] = titles[r];
+            descriptions[kept] = descriptions[r];
+            versions[kept] = versions[r];
+            rowById.put(ids[kept], kept);
+            kept++;
+        }
+        Arrays.fill(titles, kept, size, null);
+        Arrays.fill(descriptions, kept, size, null);
+        size = kept;
+    }
+
+    // --- Column access --------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public int rowOf(int id) {
+        return rowById.get(id);
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public String title(int row) {
+        return titles[row];
+    }
+
+    public String description(int row) {
+        return descriptions[row];
+    }
+
+    public long version(int row) {
+        return versions[row];
+    }
+
+    public byte statusCode(int row) {
+        return statuses[row];
+    }
+
+    public String statusLabel(int row) {
+        return statusLabels.get(statuses[row]);
+    }
+
+    public Task toTask(int row) {
+        return new Task(ids[row], titles[row], descriptions[row], statusLabel(row), versions[row]);
+    }
+
+    // Code for a status label, or -1 if no stored row can have it
+    public int codeOf(String label) {
+        TaskStatus known = TaskStatus.fromLabel(label);
+        if (known != null) return known.code();
+        for (int i = TaskStatus.values().length; i < statusLabels.size(); i++) {
+            if (statusLabels.get(i).equalsIgnoreCase(label)) return i;
+        }
+        return -1;
+    }
+
+    public byte codeFor(String label) {
+        int code = codeOf(label == null ? "" : label);
+        if (code >= 0) return (byte) code;
+        if (statusLabels.size() > Byte.MAX_VALUE) throw new IllegalStateException("Too many distinct statuses");
+        statusLabels.add(label == null ? "" : label);
+        return (byte) (statusLabels.size() - 1);
+    }
+
+    // --- Internals ------------------------------------------------------
+
+    private String intern(String s) {
+        if (s == null) return null;
+        String pooled = titlePool.putIfAbsent(s, s);
+        if (pooled != null) return pooled;
+        // Mostly titles no row uses any more: rebuild from the live rows. Happens after at
+        // least size new titles, so it costs O(1) per edit amortized.
+        if (titlePool.size() > 2 * Math.max(size, INITIAL_CAPACITY)) {
+            rebuildPool();
+            titlePool.put(s, s);
+        }
+        return s;
+    }
+
+    private void rebuildPool() {
+        Map<String, String> live = new HashMap<>(size * 2);
+        for (int r = 0; r < size; r++) {
+            if (titles[r] != null) live.putIfAbsent(titles[r], titles[r]);
+        }
+        titlePool = live;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int cap = Math.max(needed, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, cap);
+        statuses = Arrays.copyOf(statuses, cap);
+        titles = Arrays.copyOf(titles, cap);
+        descriptions = Arrays.copyOf(descriptions, cap);
+        versions = Arrays.copyOf(versions, cap);
+    }
+
+    // Open-addressing int -> int map (linear probing, backward-shift deletion)
+    private static final class IdIndex {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int count;
+
+        IdIndex(int expected) {
+            int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[cap];
+            values = new int[cap];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return values[i];
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        int remove(int key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return -1;
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            count--;
+            // Shift later entries of the probe chain back into the gap
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = mix(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            return removed;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package search;
+
+import model.TaskStore;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+// Search box + status button filtering over a snapshot of the loaded rows.
+// Pure computation so it can run off the EDT; the caller publishes the result.
+public final class TaskFilter {
+
+    // How often (in rows) the scan checks whether it has been superseded
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private TaskFilter() {
+    }
+
+    public static boolean isActive(String query, String status) {
+        return !query.trim().isEmpty() || !"All".equals(status);
+    }
+
+    // Bit r is set when row r of the store matches. Returns null if the thread was
+    // interrupted (a newer filter request superseded this one).
+    public static BitSet matchRows(TaskStore rows, String query, String status, TrigramIndex index) {
+        int count = rows.size();
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        boolean anyStatus = "All".equals(status);
+        // Status is compared as a byte code, not a string
+        int wantedStatus = anyStatus ? -1 : rows.codeOf(status);
+        if (!anyStatus && wantedStatus < 0) return new BitSet();
+        // Sorted matching ids from the trigram index (null when q is too short to use it)
+        int[] hits = q.isEmpty() || index == null ? null : index.search(q);
+        BitSet matches = new BitSet(count);
+        for (int r = 0; r < count; r++) {
+            if (r % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) return null;
+            if (!anyStatus && rows.statusCode(r) != wantedStatus) continue;
+            if (!q.isEmpty()) {
+                boolean matchesSearch = hits != null
+                        ? Arrays.binarySearch(hits, rows.id(r)) >= 0
+                        : containsIgnoreCase(rows.title(r), q) || containsIgnoreCase(rows.description(r), q)
+                            || containsIgnoreCase(rows.statusLabel(r), q);
+                if (!matchesSearch) continue;
+            }
+            matches.set(r);
+        }
+        return matches;
+    }
+
+    private static boolean containsIgnoreCase(String s, String lowerQuery) {
+        return s != null && s.toLowerCase(Locale.ROOT).contains(lowerQuery);
+    }
+}
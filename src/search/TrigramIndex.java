@@ -0,0 +1,302 @@
+package search;
+
+import model.Task;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Inverted index from 3-character substrings (trigrams) to task ids, kept up to
+// date task by task. A substring query intersects the postings of its trigrams
+// and then verifies the few candidates against the stored text.
+//
+// Posting lists are sorted int arrays; trigrams are packed into a long key. The text
+// is kept in dense slots (id -> slot through a primitive hash map), so sparse or
+// very large ids cost nothing extra; freed slots are reused.
+public class TrigramIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Separates fields so a trigram never spans two of them
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // Normalized text by slot
+    private String[] docs = new String[INITIAL_SLOTS];
+    private SlotIndex slotOf = new SlotIndex(INITIAL_SLOTS);
+    private int slotCount;          // slots ever used (high-water mark)
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int docCount;
+
+    // --- Maintenance ----------------------------------------------------
+
+    public synchronized void clear() {
+        postings.clear();
+        docs = new String[INITIAL_SLOTS];
+        slotOf = new SlotIndex(INITIAL_SLOTS);
+        slotCount = 0;
+        freeCount = 0;
+        docCount = 0;
+    }
+
+    public synchronized void rebuild(Iterable<Task> tasks) {
+        clear();
+        for (Task t : tasks) put(t);
+    }
+
+    // Adds a task or re-indexes it; only trigrams that actually changed are touched
+    public synchronized void put(Task t) {
+        String text = normalize(t);
+        int id = t.getId();
+        if (id < 0) return;
+        int slot = slotOf.get(id);
+        String old = slot < 0 ? null : docs[slot];
+        if (slot < 0) {
+            slot = allocateSlot();
+            slotOf.put(id, slot);
+            docCount++;
+        }
+        docs[slot] = text;
+        if (old != null) {
+            if (old.equals(text)) return;
+            long[] before = trigrams(old);
+            long[] after = trigrams(text);
+            for (long g : before) {
+                if (Arrays.binarySearch(after, g) < 0) removePosting(g, t.getId());
+            }
+            for (long g : after) {
+                if (Arrays.binarySearch(before, g) < 0) addPosting(g, t.getId());
+            }
+        } else {
+            for (long g : trigrams(text)) addPosting(g, t.getId());
+        }
+    }
+
+    public synchronized void remove(int id) {
+        if (id < 0) return;
+        int slot = slotOf.remove(id);
+        if (slot < 0) return;
+        String old = docs[slot];
+        docs[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+        docCount--;
+        for (long g : trigrams(old)) removePosting(g, id);
+    }
+
+    public synchronized int size() {
+        return docCount;
+    }
+
+    // --- Query ----------------------------------------------------------
+
+    // Sorted ids of tasks whose title, description or status contains query (case-insensitive).
+    // Returns null if the query is too short to use the index.
+    public synchronized int[] search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        if (q.length() < MIN_QUERY_LENGTH) return null;
+        long[] grams = trigrams(q);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) return new int[0];
+        }
+        // Intersect smallest first so the candidate set shrinks fastest
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int n = candidates.length;
+        for (int i = 1; i < lists.length && n > 0; i++) {
+            n = intersect(candidates, n, lists[i]);
+        }
+        // Trigram hits are necessary but not sufficient: verify the substring
+        int matched = 0;
+        for (int i = 0; i < n; i++) {
+            int id = candidates[i];
+            if (q.length() == MIN_QUERY_LENGTH || docs[slotOf.get(id)].contains(q)) candidates[matched++] = id;
+        }
+        return Arrays.copyOf(candidates, matched);
+    }
+
+    // Keeps candidates[0..n) that also occur in list; returns the new count
+    private static int intersect(int[] candidates, int n, Postings list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < n; i++) {
+            int pos = Arrays.binarySearch(list.ids, from, list.size, candidates[i]);
+            if (pos >= 0) {
+                candidates[kept++] = candidates[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= list.size) break;
+        }
+        return kept;
+    }
+
+    // --- Internals ------------------------------------------------------
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotCount == docs.length) docs = Arrays.copyOf(docs, slotCount * 2);
+        return slotCount++;
+    }
+
+    private static String normalize(Task t) {
+        return (nz(t.getTitle()) + FIELD_SEPARATOR + nz(t.getDescription()) + FIELD_SEPARATOR + nz(t.getStatus()))
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+
+    // Distinct trigrams of s, sorted
+    private static long[] trigrams(String s) {
+        int n = s.length() - 2;
+        if (n <= 0) return new long[0];
+        long[] out = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char a = s.charAt(i), b = s.charAt(i + 1), c = s.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) continue;
+            out[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(out, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) out[distinct++] = out[i];
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    private void addPosting(long gram, int id) {
+        postings.computeIfAbsent(gram, k -> new Postings()).add(id);
+    }
+
+    private void removePosting(long gram, int id) {
+        Postings p = postings.get(gram);
+        if (p == null) return;
+        p.remove(id);
+        if (p.size == 0) postings.remove(gram);
+    }
+
+    // Sorted, growable int array
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id); // common case: ids grow monotonically
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            int at = -pos - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private void append(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            if (size > 16 && size < ids.length / 4) ids = Arrays.copyOf(ids, ids.length / 2);
+        }
+    }
+
+    // id -> slot, open addressing with backward-shift deletion
+    private static final class SlotIndex {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int count;
+
+        SlotIndex(int expected) {
+            int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new int[cap];
+            values = new int[cap];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return values[i];
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        // The removed key's slot, or -1 if absent
+        int remove(int key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return -1;
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            count--;
+            // Shift later entries of the probe chain back into the gap
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = mix(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            return removed;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package service;
+
+import model.Task;
+import java.util.List;
+
+// Outcome of a version-checked save (TaskService.saveTask / updateStatus):
+//  - saved: tasks as written, with their new versions (may include other clients'
+//    changes merged in); in write-behind mode, the queued values
+//  - conflicts: tasks another client changed in the same fields; nothing was written
+//  - deletedIds: tasks another client deleted
+//  - failed: the store could not be reached; nothing is known to be written
+public final class SaveResult {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<Task> saved;
+    private final List<TaskMerge> conflicts;
+    private final int[] deletedIds;
+    private final boolean failed;
+
+    SaveResult(List<Task> saved, List<TaskMerge> conflicts, int[] deletedIds, boolean failed) {
+        this.saved = saved;
+        this.conflicts = conflicts;
+        this.deletedIds = deletedIds;
+        this.failed = failed;
+    }
+
+    static SaveResult saved(List<Task> saved) {
+        return new SaveResult(saved, List.of(), NONE, false);
+    }
+
+    static SaveResult failed() {
+        return new SaveResult(List.of(), List.of(), NONE, true);
+    }
+
+    public List<Task> getSaved() {
+        return saved;
+    }
+
+    public List<TaskMerge> getConflicts() {
+        return conflicts;
+    }
+
+    public int[] getDeletedIds() {
+        return deletedIds;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    // Everything asked for was written
+    public boolean isComplete() {
+        return !failed && conflicts.isEmpty() && deletedIds.length == 0;
+    }
+}
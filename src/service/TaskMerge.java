@@ -0,0 +1,85 @@
+package service;
+
+import model.Task;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// Three-way merge of one task, per field: base is what the client read, mine what it
+// wants to write, theirs what the row holds now. A field changed on one side only
+// takes that side's value; a field both sides changed to different values is a
+// conflict, settled by merged(mineWins).
+public final class TaskMerge {
+
+    private final Task base;
+    private final Task mine;
+    private final Task theirs;
+    private final List<String> conflicts;
+
+    private TaskMerge(Task base, Task mine, Task theirs, List<String> conflicts) {
+        this.base = base;
+        this.mine = mine;
+        this.theirs = theirs;
+        this.conflicts = conflicts;
+    }
+
+    public static TaskMerge of(Task base, Task mine, Task theirs) {
+        List<String> conflicts = new ArrayList<>(3);
+        if (conflicts(base.getTitle(), mine.getTitle(), theirs.getTitle())) conflicts.add("title");
+        if (conflicts(base.getDescription(), mine.getDescription(), theirs.getDescription())) conflicts.add("description");
+        if (conflicts(base.getStatus(), mine.getStatus(), theirs.getStatus())) conflicts.add("status");
+        return new TaskMerge(base, mine, theirs, Collections.unmodifiableList(conflicts));
+    }
+
+    private static boolean conflicts(String base, String mine, String theirs) {
+        return !Objects.equals(mine, base) && !Objects.equals(theirs, base) && !Objects.equals(mine, theirs);
+    }
+
+    private static String pick(String base, String mine, String theirs, boolean mineWins) {
+        if (Objects.equals(mine, base)) return theirs;
+        if (Objects.equals(theirs, base)) return mine;
+        return mineWins ? mine : theirs;
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    // Names of the fields both sides changed ("title", "description", "status")
+    public List<String> getConflicts() {
+        return conflicts;
+    }
+
+    // The merged task, at theirs' version (what a checked write of it must match)
+    public Task merged(boolean mineWins) {
+        return new Task(theirs.getId(),
+                pick(base.getTitle(), mine.getTitle(), theirs.getTitle(), mineWins),
+                pick(base.getDescription(), mine.getDescription(), theirs.getDescription(), mineWins),
+                pick(base.getStatus(), mine.getStatus(), theirs.getStatus(), mineWins),
+                theirs.getVersion());
+    }
+
+    // True if the merge result is exactly what the row already holds
+    public boolean isNoOp(boolean mineWins) {
+        return sameContent(merged(mineWins), theirs);
+    }
+
+    static boolean sameContent(Task a, Task b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getStatus(), b.getStatus());
+    }
+
+    public Task getBase() {
+        return base;
+    }
+
+    public Task getMine() {
+        return mine;
+    }
+
+    public Task getTheirs() {
+        return theirs;
+    }
+}
@@ -0,0 +1,309 @@
+package service;
+
+import dao.TaskDAO;
+import dao.TaskMutation;
+import dao.TaskRepository;
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Async front for TaskDAO: every call runs on a virtual thread and returns a
+// CompletableFuture. Callers decide where results land (e.g. the Swing EDT).
+//  - Mutations run one after another in submission order.
+//  - Reads wait for earlier mutations, and a newer read with the same key
+//    cancels the older one (its result is never delivered).
+//  - With a WriteBehindQueue, edits/completes/deletes are queued and acknowledged
+//    at once; reads flush the queue first so they always see those changes.
+//  - Edits are version-checked against the task as the caller read it; when another
+//    client got there first, non-overlapping changes are merged and retried (see
+//    TaskMerge) and only true conflicts come back to the caller.
+public class TaskService {
+
+    // Checked writes per save before giving up on a row that keeps changing
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+    private final WriteBehindQueue writeBehind;
+    private CompletableFuture<?> mutationTail = CompletableFuture.completedFuture(null);
+
+    public TaskService() {
+        this(null);
+    }
+
+    // writeBehind may be null for write-through (every mutation is its own statement)
+    public TaskService(WriteBehindQueue writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public WriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    // --- Reads ----------------------------------------------------------
+
+    // Every task, tagged with the change version read just before the load (-1 when
+    // the database has no change tracking); null result on failure
+    public CompletableFuture<TaskChanges> loadAll() {
+        return submitLatest("loadAll", () -> {
+            long version = TaskDAO.getCurrentVersion();
+            List<Task> tasks = TaskDAO.getAllTasks();
+            if (tasks == null) return null;
+            // Changes queued while the query ran are layered on top
+            return new TaskChanges(overlay(tasks), new int[0], version);
+        });
+    }
+
+    // Only what changed after version; null result when it can't be determined, tooOld()
+    // when the store has pruned deletes the caller hasn't seen
+    public CompletableFuture<TaskChanges> changesSince(long version) {
+        return submitLatest("changesSince", () -> {
+            TaskChanges changes = TaskDAO.getChangesSince(version);
+            if (changes == null || changes.isTooOld() || writeBehind == null) return changes;
+            return new TaskChanges(overlay(changes.getUpserts()), changes.getDeletedIds(), changes.getVersion());
+        });
+    }
+
+    public CompletableFuture<Integer> countTasks() {
+        return submitRead(TaskDAO::countTasks);
+    }
+
+    public CompletableFuture<Map<String, Integer>> countByStatus() {
+        return submitLatest("countByStatus", TaskDAO::countByStatus);
+    }
+
+    // Null result on failure
+    public CompletableFuture<Task[]> pageAnchors(int pageSize, TaskOrder order) {
+        return submitLatest("pageAnchors", () -> TaskDAO.getPageAnchors(pageSize, order));
+    }
+
+    // Current state of the given tasks (ids not returned no longer exist), e.g. to refetch
+    // rows another client changed; null result on failure
+    public CompletableFuture<List<Task>> tasksById(int[] ids) {
+        return submitRead(() -> {
+            List<Task> tasks = TaskDAO.getTasks(ids);
+            return tasks == null ? null : overlay(tasks);
+        });
+    }
+
+    // Keyset page in order, after the given task (null = first page); null result on failure
+    public CompletableFuture<List<Task>> page(TaskOrder order, Task after, int limit) {
+        return submitRead(() -> TaskDAO.getPage(order, after, limit));
+    }
+
+    // Server-side search; a newer search cancels the previous one. Null result on failure
+    public CompletableFuture<List<Task>> search(String query, String status, int limit) {
+        return submitLatest("search", () -> TaskDAO.search(query, status, limit));
+    }
+
+    private List<Task> overlay(List<Task> tasks) {
+        return writeBehind == null ? tasks : writeBehind.overlay(tasks);
+    }
+
+    // --- Mutations ------------------------------------------------------
+
+    public CompletableFuture<Integer> addTask(Task task) {
+        return submitOrdered(() -> TaskDAO.addTask(task));
+    }
+
+    // Writes edited over base (the task as it was read). In write-behind mode the edit is
+    // queued and conflicts are settled when it is flushed (see WriteBehindQueue).
+    public CompletableFuture<SaveResult> saveTask(Task base, Task edited) {
+        if (writeBehind != null) {
+            writeBehind.update(base, edited);
+            return CompletableFuture.completedFuture(SaveResult.saved(List.of(edited)));
+        }
+        return submitOrdered(() -> save(base, edited));
+    }
+
+    public CompletableFuture<Integer> deleteTasks(int[] ids) {
+        if (writeBehind != null) {
+            writeBehind.delete(ids);
+            return CompletableFuture.completedFuture(ids.length);
+        }
+        return submitOrdered(() -> TaskDAO.deleteTasks(ids));
+    }
+
+    // Sets status on the given tasks (as they were read), in one checked batch
+    public CompletableFuture<SaveResult> updateStatus(List<Task> seen, String status) {
+        if (writeBehind != null) {
+            writeBehind.updateStatus(seen, status);
+            List<Task> queued = new ArrayList<>(seen.size());
+            for (Task t : seen) queued.add(new Task(t.getId(), t.getTitle(), t.getDescription(), status, t.getVersion()));
+            return CompletableFuture.completedFuture(SaveResult.saved(queued));
+        }
+        return submitOrdered(() -> saveStatus(seen, status));
+    }
+
+    // --- Optimistic writes ----------------------------------------------
+
+    private static SaveResult save(Task base, Task edited) {
+        Task from = base;
+        Task attempt = new Task(edited.getId(), edited.getTitle(), edited.getDescription(), edited.getStatus(),
+                base.getVersion());
+        for (int i = 0; i < MAX_SAVE_ATTEMPTS; i++) {
+            long version = TaskDAO.updateTaskChecked(attempt);
+            if (version >= 0) {
+                attempt.setVersion(version);
+                return SaveResult.saved(List.of(attempt));
+            }
+            if (version != TaskRepository.VERSION_CONFLICT) return SaveResult.failed();
+            Task current = TaskDAO.getTask(edited.getId());
+            if (current == null) return new SaveResult(List.of(), List.of(), new int[] { edited.getId() }, false);
+            TaskMerge merge = TaskMerge.of(from, attempt, current);
+            if (merge.hasConflicts()) return new SaveResult(List.of(), List.of(merge), new int[0], false);
+            if (merge.isNoOp(true)) return SaveResult.saved(List.of(current));
+            // Their changes plus ours, checked against the row as it is now
+            from = current;
+            attempt = merge.merged(true);
+        }
+        return SaveResult.failed();
+    }
+
+    private static SaveResult saveStatus(List<Task> seen, String status) {
+        List<Task> saved = new ArrayList<>(seen.size());
+        List<TaskMerge> conflicts = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        Map<Integer, Task> seenById = new HashMap<>();
+        List<TaskMutation> batch = new ArrayList<>(seen.size());
+        for (Task t : seen) {
+            seenById.put(t.getId(), t);
+            batch.add(TaskMutation.status(t, status));
+        }
+        for (int attempt = 0; !batch.isEmpty(); attempt++) {
+            Map<Integer, Long> versions;
+            try {
+                versions = TaskDAO.applyMutations(batch);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return SaveResult.failed();
+            }
+            List<TaskMutation> retry = new ArrayList<>();
+            for (TaskMutation m : batch) {
+                Long version = versions.get(m.getId());
+                Task mine = m.applyTo(m.getBase() != null ? m.getBase() : seenById.get(m.getId()));
+                if (version == null) {
+                    deleted.add(m.getId());
+                } else if (version != TaskRepository.VERSION_CONFLICT) {
+                    mine.setVersion(version);
+                    saved.add(mine);
+                } else {
+                    Task current = TaskDAO.getTask(m.getId());
+                    if (current == null) {
+                        deleted.add(m.getId());
+                        continue;
+                    }
+                    TaskMerge merge = TaskMerge.of(m.getBase(), mine, current);
+                    if (merge.hasConflicts() || attempt + 1 >= MAX_SAVE_ATTEMPTS) conflicts.add(merge);
+                    else if (merge.isNoOp(true)) saved.add(current);
+                    else retry.add(TaskMutation.status(current, status));
+                }
+            }
+            batch = retry;
+        }
+        return new SaveResult(saved, conflicts, deleted.stream().mapToInt(Integer::intValue).toArray(), false);
+    }
+
+    // --- Scheduling -----------------------------------------------------
+
+    // Runs work after all previously submitted mutations, in order
+    public synchronized <T> CompletableFuture<T> submitOrdered(Supplier<T> work) {
+        CompletableFuture<T> cf = runAfter(mutationTail, work);
+        mutationTail = cf;
+        return cf;
+    }
+
+    // Runs work once pending mutations are done; cancels the previous call with the same key
+    public <T> CompletableFuture<T> submitLatest(String key, Supplier<T> work) {
+        CompletableFuture<?> barrier;
+        synchronized (this) {
+            barrier = mutationTail;
+        }
+        return latest(key, runAfter(barrier, readYourWrites(work)));
+    }
+
+    private <T> CompletableFuture<T> latest(String key, CompletableFuture<T> cf) {
+        CompletableFuture<?> previous = latestByKey.put(key, cf);
+        if (previous != null) previous.cancel(true);
+        cf.whenComplete((r, t) -> latestByKey.remove(key, cf));
+        return cf;
+    }
+
+    // CPU-only work that doesn't touch the database: starts right away, and a newer
+    // call with the same key cancels (interrupts) the previous one
+    public <T> CompletableFuture<T> computeLatest(String key, Supplier<T> work) {
+        return latest(key, submit(work));
+    }
+
+    // Runs work once pending mutations are done (never superseded)
+    public <T> CompletableFuture<T> submitRead(Supplier<T> work) {
+        CompletableFuture<?> barrier;
+        synchronized (this) {
+            barrier = mutationTail;
+        }
+        return runAfter(barrier, readYourWrites(work));
+    }
+
+    // In write-behind mode a read first commits whatever is queued
+    private <T> Supplier<T> readYourWrites(Supplier<T> work) {
+        if (writeBehind == null) return work;
+        return () -> {
+            try {
+                writeBehind.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                e.printStackTrace(); // read anyway; overlay() still shows the queued changes
+            }
+            return work.get();
+        };
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return runAfter(CompletableFuture.completedFuture(null), work);
+    }
+
+    // Starts work on a fresh virtual thread once barrier settles (success or not).
+    // Cancelling the returned future skips work that hasn't started and interrupts work that has.
+    private <T> CompletableFuture<T> runAfter(CompletableFuture<?> barrier, Supplier<T> work) {
+        CompletableFuture<T> cf = new CompletableFuture<>();
+        barrier.whenComplete((ignored, error) -> {
+            if (cf.isDone()) return;
+            Future<?> running = executor.submit(() -> {
+                if (cf.isDone()) return;
+                try {
+                    cf.complete(work.get());
+                } catch (Throwable t) {
+                    cf.completeExceptionally(t);
+                }
+            });
+            cf.whenComplete((r, t) -> {
+                if (cf.isCancelled()) running.cancel(true);
+            });
+        });
+        return cf;
+    }
+
+    // Writes out any queued changes, then stops accepting work
+    public void shutdown() {
+        if (writeBehind != null) {
+            try {
+                writeBehind.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,405 @@
+package service;
+
+import dao.TaskDAO;
+import dao.TaskMutation;
+import dao.TaskRepository;
+import model.Task;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind buffer in front of TaskDAO. Mutations are queued per task id and
+// coalesced (edit + complete + complete = one UPDATE), then written in group
+// commits once maxBatch tasks are pending or the oldest change is maxDelayMs old.
+// Every enqueue gets a sequence number; getDurableSeq() says how far the database
+// has caught up, and awaitDurable() blocks until a given change is committed.
+// Edits made from a task as read are version-checked at flush time. Another client's
+// change to other fields is merged in and the edit is retried; when both changed the
+// same field the other client's value is kept, the edit is dropped for that field and
+// logged, and getConflictCount() goes up (the user was already told "saved").
+// A batch the store rejects is retried one task at a time; a mutation that still fails
+// on its own (bad data rather than a store that is down) is dropped, logged and counted
+// in getDroppedCount(), so one bad row can't hold back every other change.
+public class WriteBehindQueue {
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+    // Tasks whose last flushed version is remembered (see rebase)
+    private static final int MAX_WRITTEN = 10_000;
+
+    private final int maxBatch;
+    private final long maxDelayMs;
+    private final Thread flusher;
+
+    // Insertion-ordered, one coalesced mutation per task id
+    private final LinkedHashMap<Integer, TaskMutation> pending = new LinkedHashMap<>();
+    private long oldestPendingAt;
+    private long enqueuedSeq;
+    private long durableSeq;
+    private boolean flushing;
+    private boolean closed;
+    private long retryDelayMs;
+    private long conflictCount;
+    private long droppedCount;
+    private Runnable listener = () -> { };
+    // id -> { version our last flush overwrote, version it produced }
+    private final Map<Integer, long[]> written = new LinkedHashMap<Integer, long[]>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, long[]> eldest) {
+            return size() > MAX_WRITTEN;
+        }
+    };
+
+    public WriteBehindQueue(int maxBatch, long maxDelayMs) {
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayMs = Math.max(1, maxDelayMs);
+        flusher = new Thread(this::flushLoop, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Called (on the flusher or caller thread) whenever the pending count changes
+    public synchronized void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    // --- Enqueue --------------------------------------------------------
+
+    // Unchecked: overwrites whatever the row holds when flushed
+    public long update(Task task) {
+        return enqueue(TaskMutation.update(copy(task)));
+    }
+
+    // Checked against base, the task as the caller read it
+    public long update(Task base, Task edited) {
+        Task b = rebase(base);
+        return enqueue(TaskMutation.update(b, copy(edited, b.getVersion())));
+    }
+
+    public long updateStatus(int[] ids, String status) {
+        long seq = 0;
+        for (int id : ids) seq = enqueue(TaskMutation.status(id, status));
+        return seq;
+    }
+
+    public long updateStatus(List<Task> seen, String status) {
+        long seq = 0;
+        for (Task t : seen) seq = enqueue(TaskMutation.status(rebase(t), status));
+        return seq;
+    }
+
+    // The caller's rows keep the version they were loaded with, while our own flushes
+    // move the database on; a base one of our flushes overwrote is really that flush's
+    // result (same content, as the caller applied it optimistically), so check against that
+    private synchronized Task rebase(Task base) {
+        long[] w = written.get(base.getId());
+        if (w == null || base.getVersion() != w[0]) return base;
+        return copy(base, w[1]);
+    }
+
+    public long delete(int[] ids) {
+        long seq = 0;
+        for (int id : ids) seq = enqueue(TaskMutation.delete(id));
+        return seq;
+    }
+
+    private long enqueue(TaskMutation m) {
+        long seq;
+        Runnable l;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Write-behind queue is closed");
+            boolean wasEmpty = pending.isEmpty();
+            if (wasEmpty) oldestPendingAt = System.currentTimeMillis();
+            TaskMutation prev = pending.get(m.getId());
+            pending.put(m.getId(), prev == null ? m : prev.then(m));
+            seq = ++enqueuedSeq;
+            // Wake the flusher to start its delay timer, or to flush a full batch now
+            if (wasEmpty || pending.size() >= maxBatch) notifyAll();
+            l = listener;
+        }
+        l.run();
+        return seq;
+    }
+
+    // --- Optimistic view ------------------------------------------------
+
+    // Applies still-pending changes to freshly read tasks, so a reload doesn't
+    // briefly show values the user has already changed
+    public List<Task> overlay(List<Task> fromDatabase) {
+        Map<Integer, TaskMutation> snapshot;
+        synchronized (this) {
+            if (pending.isEmpty()) return fromDatabase;
+            snapshot = new LinkedHashMap<>(pending);
+        }
+        List<Task> out = new ArrayList<>(fromDatabase.size());
+        for (Task t : fromDatabase) {
+            TaskMutation m = snapshot.get(t.getId());
+            if (m == null) {
+                out.add(t);
+            } else if (m.getKind() == TaskMutation.Kind.UPDATE) {
+                out.add(copy(m.getTask(), t.getVersion()));
+            } else if (m.getKind() == TaskMutation.Kind.STATUS) {
+                out.add(new Task(t.getId(), t.getTitle(), t.getDescription(), m.getStatus(), t.getVersion()));
+            }
+            // DELETE: drop the row
+        }
+        return out;
+    }
+
+    // --- Durability -----------------------------------------------------
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    // Flushed edits that lost a field to another client's change
+    public synchronized long getConflictCount() {
+        return conflictCount;
+    }
+
+    // Mutations the store rejected even when written alone; they are lost
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public synchronized long getEnqueuedSeq() {
+        return enqueuedSeq;
+    }
+
+    // Highest sequence number known to be committed
+    public synchronized long getDurableSeq() {
+        return durableSeq;
+    }
+
+    public synchronized boolean awaitDurable(long seq, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (durableSeq < seq) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) return false;
+            notifyAll(); // nudge the flusher
+            wait(left);
+        }
+        return true;
+    }
+
+    // Writes everything queued so far before returning (or throws if it can't)
+    public void flush() throws Exception {
+        long target;
+        synchronized (this) {
+            target = enqueuedSeq;
+        }
+        while (true) {
+            synchronized (this) {
+                if (durableSeq >= target) return;
+            }
+            if (!flushOnce()) {
+                synchronized (this) {
+                    // Another thread is mid-flush; wait for it to finish
+                    if (flushing) wait(50);
+                }
+            }
+        }
+    }
+
+    // Flushes what is queued and stops the background flusher
+    public void close() throws Exception {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        flush();
+    }
+
+    // --- Flushing -------------------------------------------------------
+
+    private void flushLoop() {
+        while (true) {
+            try {
+                synchronized (this) {
+                    while (!closed && !due()) {
+                        long wait = pending.isEmpty() ? 0
+                                : Math.max(1, oldestPendingAt + maxDelayMs + retryDelayMs - System.currentTimeMillis());
+                        wait(wait);
+                    }
+                    if (closed) return;
+                }
+                try {
+                    flushOnce();
+                    synchronized (this) {
+                        retryDelayMs = 0;
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    synchronized (this) {
+                        retryDelayMs = Math.min(MAX_RETRY_DELAY_MS, Math.max(500, retryDelayMs * 2));
+                        oldestPendingAt = System.currentTimeMillis();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean due() {
+        if (pending.isEmpty() || flushing) return false;
+        if (retryDelayMs == 0 && pending.size() >= maxBatch) return true;
+        return System.currentTimeMillis() - oldestPendingAt >= maxDelayMs + retryDelayMs;
+    }
+
+    // One group commit of everything currently pending. Returns false if another
+    // flush was already running. If the batch fails it is written one mutation at a
+    // time (see applySeparately); what is still unwritten when the store itself fails
+    // goes back in front of any newer changes (which still win for the same task) and
+    // the error is rethrown. Checked mutations that hit a newer row are merged and go
+    // back in front too.
+    private boolean flushOnce() throws Exception {
+        List<TaskMutation> batch;
+        long batchSeq;
+        synchronized (this) {
+            if (flushing) return false;
+            if (pending.isEmpty()) {
+                durableSeq = enqueuedSeq;
+                notifyAll();
+                return true;
+            }
+            flushing = true;
+            batch = new ArrayList<>(pending.values());
+            batchSeq = enqueuedSeq;
+            pending.clear();
+        }
+        Map<Integer, Long> versions = new HashMap<>();
+        List<TaskMutation> unwritten = new ArrayList<>(batch);
+        List<TaskMutation> retry = new ArrayList<>();
+        boolean ok = false;
+        try {
+            try {
+                versions.putAll(TaskDAO.applyMutations(batch));
+                unwritten.clear();
+            } catch (Exception e) {
+                if (isStoreFailure(e)) throw e;
+                System.err.println("Write-behind: batch of " + batch.size() + " failed (" + e.getMessage()
+                        + "); writing one task at a time");
+                applySeparately(unwritten, versions);
+            }
+            for (TaskMutation m : batch) {
+                Long v = versions.get(m.getId());
+                if (v != null && v == TaskRepository.VERSION_CONFLICT) {
+                    TaskMutation merged = resolve(m);
+                    if (merged != null) retry.add(merged);
+                }
+            }
+            ok = true;
+        } finally {
+            Runnable l;
+            synchronized (this) {
+                flushing = false;
+                remember(batch, versions);
+                if (ok && retry.isEmpty()) durableSeq = Math.max(durableSeq, batchSeq);
+                // Not durable until the merged retries (or what the store refused for now) are written too
+                retry.addAll(0, unwritten);
+                if (!retry.isEmpty()) requeue(retry);
+                notifyAll();
+                l = listener;
+            }
+            l.run();
+        }
+        return true;
+    }
+
+    // Writes the mutations of a failed batch one at a time, removing each from unwritten
+    // once it is settled. One the store rejects on its own is dropped and reported; a
+    // store failure stops here (the rest stays in unwritten) and is rethrown.
+    private void applySeparately(List<TaskMutation> unwritten, Map<Integer, Long> versions) throws Exception {
+        for (Iterator<TaskMutation> it = unwritten.iterator(); it.hasNext(); ) {
+            TaskMutation m = it.next();
+            try {
+                versions.putAll(TaskDAO.applyMutations(List.of(m)));
+            } catch (Exception e) {
+                if (isStoreFailure(e)) throw e;
+                synchronized (this) {
+                    droppedCount++;
+                }
+                System.err.println("Write-behind: task " + m.getId() + " could not be saved and was dropped: " + e);
+            }
+            it.remove();
+        }
+    }
+
+    // The store couldn't be reached, the connection broke or the log file couldn't be
+    // written: nothing is wrong with the data, so it is kept and retried later
+    private static boolean isStoreFailure(Throwable e) {
+        for (; e != null; e = e.getCause()) {
+            if (e instanceof SQLTransientException || e instanceof SQLRecoverableException
+                    || e instanceof SQLNonTransientConnectionException || e instanceof IOException) return true;
+            if (e instanceof SQLException && ((SQLException) e).getSQLState() != null
+                    && ((SQLException) e).getSQLState().startsWith("08")) return true;
+        }
+        return false;
+    }
+
+    // Merges a checked mutation that lost the race with the row as it is now: their
+    // changes are kept, ours go on top where they don't overlap. Null when nothing is left
+    // to write (row deleted, or the merge changes nothing).
+    private TaskMutation resolve(TaskMutation m) {
+        Task current = TaskDAO.getTask(m.getId());
+        if (current == null) {
+            synchronized (this) {
+                conflictCount++;
+            }
+            System.err.println("Write-behind: task " + m.getId() + " was deleted elsewhere; edit dropped");
+            return null;
+        }
+        Task base = m.getBase();
+        TaskMerge merge = TaskMerge.of(base, m.applyTo(base), current);
+        if (merge.hasConflicts()) {
+            synchronized (this) {
+                conflictCount++;
+            }
+            System.err.println("Write-behind: task " + m.getId() + " was changed elsewhere; kept their "
+                    + String.join(", ", merge.getConflicts()));
+        }
+        if (merge.isNoOp(false)) return null;
+        return TaskMutation.update(current, merge.merged(false));
+    }
+
+    private void remember(List<TaskMutation> batch, Map<Integer, Long> versions) {
+        for (TaskMutation m : batch) {
+            Long v = versions.get(m.getId());
+            if (m.getBase() == null || v == null || v < 0) continue;
+            written.put(m.getId(), new long[] { m.getExpectedVersion(), v });
+        }
+    }
+
+    private void requeue(List<TaskMutation> failed) {
+        LinkedHashMap<Integer, TaskMutation> merged = new LinkedHashMap<>();
+        for (TaskMutation m : failed) merged.put(m.getId(), m);
+        for (Iterator<TaskMutation> it = pending.values().iterator(); it.hasNext(); ) {
+            TaskMutation newer = it.next();
+            TaskMutation older = merged.get(newer.getId());
+            merged.put(newer.getId(), older == null ? newer : older.then(newer));
+        }
+        pending.clear();
+        pending.putAll(merged);
+        if (!pending.isEmpty()) oldestPendingAt = System.currentTimeMillis();
+    }
+
+    private static Task copy(Task t) {
+        return new Task(t.getId(), t.getTitle(), t.getDescription(), t.getStatus());
+    }
+
+    private static Task copy(Task t, long version) {
+        return new Task(t.getId(), t.getTitle(), t.getDescription(), t.getStatus(), version);
+    }
+}
@@ -0,0 +1,414 @@
+package store;
+
+import model.Task;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// The on-disk side of LogTaskRepository: an append-only file of checksummed frames.
+//
+//   file  = header frame*
+//   header = int MAGIC, int FORMAT
+//   frame = int payloadLength, int crc32c(payload), payload
+//   payload = op*   (a frame is written, and survives a crash, as a whole)
+//   op    = int opLength, byte type, int id, long version, [PUT: str title, str description, str status]
+//   str   = int byteLength (-1 = null), UTF-8 bytes
+//
+// Op offsets (absolute file positions) are what the in-memory index points at.
+//
+// Each process appends at its own idea of the file size, so only one may have the log
+// open: an exclusive lock on <log>.lock is held from open to close. The lock file, not
+// the log, is locked because compaction replaces the log file.
+final class LogFile implements Closeable {
+
+    static final int MAGIC = 0x54444C47; // "TDLG"
+    static final int FORMAT = 1;
+    static final int HEADER_BYTES = 8;
+    static final int FRAME_HEADER_BYTES = 8;
+    static final int OP_HEADER_BYTES = 17;
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    // Scans read the file this much at a time (more for a bigger frame). These are plain
+    // reads into the heap, not mappings: a mapping outlives its channel until it is
+    // garbage collected, and Windows refuses to replace a mapped file, which compaction does.
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+    // Frames written by compaction
+    private static final int COMPACT_FRAME_BYTES = 1 << 20;
+
+    // Called for each frame's payload; ops start at payload.position() 0
+    interface FrameVisitor {
+        void frame(long payloadStart, ByteBuffer payload) throws IOException;
+    }
+
+    // Receives the surviving ops during compaction; returns each op's new offset
+    interface OpSink {
+        long copy(ByteBuffer src, int pos, int length) throws IOException;
+    }
+
+    interface Rewrite {
+        void run(OpSink sink) throws IOException;
+    }
+
+    private final Path path;
+    private final FileLock ownerLock;
+    private FileChannel channel;
+    private long size;
+
+    private LogFile(Path path, FileLock ownerLock, FileChannel channel, long size) {
+        this.path = path;
+        this.ownerLock = ownerLock;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    // Opens (or creates) the log and replays every intact frame through replay. A torn
+    // or corrupt tail, left by a crash mid-append, is cut off.
+    // Throws StoreLockedException while another process (or another open here) holds it.
+    static LogFile open(Path path, FrameVisitor replay) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        FileLock owner = lockOwner(path);
+        FileChannel ch = null;
+        try {
+            Files.deleteIfExists(compactPath(path)); // leftover from an interrupted compaction
+            ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long fileSize = ch.size();
+            if (fileSize < HEADER_BYTES) {
+                ch.truncate(0);
+                writeFully(ch, header(), 0);
+                return new LogFile(path, owner, ch, HEADER_BYTES);
+            }
+            ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(ch, head, 0);
+            if (head.getInt(0) != MAGIC || head.getInt(4) != FORMAT) {
+                throw new IOException("Not a task log (or unsupported format): " + path);
+            }
+            LogFile log = new LogFile(path, owner, ch, fileSize);
+            long end = log.scan(HEADER_BYTES, true, replay);
+            if (end < fileSize) {
+                System.err.println("Task log " + path + ": dropping " + (fileSize - end) + " bytes of incomplete writes");
+                ch.truncate(end);
+                log.size = end;
+            }
+            return log;
+        } catch (IOException | RuntimeException e) {
+            if (ch != null) ch.close();
+            owner.channel().close();
+            throw e;
+        }
+    }
+
+    private static FileLock lockOwner(Path path) throws IOException {
+        Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        FileChannel ch = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = ch.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // already open in this JVM
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+        if (lock == null) {
+            ch.close();
+            throw new StoreLockedException("Task store " + path + " is in use by another process");
+        }
+        return lock;
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Appends one frame; returns the absolute offset of the payload's first byte.
+    // A failed write is truncated away so the log stays well-formed.
+    long append(ByteBuffer payload, boolean force) throws IOException {
+        int length = payload.remaining();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + length);
+        frame.putInt(length).putInt(crc(payload)).put(payload.duplicate()).flip();
+        long start = size;
+        try {
+            writeFully(channel, frame, start);
+            if (force) channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException ignored) {
+                // the next open drops the torn frame anyway
+            }
+            throw e;
+        }
+        size = start + frame.capacity();
+        return start + FRAME_HEADER_BYTES;
+    }
+
+    // Reads the op at an absolute offset into a buffer positioned at 0
+    ByteBuffer readOp(long offset) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        int got = channel.read(buf, offset);
+        if (got < 4) throw new IOException("Short read at " + offset);
+        int length = buf.getInt(0);
+        if (length > got) {
+            buf = ByteBuffer.allocate(length);
+            readFully(channel, buf, offset);
+        }
+        return buf;
+    }
+
+    // Visits every frame in file order; a payload is only valid during its visit
+    void scan(FrameVisitor visitor) throws IOException {
+        scan(HEADER_BYTES, false, visitor);
+    }
+
+    // Returns the end of the last intact frame
+    private long scan(long from, boolean verify, FrameVisitor visitor) throws IOException {
+        long pos = from;
+        ScanBuffer window = new ScanBuffer((int) Math.min(SCAN_BUFFER_BYTES, Math.max(size - from, FRAME_HEADER_BYTES)));
+        while (pos + FRAME_HEADER_BYTES <= size) {
+            int rel = window.cover(channel, pos, FRAME_HEADER_BYTES, size);
+            int length = window.buf.getInt(rel);
+            int crc = window.buf.getInt(rel + 4);
+            long end = pos + FRAME_HEADER_BYTES + length;
+            if (length < 0 || end > size) break; // torn
+            rel = window.cover(channel, pos, FRAME_HEADER_BYTES + length, size);
+            ByteBuffer payload = window.buf.slice(rel + FRAME_HEADER_BYTES, length);
+            if (verify && crc(payload) != crc) break; // corrupt
+            visitor.frame(pos + FRAME_HEADER_BYTES, payload);
+            pos = end;
+        }
+        return pos;
+    }
+
+    // The part of the file a scan is in: buf holds the bytes from start on
+    private static final class ScanBuffer {
+        ByteBuffer buf;
+        long start;
+
+        ScanBuffer(int capacity) {
+            buf = ByteBuffer.allocate(capacity).limit(0);
+        }
+
+        // Makes [pos, pos + need) available (need <= fileSize - pos); returns its index in buf
+        int cover(FileChannel ch, long pos, int need, long fileSize) throws IOException {
+            if (pos >= start && pos + need <= start + buf.limit()) return (int) (pos - start);
+            if (need > buf.capacity()) buf = ByteBuffer.allocate(need);
+            buf.clear().limit((int) Math.min(buf.capacity(), fileSize - pos));
+            readFully(ch, buf, pos);
+            buf.flip();
+            start = pos;
+            return 0;
+        }
+    }
+
+    // Compaction: body copies the ops worth keeping into a fresh file, which then
+    // atomically replaces this one. On failure the current file is left as it was.
+    void rewrite(Rewrite body) throws IOException {
+        Path tmp = compactPath(path);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header(), 0);
+            ByteBuffer payload = ByteBuffer.allocate(COMPACT_FRAME_BYTES);
+            long[] outSize = { HEADER_BYTES };
+            body.run((src, pos, length) -> {
+                if (payload.position() > 0 && payload.remaining() < length) flushFrame(out, payload, outSize);
+                ByteBuffer buf = payload;
+                if (length > buf.remaining()) buf = ByteBuffer.allocate(length); // oversized op: own frame
+                long offset = outSize[0] + FRAME_HEADER_BYTES + buf.position();
+                buf.put(buf.position(), src, pos, length).position(buf.position() + length);
+                if (buf != payload) flushFrame(out, buf, outSize);
+                return offset;
+            });
+            if (payload.position() > 0) flushFrame(out, payload, outSize);
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        channel.close();
+        try {
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Reopen whichever file now sits at path
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+        }
+    }
+
+    private static void flushFrame(FileChannel out, ByteBuffer payload, long[] outSize) throws IOException {
+        payload.flip();
+        ByteBuffer head = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        head.putInt(payload.remaining()).putInt(crc(payload)).flip();
+        long pos = outSize[0];
+        writeFully(out, head, pos);
+        writeFully(out, payload, pos + FRAME_HEADER_BYTES);
+        outSize[0] = pos + FRAME_HEADER_BYTES + payload.limit();
+        payload.clear();
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            // Closing the channel releases the lock
+            ownerLock.channel().close();
+        }
+    }
+
+    // --- Ops ------------------------------------------------------------
+
+    // Growable payload for one frame, remembering where each op starts
+    static final class FrameBuilder {
+        private ByteBuffer buf = ByteBuffer.allocate(512);
+        private int[] starts = new int[8];
+        private int ops;
+
+        int put(int id, long version, String title, String description, String status) {
+            byte[] t = utf8(title);
+            byte[] d = utf8(description);
+            byte[] s = utf8(status);
+            int length = OP_HEADER_BYTES + 12 + len(t) + len(d) + len(s);
+            int start = begin(length, PUT, id, version);
+            putString(t);
+            putString(d);
+            putString(s);
+            return start;
+        }
+
+        int delete(int id, long version) {
+            return begin(OP_HEADER_BYTES, DELETE, id, version);
+        }
+
+        private int begin(int length, byte type, int id, long version) {
+            if (buf.remaining() < length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + length));
+                buf.flip();
+                buf = bigger.put(buf);
+            }
+            if (ops == starts.length) starts = Arrays.copyOf(starts, ops * 2);
+            int start = buf.position();
+            starts[ops++] = start;
+            buf.putInt(length).put(type).putInt(id).putLong(version);
+            return start;
+        }
+
+        private void putString(byte[] b) {
+            if (b == null) {
+                buf.putInt(-1);
+            } else {
+                buf.putInt(b.length).put(b);
+            }
+        }
+
+        int size() {
+            return ops;
+        }
+
+        int start(int op) {
+            return starts[op];
+        }
+
+        int length(int op) {
+            return buf.getInt(starts[op]);
+        }
+
+        ByteBuffer payload() {
+            return buf.duplicate().flip();
+        }
+    }
+
+    static int opLength(ByteBuffer b, int pos) {
+        return b.getInt(pos);
+    }
+
+    static byte opType(ByteBuffer b, int pos) {
+        return b.get(pos + 4);
+    }
+
+    static int opId(ByteBuffer b, int pos) {
+        return b.getInt(pos + 5);
+    }
+
+    static long opVersion(ByteBuffer b, int pos) {
+        return b.getLong(pos + 9);
+    }
+
+    static Task decodeTask(ByteBuffer b, int pos) {
+        int p = pos + OP_HEADER_BYTES;
+        String title = string(b, p);
+        p += 4 + Math.max(0, b.getInt(p));
+        String description = string(b, p);
+        p += 4 + Math.max(0, b.getInt(p));
+        return new Task(opId(b, pos), title, description, string(b, p), opVersion(b, pos));
+    }
+
+    // Status of a PUT op without decoding title and description
+    static String decodeStatus(ByteBuffer b, int pos) {
+        int p = pos + OP_HEADER_BYTES;
+        p += 4 + Math.max(0, b.getInt(p));
+        p += 4 + Math.max(0, b.getInt(p));
+        return string(b, p);
+    }
+
+    private static String string(ByteBuffer b, int p) {
+        int n = b.getInt(p);
+        if (n < 0) return null;
+        if (b.hasArray()) return new String(b.array(), b.arrayOffset() + p + 4, n, StandardCharsets.UTF_8);
+        byte[] bytes = new byte[n];
+        b.get(p + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int len(byte[] b) {
+        return b == null ? 0 : b.length;
+    }
+
+    // --- I/O helpers ----------------------------------------------------
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT).flip();
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static Path compactPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos);
+            if (n < 0) throw new IOException("Unexpected end of task log");
+            pos += n;
+        }
+    }
+}
@@ -0,0 +1,790 @@
+package store;
+
+import dao.BatchInsertException;
+import dao.TaskMutation;
+import dao.TaskRepository;
+import dao.TaskRowHandler;
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Embedded TaskRepository for a single process, no server needed. Every change is
+// appended to a LogFile; an in-memory index maps each task id to the offset of its
+// latest record and is rebuilt at open by replaying the log. Once superseded records
+// outweigh live ones the log is compacted.
+//
+// Deletes are kept as tombstones (also through compaction), so getChangesSince()
+// works the same as with MySQL. Unlike MySQL's they are never pruned: a deleted id
+// costs one index slot and one small record, and ids are not reused, so this grows
+// with the number of deletes ever made. That is accepted for a single-user store; it
+// keeps every snapshot, however old, able to catch up by delta. Writes are one frame
+// each, so a batch survives a crash whole or not at all.
+public class LogTaskRepository implements TaskRepository {
+
+    // Logs smaller than this are never compacted
+    private static final long MIN_COMPACT_BYTES = 4L << 20;
+    // streamTasks reads this many tasks per lock hold, so writers aren't blocked for long
+    private static final int STREAM_CHUNK = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path path;
+    private final boolean fsync;
+    private LogFile log;
+
+    // One slot per id ever written; a deleted id keeps its slot as a tombstone (status null)
+    private final SlotIndex slotOf = new SlotIndex();
+    private int[] ids = new int[1024];
+    private long[] offsets = new long[1024];      // latest op (PUT or DELETE) for the id
+    private long[] versions = new long[1024];
+    private int[] lengths = new int[1024];
+    private String[] statuses = new String[1024];
+    private int slots;
+    private final Map<String, String> labels = new HashMap<>();
+
+    private int live;
+    private long liveBytes;
+    private long clock;
+    private int maxId;
+
+    // Live ids in ascending order, possibly still holding deleted ids (skipped on read)
+    private int[] order = new int[0];
+    private int orderCount;
+    private int orderDead;
+    // Last getPage/getPageAnchors sort (see sortedBy)
+    private final SortCache sortCache = new SortCache();
+
+    private LogTaskRepository(Path path, boolean fsync) {
+        this.path = path.toAbsolutePath();
+        this.fsync = fsync;
+    }
+
+    // -Dtodo.store.fsync=true forces every commit to disk
+    public static LogTaskRepository open(Path path) throws IOException {
+        return open(path, Boolean.getBoolean("todo.store.fsync"));
+    }
+
+    // fsync: each commit survives power loss, at the cost of a disk flush per write
+    public static LogTaskRepository open(Path path, boolean fsync) throws IOException {
+        LogTaskRepository repo = new LogTaskRepository(path, fsync);
+        repo.log = LogFile.open(path, repo::replay);
+        repo.rebuildOrder();
+        return repo;
+    }
+
+    // --- Reads ----------------------------------------------------------
+
+    @Override
+    public List<Task> getAllTasks() {
+        lock.readLock().lock();
+        try {
+            List<Task> list = new ArrayList<>(live);
+            boolean[] sorted = { true };
+            forEachLatestOp((slot, payload, pos) -> {
+                if (statuses[slot] == null) return;
+                Task t = LogFile.decodeTask(payload, pos);
+                if (!list.isEmpty() && list.get(list.size() - 1).getId() > t.getId()) sorted[0] = false;
+                list.add(t);
+            });
+            if (!sorted[0]) list.sort(Comparator.comparingInt(Task::getId));
+            return list;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotOf.get(id);
+            return slot >= 0 && statuses[slot] != null ? readTask(slot) : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        lock.readLock().lock();
+        try {
+            List<Task> list = new ArrayList<>(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) continue;
+                int slot = slotOf.get(sorted[i]);
+                if (slot >= 0 && statuses[slot] != null) list.add(readTask(slot));
+            }
+            return list;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countTasks() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        lock.readLock().lock();
+        try {
+            return clock;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskChanges getChangesSince(long version) {
+        lock.readLock().lock();
+        try {
+            List<Task> upserts = new ArrayList<>();
+            int[] deleted = new int[16];
+            int n = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (versions[slot] <= version) continue;
+                if (statuses[slot] != null) {
+                    upserts.add(readTask(slot));
+                } else {
+                    if (n == deleted.length) deleted = Arrays.copyOf(deleted, n * 2);
+                    deleted[n++] = ids[slot];
+                }
+            }
+            upserts.sort(Comparator.comparingInt(Task::getId));
+            return new TaskChanges(upserts, Arrays.copyOf(deleted, n), clock);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int[] getChangedIds(long after, long upTo) {
+        lock.readLock().lock();
+        try {
+            int[] changed = new int[16];
+            int n = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                if (versions[slot] <= after || versions[slot] > upTo) continue;
+                if (n == changed.length) changed = Arrays.copyOf(changed, n * 2);
+                changed[n++] = ids[slot];
+            }
+            return Arrays.copyOf(changed, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long streamTasks(TaskRowHandler handler) {
+        long delivered = 0;
+        int after = 0;
+        try {
+            while (true) {
+                List<Task> chunk = tasksAfter(after, STREAM_CHUNK);
+                if (chunk == null) return -1;
+                for (Task t : chunk) {
+                    delivered++;
+                    if (!handler.row(t.getId(), t.getTitle(), t.getDescription(), t.getStatus())) return delivered;
+                }
+                if (chunk.size() < STREAM_CHUNK) return delivered;
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countByStatus() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int slot = 0; slot < slots; slot++) {
+                if (statuses[slot] != null) counts.merge(statuses[slot], 1, Integer::sum);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to limit live tasks with id > lastId, straight from the id order
+    private List<Task> tasksAfter(int lastId, int limit) {
+        List<Task> list = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            int i = Arrays.binarySearch(order, 0, orderCount, lastId);
+            i = i >= 0 ? i + 1 : -i - 1;
+            for (; i < orderCount && list.size() < limit; i++) {
+                int slot = slotOf.get(order[i]);
+                if (statuses[slot] != null) list.add(readTask(slot));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    // Pages in a key order come from one sorted copy of the live tasks, kept until the
+    // next write (there is no on-disk index by title or status)
+    @Override
+    public List<Task> getPage(TaskOrder order, Task after, int limit) {
+        if (order.getKey() == TaskOrder.Key.ID && !order.isDescending()) {
+            return tasksAfter(after == null ? Integer.MIN_VALUE : after.getId(), limit);
+        }
+        try {
+            Task[] sorted = sortedBy(order);
+            Comparator<Task> cmp = comparator(order);
+            int i = 0;
+            if (after != null) {
+                i = Arrays.binarySearch(sorted, after, cmp);
+                i = i >= 0 ? i + 1 : -i - 1;
+            }
+            return new ArrayList<>(Arrays.asList(sorted).subList(i, Math.min(sorted.length, i + limit)));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public Task[] getPageAnchors(int pageSize, TaskOrder order) {
+        try {
+            Task[] sorted = sortedBy(order);
+            Task[] anchors = new Task[(sorted.length + pageSize - 1) / pageSize];
+            for (int p = 1; p < anchors.length; p++) anchors[p] = sorted[p * pageSize - 1];
+            return anchors;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private Task[] sortedBy(TaskOrder order) throws IOException {
+        lock.readLock().lock();
+        try {
+            synchronized (sortCache) {
+                if (order.equals(sortCache.order) && clock == sortCache.clock) return sortCache.tasks;
+            }
+            List<Task> all = getAllTasks();
+            if (all == null) throw new IOException("Could not read the task log");
+            Task[] sorted = all.toArray(new Task[0]);
+            Arrays.sort(sorted, comparator(order));
+            synchronized (sortCache) {
+                sortCache.order = order;
+                sortCache.clock = clock;
+                sortCache.tasks = sorted;
+            }
+            return sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Key, then id; case-insensitive like the MySQL column collation
+    private static Comparator<Task> comparator(TaskOrder order) {
+        Comparator<Task> byId = Comparator.comparingInt(Task::getId);
+        Comparator<Task> c;
+        switch (order.getKey()) {
+            case TITLE:
+                c = Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+                break;
+            case STATUS:
+                c = Comparator.comparing(Task::getStatus, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+                break;
+            default:
+                c = byId;
+        }
+        return order.isDescending() ? c.reversed() : c;
+    }
+
+    private static final class SortCache {
+        TaskOrder order;
+        long clock;
+        Task[] tasks;
+    }
+
+    // Every query word must occur (case-insensitively) in the title or description.
+    // A sequential scan of the log; statuses are checked from the index first.
+    @Override
+    public List<Task> search(String query, String status, int limit) {
+        String[] words = query == null || query.isBlank() ? new String[0]
+                : query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        boolean anyStatus = status == null || "All".equalsIgnoreCase(status);
+        List<Task> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachLatestOp((slot, payload, pos) -> {
+                String s = statuses[slot];
+                if (s == null || (!anyStatus && !s.equalsIgnoreCase(status))) return;
+                Task t = LogFile.decodeTask(payload, pos);
+                if (matches(t, words)) list.add(t);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+        list.sort(Comparator.comparingInt(Task::getId));
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    private static boolean matches(Task t, String[] words) {
+        for (String w : words) {
+            if (!containsIgnoreCase(t.getTitle(), w) && !containsIgnoreCase(t.getDescription(), w)) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String text, String word) {
+        if (text == null) return false;
+        for (int i = 0, last = text.length() - word.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, word, 0, word.length())) return true;
+        }
+        return false;
+    }
+
+    // --- Writes ---------------------------------------------------------
+
+    @Override
+    public int addTask(Task task) {
+        if (task.getTitle() == null) return -1; // title is NOT NULL
+        lock.writeLock().lock();
+        try {
+            int id = maxId + 1;
+            LogFile.FrameBuilder frame = new LogFile.FrameBuilder();
+            frame.put(id, clock + 1, task.getTitle(), task.getDescription(), statusOrDefault(task.getStatus()));
+            commit(frame);
+            return id;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // One frame (one durable commit) per commitSize rows
+    @Override
+    public int insertBatch(List<Task> tasks, int commitSize) throws SQLException {
+        int step = Math.max(1, commitSize);
+        int committed = 0;
+        for (int from = 0; from < tasks.size(); from += step) {
+            List<Task> group = tasks.subList(from, Math.min(tasks.size(), from + step));
+            lock.writeLock().lock();
+            try {
+                LogFile.FrameBuilder frame = new LogFile.FrameBuilder();
+                int id = maxId;
+                long v = clock;
+                for (Task t : group) {
+                    if (t.getTitle() == null) {
+                        throw new BatchInsertException(committed, "title is required", null);
+                    }
+                    frame.put(++id, ++v, t.getTitle(), t.getDescription(), statusOrDefault(t.getStatus()));
+                }
+                commit(frame);
+                committed += group.size();
+            } catch (IOException e) {
+                throw new BatchInsertException(committed, e.getMessage(), e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return committed;
+    }
+
+    @Override
+    public Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException {
+        Map<Integer, Long> result = new HashMap<>();
+        try {
+            mutate(mutations, result);
+        } catch (IOException e) {
+            throw new SQLException("Task log write failed: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        try {
+            mutate(List.of(TaskMutation.update(task)), null);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public long updateTaskChecked(Task task) {
+        Map<Integer, Long> result = new HashMap<>();
+        try {
+            mutate(List.of(TaskMutation.update(task, task)), result);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        Long v = result.get(task.getId());
+        if (v != null) return v;
+        // Gone: a conflict for a checked write, a no-op for a blind one
+        return task.getVersion() == Task.NO_VERSION ? -1 : VERSION_CONFLICT;
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        deleteTasks(new int[] { id });
+    }
+
+    @Override
+    public int deleteTasks(int[] ids) {
+        if (ids == null || ids.length == 0) return 0;
+        List<TaskMutation> deletes = new ArrayList<>(ids.length);
+        for (int id : ids) deletes.add(TaskMutation.delete(id));
+        try {
+            return mutate(deletes, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int updateStatus(int[] ids, String status) {
+        if (ids == null || ids.length == 0) return 0;
+        List<TaskMutation> changes = new ArrayList<>(ids.length);
+        for (int id : ids) changes.add(TaskMutation.status(id, status));
+        try {
+            return mutate(changes, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // Writes the mutations as one frame; ones aimed at missing tasks are skipped like an
+    // UPDATE/DELETE matching no row, and version-checked ones whose task has moved on are
+    // skipped as conflicts. Fills newVersions (if given) as applyMutations documents and
+    // returns the number of mutations applied.
+    private int mutate(List<TaskMutation> mutations, Map<Integer, Long> newVersions) throws IOException {
+        lock.writeLock().lock();
+        try {
+            LogFile.FrameBuilder frame = new LogFile.FrameBuilder();
+            // Effect of earlier mutations in this frame (null = deleted)
+            Map<Integer, Task> staged = new HashMap<>();
+            long v = clock;
+            int applied = 0;
+            for (TaskMutation m : mutations) {
+                int id = m.getId();
+                boolean exists = staged.containsKey(id) ? staged.get(id) != null : isLive(id);
+                long expected = m.getExpectedVersion();
+                if (expected != Task.NO_VERSION) {
+                    long current = !exists ? Task.NO_VERSION
+                            : staged.containsKey(id) ? staged.get(id).getVersion() : versions[slotOf.get(id)];
+                    if (current != expected) {
+                        if (newVersions != null) newVersions.put(id, VERSION_CONFLICT);
+                        continue;
+                    }
+                }
+                if (!exists) continue;
+                applied++;
+                switch (m.getKind()) {
+                    case UPDATE:
+                        Task t = m.getTask();
+                        frame.put(id, ++v, t.getTitle(), t.getDescription(), statusOrDefault(t.getStatus()));
+                        staged.put(id, new Task(id, t.getTitle(), t.getDescription(), statusOrDefault(t.getStatus()), v));
+                        break;
+                    case STATUS:
+                        Task cur = staged.containsKey(id) ? staged.get(id) : readTask(slotOf.get(id));
+                        frame.put(id, ++v, cur.getTitle(), cur.getDescription(), m.getStatus());
+                        staged.put(id, new Task(id, cur.getTitle(), cur.getDescription(), m.getStatus(), v));
+                        break;
+                    case DELETE:
+                        frame.delete(id, ++v);
+                        staged.put(id, null);
+                        break;
+                }
+            }
+            commit(frame);
+            if (newVersions != null) {
+                for (Map.Entry<Integer, Task> e : staged.entrySet()) {
+                    // A conflict reported for an id stays reported, even if a later blind mutation applied
+                    if (newVersions.get(e.getKey()) != null) continue;
+                    if (e.getValue() != null) newVersions.put(e.getKey(), e.getValue().getVersion());
+                }
+            }
+            return applied;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Appends the frame, then points the index at its ops (write lock held)
+    private void commit(LogFile.FrameBuilder frame) throws IOException {
+        if (frame.size() == 0) return;
+        ByteBuffer payload = frame.payload();
+        long base = log.append(payload, fsync);
+        boolean appendOnly = true;
+        for (int i = 0; i < frame.size(); i++) {
+            int pos = frame.start(i);
+            int id = LogFile.opId(payload, pos);
+            boolean wasLive = isLive(id);
+            apply(payload, pos, base + pos);
+            boolean nowLive = isLive(id);
+            if (!wasLive && nowLive) {
+                if (orderCount > 0 && id <= order[orderCount - 1]) appendOnly = false;
+                if (orderCount == order.length) order = Arrays.copyOf(order, Math.max(1024, orderCount * 2));
+                order[orderCount++] = id;
+            } else if (wasLive && !nowLive) {
+                orderDead++;
+            }
+        }
+        if (!appendOnly || orderDead > 1024 && orderDead * 2 > orderCount) rebuildOrder();
+        maybeCompact();
+    }
+
+    // --- Index ----------------------------------------------------------
+
+    private void replay(long payloadStart, ByteBuffer payload) throws IOException {
+        int pos = 0;
+        while (pos < payload.limit()) {
+            int length = LogFile.opLength(payload, pos);
+            if (length < LogFile.OP_HEADER_BYTES || pos + length > payload.limit()) {
+                throw new IOException("Corrupt op at offset " + (payloadStart + pos));
+            }
+            apply(payload, pos, payloadStart + pos);
+            pos += length;
+        }
+    }
+
+    // Makes the op at pos (stored at the given file offset) the latest record for its id
+    private void apply(ByteBuffer payload, int pos, long offset) {
+        int id = LogFile.opId(payload, pos);
+        long version = LogFile.opVersion(payload, pos);
+        int length = LogFile.opLength(payload, pos);
+        String status = LogFile.opType(payload, pos) == LogFile.PUT ? label(LogFile.decodeStatus(payload, pos)) : null;
+        int slot = slotOf.get(id);
+        if (slot < 0) {
+            slot = newSlot(id);
+        } else {
+            liveBytes -= lengths[slot];
+            if (statuses[slot] != null) live--;
+        }
+        offsets[slot] = offset;
+        versions[slot] = version;
+        lengths[slot] = length;
+        statuses[slot] = status;
+        liveBytes += length;
+        if (status != null) live++;
+        clock = Math.max(clock, version);
+        maxId = Math.max(maxId, id);
+    }
+
+    private int newSlot(int id) {
+        if (slots == ids.length) {
+            int cap = slots * 2;
+            ids = Arrays.copyOf(ids, cap);
+            offsets = Arrays.copyOf(offsets, cap);
+            versions = Arrays.copyOf(versions, cap);
+            lengths = Arrays.copyOf(lengths, cap);
+            statuses = Arrays.copyOf(statuses, cap);
+        }
+        ids[slots] = id;
+        slotOf.put(id, slots);
+        return slots++;
+    }
+
+    private boolean isLive(int id) {
+        int slot = slotOf.get(id);
+        return slot >= 0 && statuses[slot] != null;
+    }
+
+    private void rebuildOrder() {
+        int[] sorted = new int[Math.max(1024, live)];
+        int n = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (statuses[slot] != null) sorted[n++] = ids[slot];
+        }
+        Arrays.sort(sorted, 0, n);
+        order = sorted;
+        orderCount = n;
+        orderDead = 0;
+    }
+
+    private Task readTask(int slot) throws IOException {
+        return LogFile.decodeTask(log.readOp(offsets[slot]), 0);
+    }
+
+    private String label(String status) {
+        return status == null ? null : labels.computeIfAbsent(status, s -> s);
+    }
+
+    private static String statusOrDefault(String status) {
+        return status == null ? "Pending" : status; // column default
+    }
+
+    private interface OpVisitor {
+        void op(int slot, ByteBuffer payload, int pos) throws IOException;
+    }
+
+    // Visits the latest op of every id (PUTs and tombstones) in file order
+    private void forEachLatestOp(OpVisitor visitor) throws IOException {
+        log.scan((payloadStart, payload) -> {
+            int pos = 0;
+            while (pos < payload.limit()) {
+                int length = LogFile.opLength(payload, pos);
+                int slot = slotOf.get(LogFile.opId(payload, pos));
+                if (slot >= 0 && offsets[slot] == payloadStart + pos) visitor.op(slot, payload, pos);
+                pos += length;
+            }
+        });
+    }
+
+    // --- Compaction -----------------------------------------------------
+
+    private void maybeCompact() {
+        long size = log.size();
+        if (size < MIN_COMPACT_BYTES || liveBytes * 2 > size) return;
+        try {
+            compactLocked();
+        } catch (IOException e) {
+            e.printStackTrace(); // keep appending to the current file
+        }
+    }
+
+    // Rewrites the log keeping only the latest record of each id (tombstones included)
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            compactLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        long[] moved = new long[slots];
+        log.rewrite(sink -> forEachLatestOp((slot, payload, pos) ->
+                moved[slot] = sink.copy(payload, pos, LogFile.opLength(payload, pos))));
+        System.arraycopy(moved, 0, offsets, 0, moved.length);
+    }
+
+    @Override
+    public String getStoreId() {
+        return "log:" + path;
+    }
+
+    public long getLogBytes() {
+        lock.readLock().lock();
+        try {
+            return log.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            log.force();
+            log.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // id -> slot, open addressing (slots are never removed)
+    private static final class SlotIndex {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys = new int[2048];
+        private int[] values = new int[2048];
+        private int count;
+
+        SlotIndex() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return values[i];
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
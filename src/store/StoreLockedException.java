@@ -0,0 +1,12 @@
+package store;
+
+import java.io.IOException;
+
+// The local task store is already open in another process (see LogFile)
+@SuppressWarnings("serial")
+public class StoreLockedException extends IOException {
+
+    public StoreLockedException(String message) {
+        super(message);
+    }
+}
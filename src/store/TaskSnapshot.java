@@ -0,0 +1,192 @@
+package store;
+
+import model.Task;
+import model.TaskStore;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// Last-known task list on local disk, so startup can show rows before the store answers.
+//
+//   int MAGIC, int FORMAT, long version, str storeId, int count,
+//   byte labelCount, str label*, (int id, long rowVersion, byte label, str title, str description)*,
+//   int crc32c(everything before)
+//   str = int byteLength (-1 = null), UTF-8 bytes
+//
+// version is the change clock the list is current to (see TaskDAO.getChangesSince) and
+// storeId says which store it came from; both are checked before trusting it.
+public class TaskSnapshot {
+
+    private static final int MAGIC = 0x5444534E; // "TDSN"
+    // 2: per-row versions (older files are ignored and the list is reloaded)
+    private static final int FORMAT = 2;
+
+    private final List<Task> tasks;
+    private final long version;
+    private final String storeId;
+
+    private TaskSnapshot(List<Task> tasks, long version, String storeId) {
+        this.tasks = tasks;
+        this.version = version;
+        this.storeId = storeId;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    // --- Read -----------------------------------------------------------
+
+    // One bulk read into an array, then decoded from it (cheap even before JIT). Not
+    // mapped: the next write replaces this file, which Windows refuses while a mapping
+    // of it is still alive (until GC). Null when there is no usable snapshot (missing,
+    // other format, corrupt).
+    public static TaskSnapshot read(Path path) {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 24 || size > Integer.MAX_VALUE - 8) return null;
+            byte[] b = new byte[(int) size];
+            ByteBuffer buf = ByteBuffer.wrap(b);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, buf.position()) < 0) return null; // truncated meanwhile
+            }
+            int bodyLength = (int) size - 4;
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != FORMAT) return null;
+            CRC32C crc = new CRC32C();
+            crc.update(b, 0, bodyLength);
+            if ((int) crc.getValue() != buf.getInt(bodyLength)) return null;
+
+            Decoder in = new Decoder(b, 8);
+            long version = in.readLong();
+            String storeId = in.readString();
+            int count = in.readInt();
+            String[] labels = new String[b[in.pos++] & 0xFF];
+            for (int i = 0; i < labels.length; i++) labels[i] = in.readString();
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                long rowVersion = in.readLong();
+                String status = labels[b[in.pos++] & 0xFF];
+                String title = in.readString();
+                tasks.add(new Task(id, title, in.readString(), status, rowVersion));
+            }
+            return new TaskSnapshot(tasks, version, storeId);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static final class Decoder {
+        final byte[] b;
+        int pos;
+
+        Decoder(byte[] b, int pos) {
+            this.b = b;
+            this.pos = pos;
+        }
+
+        int readInt() {
+            int v = (b[pos] & 0xFF) << 24 | (b[pos + 1] & 0xFF) << 16 | (b[pos + 2] & 0xFF) << 8 | (b[pos + 3] & 0xFF);
+            pos += 4;
+            return v;
+        }
+
+        long readLong() {
+            return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+        }
+
+        String readString() {
+            int n = readInt();
+            if (n < 0) return null;
+            String s = new String(b, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+    }
+
+    // --- Write ----------------------------------------------------------
+
+    // Writes rows to a temp file and atomically replaces the previous snapshot
+    public static void write(Path path, TaskStore rows, long version, String storeId) throws IOException {
+        // Store codes -> snapshot label numbers, for the labels actually used
+        List<String> labels = new ArrayList<>();
+        int[] labelOf = new int[256];
+        Arrays.fill(labelOf, -1);
+        int n = rows.size();
+        for (int row = 0; row < n; row++) {
+            int code = rows.statusCode(row) & 0xFF;
+            if (labelOf[code] < 0) {
+                labelOf[code] = labels.size();
+                labels.add(rows.statusLabel(row));
+            }
+        }
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        // Unique temp name: an exit-time write may overlap a background one
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            OutputStream raw = Channels.newOutputStream(ch);
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(version);
+            writeString(out, storeId);
+            out.writeInt(n);
+            out.writeByte(labels.size());
+            for (String label : labels) writeString(out, label);
+            for (int row = 0; row < n; row++) {
+                out.writeInt(rows.id(row));
+                out.writeLong(rows.version(row));
+                out.writeByte(labelOf[rows.statusCode(row) & 0xFF]);
+                writeString(out, rows.title(row));
+                writeString(out, rows.description(row));
+            }
+            out.flush();
+            // The checksum itself is not part of the checked bytes
+            int crc = (int) checked.getChecksum().getValue();
+            DataOutputStream tail = new DataOutputStream(raw);
+            tail.writeInt(crc);
+            tail.flush();
+            ch.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,174 @@
+package sync;
+
+import dao.TaskMutation;
+import dao.TaskRepository;
+import dao.TaskRowHandler;
+import model.Task;
+import model.TaskChanges;
+import model.TaskOrder;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Decorator that announces every successful write through a ChangeNotifier, so other
+// clients (including ones started from the CLI) refetch the rows it touched. Reads
+// pass straight through.
+public class AnnouncingTaskRepository implements TaskRepository {
+
+    private final TaskRepository delegate;
+    private final ChangeNotifier notifier;
+
+    public AnnouncingTaskRepository(TaskRepository delegate, ChangeNotifier notifier) {
+        this.delegate = delegate;
+        this.notifier = notifier;
+    }
+
+    public TaskRepository getDelegate() {
+        return delegate;
+    }
+
+    // --- Writes ---------------------------------------------------------
+
+    @Override
+    public int addTask(Task task) {
+        int id = delegate.addTask(task);
+        if (id > 0) notifier.announce(new int[] { id });
+        return id;
+    }
+
+    // Ids aren't returned, so receivers are told to catch up
+    @Override
+    public int insertBatch(List<Task> tasks, int commitSize) throws SQLException {
+        try {
+            return delegate.insertBatch(tasks, commitSize);
+        } finally {
+            // Some groups may have committed even if a later one failed
+            notifier.announce(null);
+        }
+    }
+
+    @Override
+    public Map<Integer, Long> applyMutations(List<TaskMutation> mutations) throws SQLException {
+        Map<Integer, Long> result = delegate.applyMutations(mutations);
+        int[] ids = new int[mutations.size()];
+        int n = 0;
+        for (TaskMutation m : mutations) {
+            Long v = result.get(m.getId());
+            if (v == null || v != VERSION_CONFLICT) ids[n++] = m.getId();
+        }
+        if (n > 0) notifier.announce(n == ids.length ? ids : Arrays.copyOf(ids, n));
+        return result;
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        boolean ok = delegate.updateTask(task);
+        if (ok) notifier.announce(new int[] { task.getId() });
+        return ok;
+    }
+
+    @Override
+    public long updateTaskChecked(Task task) {
+        long v = delegate.updateTaskChecked(task);
+        if (v >= 0) notifier.announce(new int[] { task.getId() });
+        return v;
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        delegate.deleteTask(id);
+        notifier.announce(new int[] { id });
+    }
+
+    @Override
+    public int deleteTasks(int[] ids) {
+        int n = delegate.deleteTasks(ids);
+        if (n > 0) notifier.announce(ids);
+        return n;
+    }
+
+    @Override
+    public int updateStatus(int[] ids, String status) {
+        int n = delegate.updateStatus(ids, status);
+        if (n > 0) notifier.announce(ids);
+        return n;
+    }
+
+    // --- Reads ----------------------------------------------------------
+
+    @Override
+    public List<Task> getAllTasks() {
+        return delegate.getAllTasks();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return delegate.getTask(id);
+    }
+
+    @Override
+    public List<Task> getTasks(int[] ids) {
+        return delegate.getTasks(ids);
+    }
+
+    @Override
+    public int countTasks() {
+        return delegate.countTasks();
+    }
+
+    @Override
+    public long getCurrentVersion() {
+        return delegate.getCurrentVersion();
+    }
+
+    @Override
+    public TaskChanges getChangesSince(long version) {
+        return delegate.getChangesSince(version);
+    }
+
+    @Override
+    public int[] getChangedIds(long after, long upTo) {
+        return delegate.getChangedIds(after, upTo);
+    }
+
+    @Override
+    public long streamTasks(TaskRowHandler handler) {
+        return delegate.streamTasks(handler);
+    }
+
+    @Override
+    public Map<String, Integer> countByStatus() {
+        return delegate.countByStatus();
+    }
+
+    @Override
+    public List<Task> getPage(TaskOrder order, Task after, int limit) {
+        return delegate.getPage(order, after, limit);
+    }
+
+    @Override
+    public Task[] getPageAnchors(int pageSize, TaskOrder order) {
+        return delegate.getPageAnchors(pageSize, order);
+    }
+
+    @Override
+    public List<Task> search(String query, String status, int limit) {
+        return delegate.search(query, status, limit);
+    }
+
+    @Override
+    public String getStoreId() {
+        return delegate.getStoreId();
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
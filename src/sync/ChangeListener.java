@@ -0,0 +1,10 @@
+package sync;
+
+// Receives ids of tasks another client inserted, updated or deleted. Called on the
+// notifier's own thread. ids is null when the notifier lost track (too many changes,
+// missed messages, store reset): the receiver should catch up some other way, e.g.
+// TaskDAO.getChangesSince.
+@FunctionalInterface
+public interface ChangeListener {
+    void tasksChanged(int[] ids);
+}
@@ -0,0 +1,31 @@
+package sync;
+
+// Tells running clients which tasks changed, so they refetch only those rows instead
+// of reloading the list. Implementations:
+//   PollingChangeNotifier  - polls the store's change clock, backing off while idle
+//   DatagramChangeNotifier - UDP multicast between clients (plus a slow poll as safety net)
+//   LocalChangeNotifier    - in-process stand-in for tests and benchmarks
+// TaskDAO picks one with -Dtodo.notify and announces every write through it.
+public interface ChangeNotifier {
+
+    // No-op notifier (-Dtodo.notify=off)
+    ChangeNotifier NONE = new ChangeNotifier() {
+        @Override
+        public void start(ChangeListener listener) {
+        }
+
+        @Override
+        public void announce(int[] ids) {
+        }
+    };
+
+    // Begins delivering other clients' changes to listener; at most once per notifier
+    void start(ChangeListener listener);
+
+    // Tells other clients that this one changed ids (null = too many to list).
+    // Called after the write committed; must not block for long.
+    void announce(int[] ids);
+
+    default void close() {
+    }
+}
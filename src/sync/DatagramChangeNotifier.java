@@ -0,0 +1,164 @@
+package sync;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// UDP multicast between clients: every write is announced as one or more datagrams,
+// received by every client that joined the group (on this host too: multicast loopback
+// is on). Nothing is polled while nobody writes. Datagrams can be lost and writers that
+// don't announce (manual SQL, older clients) are invisible, so a slow fallback notifier
+// (normally a PollingChangeNotifier with a long delay) runs alongside.
+//
+//   int MAGIC, byte FORMAT, long sender, int channelHash, short count, int id*
+//   count -1 = "too many to list"
+//
+// channel keeps clients of different stores apart (default: the store id).
+public class DatagramChangeNotifier implements ChangeNotifier {
+
+    private static final int MAGIC = 0x54444348; // "TDCH"
+    private static final byte FORMAT = 1;
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 4 + 2;
+    // Keeps a datagram under a 1500-byte MTU (no IP fragmentation)
+    private static final int MAX_IDS_PER_PACKET = 300;
+    // Bigger changes are announced as "too many to list"
+    private static final int MAX_PACKETS = 16;
+
+    private final InetAddress group;
+    private final int port;
+    private final int ttl;
+    private final Supplier<String> channel;
+    private final ChangeNotifier fallback;
+    private final long sender = ThreadLocalRandom.current().nextLong();
+    private volatile Integer channelHash;
+    private MulticastSocket socket;   // guarded by this
+    private Thread receiver;
+    private volatile boolean closed;
+
+    public DatagramChangeNotifier(InetAddress group, int port, int ttl, Supplier<String> channel, ChangeNotifier fallback) {
+        this.group = group;
+        this.port = port;
+        this.ttl = ttl;
+        this.channel = channel;
+        this.fallback = fallback == null ? NONE : fallback;
+    }
+
+    @Override
+    public synchronized void start(ChangeListener listener) {
+        if (receiver != null) throw new IllegalStateException("Already started");
+        fallback.start(listener);
+        try {
+            MulticastSocket s = socket();
+            s.joinGroup(new InetSocketAddress(group, port), null);
+        } catch (IOException e) {
+            // Still sends if possible; the fallback keeps this client in sync
+            System.err.println("Change notifications: cannot join " + group.getHostAddress() + ":" + port
+                    + " (" + e.getMessage() + "); polling only");
+            return;
+        }
+        receiver = new Thread(() -> receiveLoop(listener), "change-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    // Opened on first use: bound to the group port for receiving, also used for sending
+    private synchronized MulticastSocket socket() throws IOException {
+        if (socket == null) {
+            MulticastSocket s = new MulticastSocket(null);
+            s.setReuseAddress(true);
+            s.bind(new InetSocketAddress(port));
+            s.setTimeToLive(ttl);
+            s.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            socket = s;
+        }
+        return socket;
+    }
+
+    @Override
+    public void announce(int[] ids) {
+        fallback.announce(ids);
+        if (closed) return;
+        try {
+            MulticastSocket s = socket();
+            if (ids == null || ids.length > MAX_IDS_PER_PACKET * MAX_PACKETS) {
+                send(s, null, 0, 0);
+                return;
+            }
+            for (int from = 0; from < ids.length; from += MAX_IDS_PER_PACKET) {
+                send(s, ids, from, Math.min(MAX_IDS_PER_PACKET, ids.length - from));
+            }
+        } catch (IOException e) {
+            // Best effort: receivers still catch up through their fallback
+            e.printStackTrace();
+        }
+    }
+
+    private void send(MulticastSocket s, int[] ids, int from, int count) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + count * 4);
+        buf.putInt(MAGIC).put(FORMAT).putLong(sender).putInt(channelHash()).putShort((short) (ids == null ? -1 : count));
+        for (int i = 0; i < count; i++) buf.putInt(ids[from + i]);
+        s.send(new DatagramPacket(buf.array(), buf.position(), group, port));
+    }
+
+    private int channelHash() {
+        Integer h = channelHash;
+        if (h == null) {
+            String c = channel.get();
+            // Not cached until known, so a store that answers later still gets its own channel
+            if (c == null) return 0;
+            h = Arrays.hashCode(c.getBytes(StandardCharsets.UTF_8));
+            channelHash = h;
+        }
+        return h;
+    }
+
+    private void receiveLoop(ChangeListener listener) {
+        MulticastSocket s;
+        synchronized (this) {
+            s = socket;
+        }
+        byte[] data = new byte[HEADER_BYTES + MAX_IDS_PER_PACKET * 4];
+        DatagramPacket packet = new DatagramPacket(data, data.length);
+        while (!closed) {
+            try {
+                packet.setLength(data.length);
+                s.receive(packet);
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                e.printStackTrace();
+                continue;
+            }
+            ByteBuffer buf = ByteBuffer.wrap(data, 0, packet.getLength());
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC || buf.get() != FORMAT) continue;
+            if (buf.getLong() == sender || buf.getInt() != channelHash()) continue;
+            int count = buf.getShort();
+            if (count < 0) {
+                listener.tasksChanged(null);
+                continue;
+            }
+            if (buf.remaining() < count * 4) continue;
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) ids[i] = buf.getInt();
+            listener.tasksChanged(ids);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        fallback.close();
+        synchronized (this) {
+            if (socket != null) socket.close();
+        }
+    }
+}
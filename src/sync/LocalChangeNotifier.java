@@ -0,0 +1,47 @@
+package sync;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process stand-in for the network notifiers: every started LocalChangeNotifier in
+// the JVM hears the others' announcements, in order, on one delivery thread. Lets tests and
+// benchmarks run several simulated clients (TaskDAO.setNotifier) without a network.
+public class LocalChangeNotifier implements ChangeNotifier {
+
+    private static final List<LocalChangeNotifier> HUB = new CopyOnWriteArrayList<>();
+    private static final ExecutorService DELIVERY = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "local-change-delivery");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile ChangeListener listener;
+
+    // Announcing works without it; start() only joins as a receiver
+    @Override
+    public void start(ChangeListener listener) {
+        if (this.listener != null) throw new IllegalStateException("Already started");
+        this.listener = listener;
+        HUB.add(this);
+    }
+
+    @Override
+    public void announce(int[] ids) {
+        int[] copy = ids == null ? null : ids.clone();
+        for (LocalChangeNotifier n : HUB) {
+            if (n == this) continue;
+            DELIVERY.execute(() -> {
+                ChangeListener l = n.listener;
+                if (l != null) l.tasksChanged(copy);
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        HUB.remove(this);
+        listener = null;
+    }
+}
@@ -0,0 +1,115 @@
+package sync;
+
+import dao.TaskDAO;
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Polls the store's change clock (TaskDAO.getCurrentVersion, one primary-key read).
+// Only when it moved are the changed ids fetched (TaskDAO.getChangedIds, a covering
+// scan of the version indexes). While nothing changes the delay doubles from minDelayMs
+// up to maxDelayMs, so an idle client costs at most one tiny query per maxDelayMs; a
+// change, or a write by this client, drops it back to minDelayMs. Delays get +-10%
+// jitter so clients started together don't poll in lockstep.
+public class PollingChangeNotifier implements ChangeNotifier {
+
+    // More ids than this are reported as "lost track" (null)
+    private static final int MAX_IDS = 10_000;
+
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final OperationMetrics polls = Metrics.op("notify.poll");
+    private volatile Thread thread;
+    private volatile boolean closed;
+    private volatile boolean nudged;
+
+    public PollingChangeNotifier(long minDelayMs, long maxDelayMs) {
+        this.minDelayMs = Math.max(10, minDelayMs);
+        this.maxDelayMs = Math.max(this.minDelayMs, maxDelayMs);
+    }
+
+    @Override
+    public synchronized void start(ChangeListener listener) {
+        if (thread != null) throw new IllegalStateException("Already started");
+        thread = new Thread(() -> pollLoop(listener), "change-poller");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Someone is writing: poll at the fastest rate again
+    @Override
+    public void announce(int[] ids) {
+        nudged = true;
+        Thread t = thread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread t = thread;
+        if (t != null) t.interrupt();
+    }
+
+    private void pollLoop(ChangeListener listener) {
+        long seen = -1;
+        long delay = minDelayMs;
+        while (!closed) {
+            if (sleep(delay)) delay = minDelayMs;
+            if (closed || Thread.currentThread().isInterrupted()) return;
+            long start = System.nanoTime();
+            long now = TaskDAO.getCurrentVersion();
+            if (now < 0) {
+                // Store down or not tracking changes; keep trying at the slowest rate
+                polls.record(start, false, 0);
+                delay = maxDelayMs;
+                continue;
+            }
+            if (seen < 0 || now == seen) {
+                polls.record(start, true, 0);
+                if (seen < 0) seen = now;
+                delay = Math.min(maxDelayMs, delay * 2);
+                continue;
+            }
+            if (now < seen) {
+                // Clock went backwards: a different or restored store
+                polls.record(start, true, 0);
+                seen = now;
+                listener.tasksChanged(null);
+                delay = minDelayMs;
+                continue;
+            }
+            int[] ids = TaskDAO.getChangedIds(seen, now);
+            polls.record(start, ids != null, ids == null ? 0 : ids.length);
+            if (ids == null) {
+                delay = maxDelayMs;
+                continue;
+            }
+            seen = now;
+            delay = minDelayMs;
+            if (ids.length > 0) listener.tasksChanged(ids.length > MAX_IDS ? null : ids);
+        }
+    }
+
+    // Sleeps delayMs (jittered), cut down to minDelayMs if announce() is called meanwhile.
+    // Returns true if it was.
+    private boolean sleep(long delayMs) {
+        long jitter = delayMs / 10;
+        long ms = delayMs + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+        long deadline = System.nanoTime() + ms * 1_000_000L;
+        boolean wasNudged = false;
+        long left;
+        while (!closed && (left = deadline - System.nanoTime()) > 0) {
+            if (nudged) {
+                nudged = false;
+                wasNudged = true;
+                deadline = Math.min(deadline, System.nanoTime() + minDelayMs * 1_000_000L);
+                continue;
+            }
+            LockSupport.parkNanos(this, left);
+            if (Thread.currentThread().isInterrupted()) break;
+        }
+        return wasNudged;
+    }
+}
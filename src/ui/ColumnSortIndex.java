@@ -0,0 +1,250 @@
+package ui;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+
+// One column of a TaskTableModel kept in sorted order: perm lists the model rows by
+// (collation key, id) ascending and pos is its inverse. Keys are computed once per row
+// (once per label for status), so sorting compares bytes instead of running the
+// Collator, and row changes move only the affected rows instead of re-sorting.
+final class ColumnSortIndex {
+
+    private final TaskTableModel model;
+    private final int column;
+    private final Collator collator;
+    private final Map<String, CollationKey> labelKeys = new HashMap<>(); // status column
+
+    // By model row, as of when the row was last indexed
+    private CollationKey[] keys = new CollationKey[0]; // unused for the id column
+    private String[] values = new String[0];
+    private int[] ids = new int[0];
+
+    private int[] perm = new int[0];
+    private int[] pos = new int[0];
+    private int size;
+
+    ColumnSortIndex(TaskTableModel model, int column, Collator collator) {
+        this.model = model;
+        this.column = column;
+        this.collator = collator;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Model row at sorted position i (ascending)
+    int rowAt(int i) {
+        return perm[i];
+    }
+
+    // --- Build ----------------------------------------------------------
+
+    void rebuild() {
+        size = model.getRowCount();
+        keys = new CollationKey[size];
+        values = new String[size];
+        ids = new int[size];
+        perm = new int[size];
+        pos = new int[size];
+        for (int r = 0; r < size; r++) {
+            index(r, true);
+            perm[r] = r;
+        }
+        sort(perm, 0, size, this::compare);
+        for (int i = 0; i < size; i++) pos[perm[i]] = i;
+    }
+
+    // Reads row r from the model; false when an indexed row's value and id are unchanged
+    private boolean index(int r, boolean fresh) {
+        int id = model.getIdAt(r);
+        String v = column == TaskTableModel.COL_ID ? null : (String) model.getValueAt(r, column);
+        boolean sameValue = !fresh && Objects.equals(values[r], v);
+        if (sameValue && ids[r] == id) return false;
+        ids[r] = id;
+        if (column != TaskTableModel.COL_ID && !sameValue) {
+            values[r] = v;
+            keys[r] = keyOf(v);
+        }
+        return true;
+    }
+
+    private CollationKey keyOf(String v) {
+        String s = v == null ? "" : v;
+        if (column == TaskTableModel.COL_STATUS) return labelKeys.computeIfAbsent(s, collator::getCollationKey);
+        return collator.getCollationKey(s);
+    }
+
+    private int compare(int a, int b) {
+        if (column != TaskTableModel.COL_ID) {
+            int c = keys[a].compareTo(keys[b]);
+            if (c != 0) return c;
+        }
+        return Integer.compare(ids[a], ids[b]);
+    }
+
+    // --- Maintenance (mirrors the model events) -------------------------
+
+    void rowsUpdated(int first, int last) {
+        int[] changed = new int[Math.min(last - first + 1, 16)];
+        int n = 0;
+        for (int r = first; r <= last; r++) {
+            if (!index(r, false)) continue;
+            if (n == changed.length) changed = Arrays.copyOf(changed, Math.min(last - first + 1, n * 2));
+            changed[n++] = r;
+        }
+        if (n == 0) return;
+        remove(changed, n);
+        insert(changed, n);
+    }
+
+    // Rows first..last are new; rows from first on moved up
+    void rowsInserted(int first, int last) {
+        int count = last - first + 1;
+        int newSize = size + count;
+        keys = grow(keys, newSize);
+        values = grow(values, newSize);
+        ids = grow(ids, newSize);
+        pos = grow(pos, newSize);
+        if (first < size) {
+            System.arraycopy(keys, first, keys, last + 1, size - first);
+            System.arraycopy(values, first, values, last + 1, size - first);
+            System.arraycopy(ids, first, ids, last + 1, size - first);
+            for (int i = 0; i < size; i++) {
+                if (perm[i] >= first) perm[i] += count;
+            }
+        }
+        int[] added = new int[count];
+        for (int r = first; r <= last; r++) {
+            index(r, true);
+            added[r - first] = r;
+        }
+        int inPerm = size;
+        size = newSize;
+        insertInto(inPerm, added, count);
+    }
+
+    // Rows first..last are gone; later rows moved down
+    void rowsDeleted(int first, int last) {
+        int count = last - first + 1;
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int r = perm[i];
+            if (r >= first && r <= last) continue;
+            perm[n++] = r > last ? r - count : r;
+        }
+        System.arraycopy(keys, last + 1, keys, first, size - last - 1);
+        System.arraycopy(values, last + 1, values, first, size - last - 1);
+        System.arraycopy(ids, last + 1, ids, first, size - last - 1);
+        size -= count;
+        Arrays.fill(keys, size, size + count, null);
+        Arrays.fill(values, size, size + count, null);
+        for (int i = 0; i < size; i++) pos[perm[i]] = i;
+    }
+
+    // Takes rows out of perm, leaving size - n entries
+    private void remove(int[] rows, int n) {
+        if (n == 1) {
+            int from = pos[rows[0]];
+            System.arraycopy(perm, from + 1, perm, from, size - from - 1);
+            for (int i = from; i < size - 1; i++) pos[perm[i]] = i;
+            return;
+        }
+        for (int k = 0; k < n; k++) pos[rows[k]] = -1;
+        int m = 0;
+        for (int i = 0; i < size; i++) {
+            if (pos[perm[i]] >= 0) perm[m++] = perm[i];
+        }
+    }
+
+    // Puts rows back in order into perm, which holds size - n sorted entries
+    private void insert(int[] rows, int n) {
+        insertInto(size - n, rows, n);
+    }
+
+    private void insertInto(int inPerm, int[] rows, int n) {
+        if (perm.length < size) perm = Arrays.copyOf(perm, Math.max(size, perm.length + (perm.length >> 1)));
+        if (n == 1) {
+            int r = rows[0];
+            int lo = 0;
+            int hi = inPerm;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(perm[mid], r) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            System.arraycopy(perm, lo, perm, lo + 1, inPerm - lo);
+            perm[lo] = r;
+            for (int i = lo; i <= inPerm; i++) pos[perm[i]] = i;
+            return;
+        }
+        // Sort the newcomers, then one merge with the rest
+        sort(rows, 0, n, this::compare);
+        int[] merged = new int[Math.max(perm.length, size)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < inPerm && j < n) {
+            merged[k++] = compare(perm[i], rows[j]) <= 0 ? perm[i++] : rows[j++];
+        }
+        while (i < inPerm) merged[k++] = perm[i++];
+        while (j < n) merged[k++] = rows[j++];
+        perm = merged;
+        for (int p = 0; p < size; p++) pos[perm[p]] = p;
+    }
+
+    private static CollationKey[] grow(CollationKey[] a, int min) {
+        return a.length >= min ? a : Arrays.copyOf(a, Math.max(min, a.length + (a.length >> 1)));
+    }
+
+    private static String[] grow(String[] a, int min) {
+        return a.length >= min ? a : Arrays.copyOf(a, Math.max(min, a.length + (a.length >> 1)));
+    }
+
+    private static int[] grow(int[] a, int min) {
+        return a.length >= min ? a : Arrays.copyOf(a, Math.max(min, a.length + (a.length >> 1)));
+    }
+
+    // --- Sort -----------------------------------------------------------
+
+    // Stable merge sort of a[from, to) on primitive ints (no boxing into Integer[])
+    static void sort(int[] a, int from, int to, IntBinaryOperator cmp) {
+        int n = to - from;
+        if (n < 2) return;
+        int[] buf = new int[n];
+        mergeSort(a, buf, from, to, cmp);
+    }
+
+    private static void mergeSort(int[] a, int[] buf, int from, int to, IntBinaryOperator cmp) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int v = a[i];
+                int j = i - 1;
+                while (j >= from && cmp.applyAsInt(a[j], v) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = v;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buf, from, mid, cmp);
+        mergeSort(a, buf, mid, to, cmp);
+        if (cmp.applyAsInt(a[mid - 1], a[mid]) <= 0) return; // already in order
+        int n = mid - from;
+        System.arraycopy(a, from, buf, 0, n);
+        int i = 0;
+        int j = mid;
+        int k = from;
+        while (i < n && j < to) {
+            a[k++] = cmp.applyAsInt(buf[i], a[j]) <= 0 ? buf[i++] : a[j++];
+        }
+        while (i < n) a[k++] = buf[i++];
+    }
+}
@@ -0,0 +1,118 @@
+package ui;
+
+import db.ConnectionPool;
+import db.DBConnection;
+import metrics.Metrics;
+import metrics.OperationSnapshot;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Live view of metrics.Metrics: one row per repository operation plus the
+// connection pool gauges. Refreshes once a second while it is on screen.
+@SuppressWarnings("serial")
+public class DiagnosticsPanel extends JPanel {
+
+    private static final int REFRESH_MS = 1000;
+
+    private final OperationsModel model = new OperationsModel();
+    private final JLabel poolLabel = new JLabel(" ");
+    private final Timer timer = new Timer(REFRESH_MS, e -> refresh());
+
+    public DiagnosticsPanel() {
+        super(new BorderLayout(6, 6));
+        setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(150);
+        // Numbers right-aligned; latencies with one decimal
+        DefaultTableCellRenderer number = new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value instanceof Double ? String.format("%.1f", (Double) value) : String.valueOf(value));
+            }
+        };
+        number.setHorizontalAlignment(SwingConstants.RIGHT);
+        table.setDefaultRenderer(Long.class, number);
+        table.setDefaultRenderer(Double.class, number);
+
+        JButton resetBtn = new JButton("Reset");
+        resetBtn.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(poolLabel, BorderLayout.CENTER);
+        bottom.add(resetBtn, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(bottom, BorderLayout.SOUTH);
+        setPreferredSize(new Dimension(760, 360));
+        refresh();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        model.setRows(Metrics.snapshot());
+        ConnectionPool.Stats pool = DBConnection.peekPoolStats();
+        poolLabel.setText(pool == null ? "Connection pool: not open"
+                : "Connection pool: " + pool + String.format(" wait=%.1f ms",
+                        pool.getTotalWaitNanos() / 1e6));
+    }
+
+    // --- Table model ----------------------------------------------------
+
+    private static final class OperationsModel extends AbstractTableModel {
+        private static final String[] COLUMNS = { "Operation", "Calls", "Errors", "Rows",
+                "Mean µs", "p50 µs", "p99 µs", "Max µs" };
+
+        private List<OperationSnapshot> rows = new ArrayList<>();
+
+        void setRows(List<OperationSnapshot> rows) {
+            this.rows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int col) { return COLUMNS[col]; }
+
+        @Override
+        public Class<?> getColumnClass(int col) {
+            if (col == 0) return String.class;
+            return col <= 3 ? Long.class : Double.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            OperationSnapshot s = rows.get(row);
+            switch (col) {
+                case 0: return s.getName();
+                case 1: return s.getCalls();
+                case 2: return s.getErrors();
+                case 3: return s.getRows();
+                case 4: return s.getMeanMicros();
+                case 5: return s.getP50Micros();
+                case 6: return s.getP99Micros();
+                default: return s.getMaxMicros();
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package ui;
+
+import metrics.Metrics;
+import metrics.OperationMetrics;
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Finds out what froze the UI. An EventQueue subclass times every event dispatch;
+// a sampler thread takes EDT stack traces while a dispatch is running long. A
+// dispatch that kept the EDT busy for -Dtodo.edt.stallMs (default 200) is a stall:
+// it is logged with the method the samples point at, e.g.
+//
+//   2026-10-18T14:02:11.342  812 ms  ActionEvent "Refresh" from JButton
+//       in Main.loadTasks -> dao.MySqlTaskRepository.getAllTasks (38/40 samples)
+//         at dao.MySqlTaskRepository.getAllTasks(MySqlTaskRepository.java:88)
+//         ...
+//
+// to -Dtodo.edt.log (default ~/.todo/edt-stalls.log, rolled to .1 at 1 MB), plus a
+// stall histogram on exit. Every dispatch also feeds the "edt.dispatch" metric and
+// every stall "edt.stall" (see the diagnostics panel / JMX).
+public final class EdtWatchdog {
+
+    private static final long STALL_NANOS = Long.getLong("todo.edt.stallMs", 200L) * 1_000_000L;
+    private static final long SAMPLE_MS = Math.max(1, Long.getLong("todo.edt.sampleMs", 20L));
+    private static final Path LOG_PATH = Paths.get(System.getProperty("todo.edt.log",
+            Paths.get(System.getProperty("user.home"), ".todo", "edt-stalls.log").toString()));
+    private static final long MAX_LOG_BYTES = 1 << 20;
+    private static final int MAX_LOGGED_FRAMES = 12;
+    // Stall histogram buckets (lower bounds, ms)
+    private static final long[] BUCKET_MS = { 200, 500, 1000, 2000, 5000, 10000 };
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static EdtWatchdog instance;
+
+    private final OperationMetrics dispatchMetrics = Metrics.op("edt.dispatch");
+    private final OperationMetrics stallMetrics = Metrics.op("edt.stall");
+
+    // Written on the EDT, read by the sampler
+    private volatile Thread edt;
+    private volatile long currentSeq;
+    private volatile long currentStart; // 0 = idle
+
+    // EDT only
+    private long seqCounter;
+    private long resumedAt;
+    private int depth;
+
+    // EDT -> sampler
+    private final ConcurrentLinkedQueue<Stall> finished = new ConcurrentLinkedQueue<>();
+
+    // Sampler only (guarded by this)
+    private final Map<Long, Samples> samples = new HashMap<>();
+    private final long[] bucketCounts = new long[BUCKET_MS.length];
+
+    private EdtWatchdog() {
+    }
+
+    // Replaces the system event queue with a timing one and starts the sampler; idempotent
+    public static synchronized void install() {
+        if (instance != null) return;
+        EdtWatchdog w = new EdtWatchdog();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(w.new TimingQueue());
+        Thread sampler = new Thread(w::sampleLoop, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(w::writeHistogram, "edt-watchdog-exit"));
+        instance = w;
+    }
+
+    // --- Dispatch timing (EDT) ------------------------------------------
+
+    private final class TimingQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Thread t = Thread.currentThread();
+            if (edt != t) edt = t; // the EDT is replaced after an uncaught exception
+            long seq = ++seqCounter;
+            long outerSeq = currentSeq;
+            long start = System.nanoTime();
+            resumedAt = start;
+            depth++;
+            currentStart = start;
+            currentSeq = seq;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long end = System.nanoTime();
+                // A modal dialog pumps nested events inside this one; only the time since
+                // the last nested event returned counts as blocking
+                long busy = end - resumedAt;
+                resumedAt = end;
+                boolean stall = busy >= STALL_NANOS;
+                dispatchMetrics.recordDuration(busy, !stall, 0);
+                // Queued before going idle, so the sampler never sees idle with a stall unqueued
+                if (stall) finished.add(new Stall(seq, busy, describe(event)));
+                depth--;
+                currentSeq = outerSeq;
+                currentStart = depth > 0 ? end : 0;
+            }
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        StringBuilder sb = new StringBuilder(event.getClass().getSimpleName());
+        if (event instanceof ActionEvent && ((ActionEvent) event).getActionCommand() != null) {
+            sb.append(" \"").append(((ActionEvent) event).getActionCommand()).append('"');
+        }
+        Object source = event.getSource();
+        if (source != null) sb.append(" from ").append(source.getClass().getSimpleName());
+        return sb.toString();
+    }
+
+    // --- Sampling (edt-watchdog thread) ---------------------------------
+
+    private void sampleLoop() {
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                sample();
+                drainFinished();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized void sample() {
+        long seq = currentSeq;
+        long start = currentStart;
+        Thread t = edt;
+        if (t == null || start == 0 || System.nanoTime() - start < SAMPLE_MS * 1_000_000L) return;
+        StackTraceElement[] stack = t.getStackTrace();
+        // The dispatch may have ended while the stack was taken
+        if (currentSeq != seq) return;
+        samples.computeIfAbsent(seq, k -> new Samples()).add(stack);
+    }
+
+    // Also run by the exit hook, hence synchronized with sample()
+    private synchronized void drainFinished() {
+        boolean idle = currentStart == 0;
+        Stall s;
+        while ((s = finished.poll()) != null) {
+            Samples sm = samples.remove(s.seq);
+            stallMetrics.recordDuration(s.busyNanos, true, 0);
+            synchronized (bucketCounts) {
+                bucketCounts[bucketOf(s.busyNanos / 1_000_000L)]++;
+            }
+            writeLog(format(s, sm));
+        }
+        // Whatever is left belongs to dispatches that ended under the threshold,
+        // unless something (e.g. a modal dialog's owner event) is still running
+        if (idle) {
+            samples.clear();
+        } else {
+            while (samples.size() > 16) samples.remove(Collections.min(samples.keySet()));
+        }
+    }
+
+    private static String now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS).format(TIME);
+    }
+
+    private static int bucketOf(long ms) {
+        int b = 0;
+        while (b + 1 < BUCKET_MS.length && ms >= BUCKET_MS[b + 1]) b++;
+        return b;
+    }
+
+    private static String format(Stall s, Samples sm) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(now()).append("  ")
+          .append(s.busyNanos / 1_000_000L).append(" ms  ").append(s.event).append('\n');
+        if (sm == null) {
+            sb.append("    in <not sampled>\n");
+            return sb.toString();
+        }
+        String culprit = sm.topCulprit();
+        StackTraceElement[] stack = sm.stackFor(culprit);
+        String entry = entryPoint(stack);
+        sb.append("    in ");
+        if (entry != null && !entry.equals(culprit)) sb.append(entry).append(" -> ");
+        sb.append(culprit).append(" (").append(sm.count(culprit)).append('/').append(sm.total).append(" samples)\n");
+        // Frames below the dispatch are the same for every stall
+        for (int i = 0; i < stack.length && i < MAX_LOGGED_FRAMES; i++) {
+            if (stack[i].getClassName().startsWith(EdtWatchdog.class.getName())) break;
+            sb.append("      at ").append(stack[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // --- Attribution ----------------------------------------------------
+
+    private static boolean isAppFrame(StackTraceElement f) {
+        String c = f.getClassName();
+        return !(c.startsWith("java.") || c.startsWith("javax.") || c.startsWith("sun.")
+                || c.startsWith("jdk.") || c.startsWith("com.sun.") || c.startsWith("com.mysql.")
+                || c.startsWith(EdtWatchdog.class.getName()));
+    }
+
+    private static String methodOf(StackTraceElement f) {
+        return f.getClassName() + "." + f.getMethodName();
+    }
+
+    // Innermost application frame: where the time actually went
+    static String culpritOf(StackTraceElement[] stack) {
+        for (StackTraceElement f : stack) {
+            if (isAppFrame(f)) return methodOf(f);
+        }
+        return stack.length > 0 ? methodOf(stack[0]) : "<unknown>";
+    }
+
+    // Outermost named application method: the listener body that started the work
+    private static String entryPoint(StackTraceElement[] stack) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            if (isAppFrame(stack[i]) && !stack[i].getMethodName().startsWith("lambda$")) return methodOf(stack[i]);
+        }
+        return null;
+    }
+
+    private static final class Samples {
+        final Map<String, Integer> counts = new HashMap<>();
+        final Map<String, StackTraceElement[]> stacks = new HashMap<>();
+        int total;
+
+        void add(StackTraceElement[] stack) {
+            String culprit = culpritOf(stack);
+            counts.merge(culprit, 1, Integer::sum);
+            stacks.putIfAbsent(culprit, stack);
+            total++;
+        }
+
+        String topCulprit() {
+            String best = null;
+            int bestCount = -1;
+            for (Map.Entry<String, Integer> e : counts.entrySet()) {
+                if (e.getValue() > bestCount) {
+                    best = e.getKey();
+                    bestCount = e.getValue();
+                }
+            }
+            return best;
+        }
+
+        int count(String culprit) {
+            return counts.getOrDefault(culprit, 0);
+        }
+
+        StackTraceElement[] stackFor(String culprit) {
+            return stacks.get(culprit);
+        }
+    }
+
+    private static final class Stall {
+        final long seq;
+        final long busyNanos;
+        final String event;
+
+        Stall(long seq, long busyNanos, String event) {
+            this.seq = seq;
+            this.busyNanos = busyNanos;
+            this.event = event;
+        }
+    }
+
+    // --- Log ------------------------------------------------------------
+
+    // Stall counts by duration, e.g. "200ms-500ms=3 500ms-1s=1 ..."
+    public static String getStallHistogram() {
+        EdtWatchdog w;
+        synchronized (EdtWatchdog.class) {
+            w = instance;
+        }
+        return w == null ? "watchdog not installed" : w.histogram();
+    }
+
+    private String histogram() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (bucketCounts) {
+            for (int i = 0; i < BUCKET_MS.length; i++) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(label(BUCKET_MS[i]));
+                sb.append(i + 1 < BUCKET_MS.length ? "-" + label(BUCKET_MS[i + 1]) : "+");
+                sb.append('=').append(bucketCounts[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String label(long ms) {
+        return ms < 1000 ? ms + "ms" : (ms / 1000) + "s";
+    }
+
+    private void writeHistogram() {
+        drainFinished();
+        if (stallMetrics.snapshot().getCalls() == 0) return;
+        writeLog(now() + "  exit  stalls: " + histogram() + "\n");
+    }
+
+    private static synchronized void writeLog(String text) {
+        try {
+            Files.createDirectories(LOG_PATH.toAbsolutePath().getParent());
+            if (Files.exists(LOG_PATH) && Files.size(LOG_PATH) > MAX_LOG_BYTES) {
+                Files.move(LOG_PATH, LOG_PATH.resolveSibling(LOG_PATH.getFileName() + ".1"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.write(LOG_PATH, text.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
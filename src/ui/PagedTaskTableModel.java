@@ -0,0 +1,264 @@
+package ui;
+
+import model.Task;
+import model.TaskOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+// Virtual table model for very large task lists. Only the row count and one
+// anchor per page are kept up front; pages are fetched with keyset queries (in
+// whatever order the anchors were computed for, see TaskDAO.getPage) when a row
+// is first painted, and pages far from the viewport are evicted.
+// Local edits are applied in place: a page is the rows between two anchors, so a
+// delete or an insert only changes that page's length (starts[] shifts by one) and
+// the anchors stay valid. Changes it can't place (see update/insert) return false,
+// and the caller re-anchors.
+@SuppressWarnings("serial")
+public class PagedTaskTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = { "ID", "Title", "Description", "Status" };
+    private static final String LOADING = "…";
+
+    private final int pageSize;
+    private final int maxPages;
+    // (anchor, limit) -> tasks; called on the EDT, must not block
+    private final BiFunction<Task, Integer, CompletableFuture<List<Task>>> pageLoader;
+
+    private final Map<Integer, Task[]> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private Task[] anchors = new Task[0];
+    private TaskOrder order = TaskOrder.BY_ID;
+    // starts[p] is the first row of page p; starts[anchors.length] == rowCount
+    private int[] starts = new int[1];
+    private int rowCount;
+    private int lastRequestedPage;
+    private int generation;
+
+    public PagedTaskTableModel(int pageSize, int maxPages,
+                               BiFunction<Task, Integer, CompletableFuture<List<Task>>> pageLoader) {
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+        this.pageLoader = pageLoader;
+    }
+
+    // anchors[p] is the task just before page p in order (see TaskDAO.getPageAnchors)
+    public void reset(int rowCount, Task[] anchors, TaskOrder order) {
+        generation++;
+        pages.clear();
+        loading.clear();
+        this.anchors = anchors;
+        this.order = order;
+        this.rowCount = Math.min(rowCount, anchors.length * pageSize);
+        starts = new int[anchors.length + 1];
+        for (int p = 0; p <= anchors.length; p++) starts[p] = Math.min(p * pageSize, this.rowCount);
+        fireTableDataChanged();
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    // Task at a model row, or null while its page is still loading
+    public Task getTask(int row) {
+        if (row < 0 || row >= rowCount) return null;
+        int p = pageOf(row);
+        Task[] page = pages.get(p);
+        if (page == null) {
+            requestPage(p);
+            return null;
+        }
+        int offset = row - starts[p];
+        return offset < page.length ? page[offset] : null;
+    }
+
+    // Loaded task with this id, or null
+    public Task findTask(int id) {
+        for (Task[] page : pages.values()) {
+            for (Task t : page) {
+                if (t.getId() == id) return t;
+            }
+        }
+        return null;
+    }
+
+    // Page holding row: the last p with starts[p] <= row (pages emptied by deletes are skipped)
+    private int pageOf(int row) {
+        int lo = 0;
+        int hi = anchors.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= row) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private void requestPage(int p) {
+        lastRequestedPage = p;
+        int length = starts[p + 1] - starts[p];
+        if (length == 0 || !loading.add(p)) return;
+        int gen = generation;
+        pageLoader.apply(anchors[p], length).whenComplete((tasks, error) -> SwingUtilities.invokeLater(() -> {
+            if (gen != generation) return; // model was reset meanwhile
+            loading.remove(p);
+            if (error != null || tasks == null) return;
+            // An insert into this page while it loaded: repaint, which asks again
+            if (starts[p + 1] - starts[p] == length) {
+                pages.put(p, tasks.toArray(new Task[0]));
+                evictFarPages();
+            }
+            if (starts[p + 1] > starts[p]) fireTableRowsUpdated(starts[p], starts[p + 1] - 1);
+        }));
+    }
+
+    // --- Local edits ----------------------------------------------------
+
+    // Shows t in place of the loaded task with its id. False when that task isn't loaded,
+    // or when the change is to the order's key: the row is then shown where it was, but
+    // belongs elsewhere until the caller re-anchors.
+    public boolean update(Task t) {
+        for (Map.Entry<Integer, Task[]> e : pages.entrySet()) {
+            Task[] page = e.getValue();
+            for (int i = 0; i < page.length; i++) {
+                if (page[i].getId() != t.getId()) continue;
+                Task before = page[i];
+                page[i] = t;
+                int row = starts[e.getKey()] + i;
+                fireTableRowsUpdated(row, row);
+                switch (order.getKey()) {
+                    case TITLE: return before.getTitle().equals(t.getTitle());
+                    case STATUS: return before.getStatus().equals(t.getStatus());
+                    default: return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Removes the loaded task with this id; the rows after it move up by one. False when
+    // it isn't loaded (its page is unknown, so the caller re-anchors).
+    public boolean remove(int id) {
+        for (Map.Entry<Integer, Task[]> e : pages.entrySet()) {
+            Task[] page = e.getValue();
+            for (int i = 0; i < page.length; i++) {
+                if (page[i].getId() != id) continue;
+                int p = e.getKey();
+                Task[] shorter = new Task[page.length - 1];
+                System.arraycopy(page, 0, shorter, 0, i);
+                System.arraycopy(page, i + 1, shorter, i, page.length - i - 1);
+                e.setValue(shorter);
+                for (int q = p + 1; q < starts.length; q++) starts[q]--;
+                rowCount--;
+                int row = starts[p] + i;
+                fireTableRowsDeleted(row, row);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds a new task to the page between the anchors it falls between. Only in id order,
+    // where that is known here; in title order the database collation decides, so this
+    // returns false and the caller re-anchors.
+    public boolean insert(Task t) {
+        if (order.getKey() != TaskOrder.Key.ID || anchors.length == 0) return false;
+        int p = 0;
+        for (int lo = 1, hi = anchors.length - 1; lo <= hi; ) {
+            int mid = (lo + hi) >>> 1;
+            if (before(anchors[mid].getId(), t.getId())) {
+                p = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int row = starts[p + 1];
+        Task[] page = pages.get(p);
+        if (page != null) {
+            int i = 0;
+            while (i < page.length && before(page[i].getId(), t.getId())) i++;
+            Task[] longer = new Task[page.length + 1];
+            System.arraycopy(page, 0, longer, 0, i);
+            longer[i] = t;
+            System.arraycopy(page, i, longer, i + 1, page.length - i);
+            pages.put(p, longer);
+            row = starts[p] + i;
+        }
+        for (int q = p + 1; q < starts.length; q++) starts[q]++;
+        rowCount++;
+        fireTableRowsInserted(row, row);
+        return true;
+    }
+
+    // Whether id a comes before id b in the current (id) order
+    private boolean before(int a, int b) {
+        return order.isDescending() ? a > b : a < b;
+    }
+
+    // Keeps memory bounded: drops the pages farthest from the one last asked for
+    private void evictFarPages() {
+        while (pages.size() > maxPages) {
+            int farthest = -1;
+            int farthestDistance = -1;
+            for (int p : pages.keySet()) {
+                int d = Math.abs(p - lastRequestedPage);
+                if (d > farthestDistance) {
+                    farthest = p;
+                    farthestDistance = d;
+                }
+            }
+            pages.remove(farthest);
+        }
+    }
+
+    // --- AbstractTableModel ---------------------------------------------
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == TaskTableModel.COL_ID ? Integer.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Task t = getTask(row);
+        if (t == null) return column == TaskTableModel.COL_TITLE ? LOADING : null;
+        switch (column) {
+            case TaskTableModel.COL_ID: return t.getId();
+            case TaskTableModel.COL_TITLE: return t.getTitle();
+            case TaskTableModel.COL_DESCRIPTION: return t.getDescription();
+            case TaskTableModel.COL_STATUS: return t.getStatus();
+            default: return null;
+        }
+    }
+}
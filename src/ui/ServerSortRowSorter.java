@@ -0,0 +1,117 @@
+package ui;
+
+import model.TaskOrder;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Header sorting for the paged model: rows are never reordered here (view = model).
+// A header click only records the sort key and hands the matching TaskOrder to
+// onOrderChanged, which re-anchors the pages in that order on the store, where an
+// index delivers it. Description has no index, so it is not sortable in paged mode.
+public class ServerSortRowSorter extends RowSorter<PagedTaskTableModel> {
+
+    private final PagedTaskTableModel model;
+    private final Consumer<TaskOrder> onOrderChanged;
+    private List<SortKey> sortKeys = Collections.emptyList();
+
+    public ServerSortRowSorter(PagedTaskTableModel model, Consumer<TaskOrder> onOrderChanged) {
+        this.model = model;
+        this.onOrderChanged = onOrderChanged;
+    }
+
+    @Override
+    public PagedTaskTableModel getModel() {
+        return model;
+    }
+
+    // Order the pages should currently be fetched in
+    public TaskOrder getOrder() {
+        if (sortKeys.isEmpty()) return TaskOrder.BY_ID;
+        SortKey k = sortKeys.get(0);
+        return new TaskOrder(keyFor(k.getColumn()), k.getSortOrder() == SortOrder.DESCENDING);
+    }
+
+    private static TaskOrder.Key keyFor(int column) {
+        switch (column) {
+            case TaskTableModel.COL_TITLE: return TaskOrder.Key.TITLE;
+            case TaskTableModel.COL_STATUS: return TaskOrder.Key.STATUS;
+            case TaskTableModel.COL_ID: return TaskOrder.Key.ID;
+            default: return null;
+        }
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (keyFor(column) == null) return;
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> next = keys == null || keys.isEmpty() || keys.get(0).getSortOrder() == SortOrder.UNSORTED
+                || keyFor(keys.get(0).getColumn()) == null ? Collections.emptyList() : List.of(keys.get(0));
+        if (next.equals(sortKeys)) return;
+        sortKeys = next;
+        fireSortOrderChanged();
+        onOrderChanged.accept(getOrder());
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    // --- Identity mapping -----------------------------------------------
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+    }
+
+    @Override
+    public void allRowsChanged() {
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+}
@@ -0,0 +1,31 @@
+package ui;
+
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Component;
+
+// Chip-like colored status cell. Styles come precomputed from Theme, and
+// DefaultTableCellRenderer already turns the repaint/revalidate calls that each
+// setter would trigger into no-ops, so rendering a cell allocates nothing.
+@SuppressWarnings("serial")
+public class StatusRenderer extends DefaultTableCellRenderer {
+
+    public StatusRenderer() {
+        setOpaque(true);
+        setHorizontalAlignment(SwingConstants.CENTER);
+        setFont(Theme.UI_FONT);
+        setBorder(Theme.CHIP_BORDER);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        String status = value == null ? "" : value.toString();
+        Theme.StatusStyle style = Theme.statusStyle(status);
+        setText(status);
+        setBackground(isSelected ? table.getSelectionBackground() : style.getBackground());
+        setForeground(isSelected ? table.getSelectionForeground() : style.getForeground());
+        return this;
+    }
+}
@@ -0,0 +1,230 @@
+package ui;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+// RowSorter for the in-memory TaskTableModel. Each column sorted at least once gets a
+// ColumnSortIndex that is kept up to date from then on, so clicking a header (or
+// flipping the direction) only reads an existing permutation: O(n), no comparisons.
+// Sorts on one column at a time, ties broken by id; the filter is a row set (see
+// search.TaskFilter.matchRows) rather than a RowFilter evaluated per row.
+public class TaskRowSorter extends RowSorter<TaskTableModel> {
+
+    private final TaskTableModel model;
+    private final Collator collator = Collator.getInstance();
+    // Built on first sort by the column, then maintained on every model event
+    private final ColumnSortIndex[] indexes;
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private BitSet filter;       // model rows shown; null = all
+    private int[] viewToModel;   // null = identity (unsorted, unfiltered)
+    private int[] modelToView;
+    private int modelRowCount;
+
+    public TaskRowSorter(TaskTableModel model) {
+        this.model = model;
+        this.indexes = new ColumnSortIndex[model.getColumnCount()];
+        this.modelRowCount = model.getRowCount();
+    }
+
+    @Override
+    public TaskTableModel getModel() {
+        return model;
+    }
+
+    // Shows only the model rows set in rows (null = all), in the current sort order
+    public void setRowFilter(BitSet rows) {
+        if (rows == null && filter == null) return;
+        int[] old = currentMapping();
+        filter = rows;
+        remap();
+        fireRowSorterChanged(old);
+    }
+
+    // --- Sort keys ------------------------------------------------------
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(List.of(new SortKey(column, order)));
+    }
+
+    // Only the primary key is used
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> next = keys == null || keys.isEmpty() || keys.get(0).getSortOrder() == SortOrder.UNSORTED
+                ? Collections.emptyList() : List.of(keys.get(0));
+        if (next.equals(sortKeys)) return;
+        int[] old = currentMapping();
+        sortKeys = next;
+        fireSortOrderChanged();
+        remap();
+        fireRowSorterChanged(old);
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    // --- Mapping --------------------------------------------------------
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            if (index < 0 || index >= modelRowCount) throw new IndexOutOfBoundsException("Invalid index");
+            return index;
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            if (index < 0 || index >= modelRowCount) throw new IndexOutOfBoundsException("Invalid index");
+            return index;
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? modelRowCount : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modelRowCount;
+    }
+
+    private boolean isIdentity() {
+        return sortKeys.isEmpty() && filter == null;
+    }
+
+    // The mapping before a change, for the sorter event (JTable keeps the selection with it)
+    private int[] currentMapping() {
+        if (viewToModel != null) return viewToModel;
+        int[] identity = new int[modelRowCount];
+        for (int i = 0; i < identity.length; i++) identity[i] = i;
+        return identity;
+    }
+
+    // Rebuilds both directions from the sort index and the filter: O(n)
+    private void remap() {
+        if (isIdentity()) {
+            viewToModel = null;
+            modelToView = null;
+            return;
+        }
+        ColumnSortIndex index = null;
+        boolean descending = false;
+        if (!sortKeys.isEmpty()) {
+            index = indexFor(sortKeys.get(0).getColumn());
+            descending = sortKeys.get(0).getSortOrder() == SortOrder.DESCENDING;
+        }
+        int n = modelRowCount;
+        int[] v2m = new int[filter == null ? n : Math.min(n, filter.cardinality())];
+        int[] m2v = new int[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int row = index == null ? i : index.rowAt(descending ? n - 1 - i : i);
+            if (filter != null && !filter.get(row)) {
+                m2v[row] = -1;
+                continue;
+            }
+            m2v[row] = k;
+            v2m[k++] = row;
+        }
+        viewToModel = k == v2m.length ? v2m : Arrays.copyOf(v2m, k);
+        modelToView = m2v;
+    }
+
+    private ColumnSortIndex indexFor(int column) {
+        if (indexes[column] == null) {
+            indexes[column] = new ColumnSortIndex(model, column, collator);
+            indexes[column].rebuild();
+        }
+        return indexes[column];
+    }
+
+    // --- Model events ---------------------------------------------------
+
+    @Override
+    public void modelStructureChanged() {
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        int[] old = isIdentity() ? null : currentMapping();
+        modelRowCount = model.getRowCount();
+        // Everything may have moved: indexes in use are rebuilt now, the others on next use
+        for (int c = 0; c < indexes.length; c++) {
+            if (indexes[c] == null) continue;
+            if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == c) indexes[c].rebuild();
+            else indexes[c] = null;
+        }
+        changed(old);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int[] old = isIdentity() ? null : currentMapping();
+        modelRowCount = model.getRowCount();
+        for (ColumnSortIndex index : indexes) {
+            if (index != null) index.rowsInserted(firstRow, endRow);
+        }
+        if (filter != null && firstRow < modelRowCount - (endRow - firstRow + 1)) {
+            filter = shift(filter, firstRow, endRow - firstRow + 1);
+        }
+        changed(old);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        int[] old = isIdentity() ? null : currentMapping();
+        modelRowCount = model.getRowCount();
+        for (ColumnSortIndex index : indexes) {
+            if (index != null) index.rowsDeleted(firstRow, endRow);
+        }
+        if (filter != null) filter = shift(filter, endRow + 1, firstRow - endRow - 1);
+        changed(old);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        int[] old = isIdentity() ? null : currentMapping();
+        for (ColumnSortIndex index : indexes) {
+            if (index != null) index.rowsUpdated(firstRow, endRow);
+        }
+        changed(old);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    // Unsorted and unfiltered the view is the model: nothing to remap or announce
+    private void changed(int[] old) {
+        if (isIdentity()) return;
+        remap();
+        fireRowSorterChanged(old);
+    }
+
+    // Bits from `from` on moved by delta rows (the model inserted or deleted rows)
+    private static BitSet shift(BitSet bits, int from, int delta) {
+        BitSet out = bits.get(0, Math.min(from, from + delta));
+        for (int i = bits.nextSetBit(from); i >= 0; i = bits.nextSetBit(i + 1)) out.set(i + delta);
+        return out;
+    }
+}
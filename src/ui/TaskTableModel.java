@@ -0,0 +1,167 @@
+package ui;
+
+import model.Task;
+import model.TaskStore;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+// Table model that reads straight from a columnar TaskStore. Single-row changes are
+// applied as deltas (with matching fine-grained events) instead of rebuilding every row.
+@SuppressWarnings("serial")
+public class TaskTableModel extends AbstractTableModel {
+
+    public static final int COL_ID = 0;
+    public static final int COL_TITLE = 1;
+    public static final int COL_DESCRIPTION = 2;
+    public static final int COL_STATUS = 3;
+
+    private static final String[] COLUMNS = { "ID", "Title", "Description", "Status" };
+
+    // Above this many removals one dataChanged event is cheaper than per-row events
+    private static final int BULK_EVENT_THRESHOLD = 64;
+
+    private final TaskStore store = new TaskStore();
+    // Bumped on every change so background work on a snapshot can tell it's stale
+    private long modCount;
+
+    // --- Full load ------------------------------------------------------
+
+    public void setTasks(List<Task> tasks) {
+        store.load(tasks);
+        fireTableDataChanged();
+    }
+
+    // --- Deltas ---------------------------------------------------------
+
+    public void addTask(Task t) {
+        int existing = store.rowOf(t.getId());
+        int row = store.add(t);
+        if (existing >= 0) fireTableRowsUpdated(row, row);
+        else fireTableRowsInserted(row, row);
+    }
+
+    public void updateTask(Task t) {
+        addTask(t);
+    }
+
+    // Replaces existing rows (ids not loaded are skipped), one event for the touched span
+    public void updateTasks(List<Task> tasks) {
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        for (Task t : tasks) {
+            if (store.rowOf(t.getId()) < 0) continue;
+            int row = store.add(t);
+            min = Math.min(min, row);
+            max = Math.max(max, row);
+        }
+        if (max >= 0) fireTableRowsUpdated(min, max);
+    }
+
+    public void setStatus(int[] ids, String status) {
+        byte code = store.codeFor(status);
+        int min = Integer.MAX_VALUE;
+        int max = -1;
+        for (int id : ids) {
+            int row = store.rowOf(id);
+            if (row < 0) continue;
+            store.setStatus(row, code);
+            min = Math.min(min, row);
+            max = Math.max(max, row);
+        }
+        // One event for the touched span; the sorter re-evaluates only rows in it
+        if (max >= 0) fireTableRowsUpdated(min, max);
+    }
+
+    public void removeTask(int id) {
+        int last = store.size() - 1;
+        int row = store.remove(id);
+        if (row < 0) return;
+        // The last row was swapped into the hole so removal stays O(1)
+        if (row != last) fireTableRowsUpdated(row, row);
+        fireTableRowsDeleted(last, last);
+    }
+
+    public void removeTasks(int[] ids) {
+        if (ids.length <= BULK_EVENT_THRESHOLD) {
+            for (int id : ids) removeTask(id);
+            return;
+        }
+        int before = store.size();
+        store.removeAll(ids);
+        if (store.size() != before) fireTableDataChanged();
+    }
+
+    // --- Lookups --------------------------------------------------------
+
+    // Copy of the current rows (model order) for background work
+    public TaskStore snapshot() {
+        return store.copy();
+    }
+
+    public long getModCount() {
+        return modCount;
+    }
+
+    // Materializes the row as a Task (a copy: changing it doesn't change the model)
+    public Task getTask(int row) {
+        return store.toTask(row);
+    }
+
+    public int getIdAt(int row) {
+        return store.id(row);
+    }
+
+    public String getStatusAt(int row) {
+        return store.statusLabel(row);
+    }
+
+    // Model row for a task id, or -1 when it isn't loaded
+    public int rowOf(int id) {
+        return store.rowOf(id);
+    }
+
+    // --- AbstractTableModel ---------------------------------------------
+
+    @Override
+    public int getRowCount() {
+        return store.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == COL_ID ? Integer.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case COL_ID: return store.id(row);
+            case COL_TITLE: return store.title(row);
+            case COL_DESCRIPTION: return store.description(row);
+            case COL_STATUS: return store.statusLabel(row);
+            default: return null;
+        }
+    }
+
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        modCount++;
+        super.fireTableChanged(e);
+    }
+}
@@ -0,0 +1,58 @@
+package ui;
+
+import javax.swing.BorderFactory;
+import javax.swing.border.Border;
+import java.awt.Color;
+import java.awt.Font;
+
+// Palette, fonts and borders shared by the app. Everything used while painting is
+// created once here, so renderers and paintComponent overrides never allocate per
+// cell or per repaint.
+public final class Theme {
+
+    // Color palette (CSS-like variables)
+    public static final Color BG = new Color(245, 247, 250);           // app background
+    public static final Color CARD = new Color(255, 255, 255);         // panel/card bg
+    public static final Color PRIMARY = new Color(30, 116, 230);       // primary blue
+    public static final Color SUCCESS = new Color(46, 125, 50);        // green
+    public static final Color DANGER  = new Color(211, 47, 47);        // red
+    public static final Color ACCENT  = new Color(100, 116, 139);      // neutral
+    public static final Color GRADIENT_START = new Color(241, 245, 255);
+    public static final Color GRADIENT_END = new Color(236, 252, 203);
+
+    // Table
+    public static final Color ROW_EVEN = new Color(250, 252, 255);
+    public static final Color ROW_ODD = Color.WHITE;
+    public static final Color HEADER_BG = new Color(250, 250, 250);
+    public static final Border CHIP_BORDER = BorderFactory.createLineBorder(new Color(0, 0, 0, 20));
+
+    public static final Font HEAD_FONT = new Font("Segoe UI", Font.BOLD, 26);
+    public static final Font UI_FONT = new Font("Segoe UI", Font.PLAIN, 15);
+
+    // Status chips
+    public static final StatusStyle COMPLETED = new StatusStyle(new Color(223, 240, 216), SUCCESS);
+    public static final StatusStyle PENDING = new StatusStyle(new Color(255, 243, 205), new Color(204, 142, 0));
+    public static final StatusStyle OTHER = new StatusStyle(CARD, ACCENT);
+
+    private Theme() {
+    }
+
+    public static StatusStyle statusStyle(String status) {
+        if ("Completed".equalsIgnoreCase(status)) return COMPLETED;
+        if ("Pending".equalsIgnoreCase(status)) return PENDING;
+        return OTHER;
+    }
+
+    public static final class StatusStyle {
+        private final Color background;
+        private final Color foreground;
+
+        StatusStyle(Color background, Color foreground) {
+            this.background = background;
+            this.foreground = foreground;
+        }
+
+        public Color getBackground() { return background; }
+        public Color getForeground() { return foreground; }
+    }
+}
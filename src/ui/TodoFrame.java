@@ -54,6 +54,7 @@ public class TodoFrame extends JFrame {
     private void loadTasks() {
         model.setRowCount(0);
         List<Task> list = TaskDAO.getAllTasks();
+        if (list == null) return;
         for (Task t : list) {
             model.addRow(new Object[]{t.getId(), t.getTitle(), t.getDescription(), t.getStatus()});
         }
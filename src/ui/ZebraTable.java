@@ -0,0 +1,24 @@
+package ui;
+
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableModel;
+import java.awt.Component;
+
+// JTable with alternating row backgrounds from Theme (no per-cell Color allocation)
+@SuppressWarnings("serial")
+public class ZebraTable extends JTable {
+
+    public ZebraTable(TableModel model) {
+        super(model);
+    }
+
+    @Override
+    public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+        Component c = super.prepareRenderer(renderer, row, column);
+        if (!isRowSelected(row)) {
+            c.setBackground((row & 1) == 0 ? Theme.ROW_EVEN : Theme.ROW_ODD);
+        }
+        return c;
+    }
+}
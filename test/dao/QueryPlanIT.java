@@ -0,0 +1,257 @@
+package dao;
+
+import static dao.MySqlTaskRepository.*;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import db.DBConnection;
+import db.SchemaMigrator;
+import model.Task;
+import model.TaskOrder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Checks that the statements MySqlTaskRepository sends are served by indexes: runs
+// EXPLAIN on each one, with parameters taken from the data, and fails when any of
+// them scans the whole table (or an ordered page has to sort instead of walking an
+// index). Runs in the verify phase, only against a database named explicitly with
+// -Dtodo.verify.url (never the app's todo.db.* one: it is migrated first, see
+// SchemaMigrator, and may be seeded); skipped when that is not set. On a near-empty
+// table the optimizer prefers scans and the plans say nothing, so point it at
+// representative data, or seed a scratch database:
+//
+//   mvn verify -Dtodo.verify.url=jdbc:mysql://localhost:3306/todo_scratch \
+//       -Dtodo.verify.user=todo -Dtodo.verify.password=... -Dtodo.verify.seed=100000
+//
+// The SQL is MySqlTaskRepository's own (its package-private statement constants and
+// builders); a new statement there needs a check here.
+class QueryPlanIT {
+
+    private static final String URL = System.getProperty("todo.verify.url");
+    private static final String USER = System.getProperty("todo.verify.user", "root");
+    private static final String PASSWORD = System.getProperty("todo.verify.password", "");
+    private static final int MIN_MEANINGFUL_ROWS = 10_000;
+    private static final int PAGE_LIMIT = 200;
+    // Rows to add before checking
+    private static final int SEED = Integer.getInteger("todo.verify.seed", 0);
+
+    // What a statement is allowed to read
+    private enum Access {
+        INDEXED,  // index lookups/ranges only (the matches may then be sorted)
+        KEYSET,   // an index range read in index order: no sort, so LIMIT stops it early
+        BOUNDED,  // may also walk an index from its start, stopped by LIMIT (no sort)
+        COVERING, // walks a whole index in order, but never the rows and never sorts
+        FULL      // reads every row by design, but without a sort
+    }
+
+    private static final class Check {
+        final String name;
+        final String sql;
+        final Object[] params;
+        final Access access;
+
+        Check(String name, Access access, String sql, Object... params) {
+            this.name = name;
+            this.access = access;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    @AfterAll
+    static void shutdown() {
+        DBConnection.shutdown();
+    }
+
+    @Test
+    void everyStatementUsesAnIndex() throws SQLException {
+        assumeTrue(URL != null, "No -Dtodo.verify.url; query plans not checked");
+        assertTrue(URL.startsWith("jdbc:mysql:"), "todo.verify.url must be a MySQL database: " + URL);
+        DBConnection.configure(URL, USER, PASSWORD, 4);
+        Connection conn = DBConnection.getConnection();
+        assertNotNull(conn, "No database at " + URL);
+        try (conn) {
+            if (SEED > 0) seed(conn, SEED);
+            System.out.println("Schema version " + SchemaMigrator.currentVersion(conn));
+            int rows = count(conn);
+            if (rows < MIN_MEANINGFUL_ROWS) {
+                System.out.println("Warning: only " + rows + " tasks; the optimizer may choose scans"
+                        + " that it would not on real data (see -Dtodo.verify.seed)");
+            }
+            List<String> failed = new ArrayList<>();
+            for (Check c : checks(conn)) {
+                if (!explain(conn, c)) failed.add(c.name);
+            }
+            assertTrue(failed.isEmpty(), "Statements that scan the table: " + failed);
+        }
+    }
+
+    // --- Statements -----------------------------------------------------
+
+    private static List<Check> checks(Connection conn) throws SQLException {
+        Task mid = middleTask(conn);
+        int id = mid.getId();
+        long recent = Math.max(0, clock(conn) - 100);
+        String prefix = mid.getTitle().length() > 2 ? mid.getTitle().substring(0, 2) : "a";
+
+        List<Check> checks = new ArrayList<>();
+        checks.add(new Check("getTask", Access.INDEXED, SELECT_BY_ID, id));
+        checks.add(new Check("getTasks", Access.INDEXED,
+                SELECT_IN + placeholders(3) + " ORDER BY id", id, id + 1, id + 2));
+        // The unpaged load: the app only uses it while the table is small enough to
+        // show whole (Main.PAGED_THRESHOLD), and it returns every row
+        checks.add(new Check("getAllTasks", Access.FULL, SELECT_ALL));
+        // InnoDB keeps no row count: COUNT(*) always walks the smallest index (not the rows)
+        checks.add(new Check("countTasks", Access.COVERING, COUNT));
+        // Export (CSV, CLI): every row, in primary key order
+        checks.add(new Check("streamTasks", Access.FULL, STREAM));
+        // Once per full load (edits adjust the counters instead): idx_tasks_status only
+        checks.add(new Check("countByStatus", Access.COVERING, COUNT_BY_STATUS));
+        checks.add(new Check("getCurrentVersion", Access.INDEXED, CURRENT_VERSION));
+        checks.add(new Check("getChangesSince", Access.INDEXED, CHANGED_SINCE, recent));
+        checks.add(new Check("getChangesSince (clock)", Access.INDEXED, CLOCK));
+        checks.add(new Check("getChangesSince (tombstones)", Access.INDEXED, DELETED_SINCE, recent));
+        checks.add(new Check("pruneTombstones (find)", Access.INDEXED, PRUNABLE, 30));
+        checks.add(new Check("pruneTombstones", Access.INDEXED, PRUNE_TOMBSTONES, recent / 2));
+        checks.add(new Check("pruneTombstones (mark)", Access.INDEXED, SET_PRUNED, recent / 2));
+        checks.add(new Check("getChangedIds", Access.INDEXED, CHANGED_IDS,
+                recent, recent + 100, recent, recent + 100));
+        for (TaskOrder.Key key : TaskOrder.Key.values()) {
+            for (boolean descending : new boolean[] { false, true }) {
+                TaskOrder order = new TaskOrder(key, descending);
+                // On an order change and the debounced re-anchor (Main.reanchor), not per edit.
+                // Id order has no index but the clustered one, so its anchors read the rows.
+                checks.add(new Check("getPageAnchors " + order,
+                        key == TaskOrder.Key.ID ? Access.FULL : Access.COVERING, anchorSql(order)));
+                checks.add(new Check("getPage " + order + " (first)", Access.BOUNDED, pageSql(order, false), PAGE_LIMIT));
+                Object[] after = key == TaskOrder.Key.ID ? new Object[] { id, PAGE_LIMIT }
+                        : new Object[] { value(key, mid), id, value(key, mid), PAGE_LIMIT };
+                checks.add(new Check("getPage " + order, Access.KEYSET, pageSql(order, true), after));
+            }
+        }
+        checks.add(new Check("search (status)", Access.INDEXED,
+                searchSql(true, TextMatch.NONE), "Completed", PAGE_LIMIT));
+        checks.add(new Check("search (text)", Access.INDEXED,
+                searchSql(false, TextMatch.FULL_TEXT), toBooleanQuery("task"), PAGE_LIMIT));
+        checks.add(new Check("search (status + text)", Access.INDEXED,
+                searchSql(true, TextMatch.FULL_TEXT), "Pending", toBooleanQuery("task"), PAGE_LIMIT));
+        // A common prefix makes walking id order until LIMIT matches cheaper than a
+        // title range plus a sort; a rare one gets the range
+        checks.add(new Check("search (title prefix)", Access.BOUNDED,
+                searchSql(false, TextMatch.TITLE_PREFIX), prefix + "%", PAGE_LIMIT));
+        checks.add(new Check("readVersions / lockVersions", Access.INDEXED,
+                VERSIONS_IN + placeholders(2), id, id + 1));
+        checks.add(new Check("readVersion", Access.INDEXED, READ_VERSION, id));
+        checks.add(new Check("updateTask", Access.INDEXED, UPDATE, "t", "d", "Pending", id));
+        checks.add(new Check("updateTaskChecked", Access.INDEXED, UPDATE_CHECKED, "t", "d", "Pending", id, 1L));
+        checks.add(new Check("updateStatus (one)", Access.INDEXED, UPDATE_STATUS, "Completed", id));
+        checks.add(new Check("updateStatus", Access.INDEXED,
+                UPDATE_STATUS_IN + placeholders(2), "Completed", id, id + 1));
+        checks.add(new Check("deleteTask", Access.INDEXED, DELETE, id));
+        checks.add(new Check("deleteTasks", Access.INDEXED, DELETE_IN + placeholders(2), id, id + 1));
+        return checks;
+    }
+
+    // --- EXPLAIN --------------------------------------------------------
+
+    // Prints the plan; false when a table is read in a way c.access doesn't allow
+    private static boolean explain(Connection conn, Check c) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + c.sql)) {
+            for (int i = 0; i < c.params.length; i++) ps.setObject(i + 1, c.params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    // <union1,2>, <derived2>: temporary results, not stored tables
+                    if (table == null || table.startsWith("<")) continue;
+                    String type = rs.getString("type");
+                    String key = rs.getString("key");
+                    String extra = rs.getString("Extra");
+                    if (plan.length() > 0) plan.append("; ");
+                    plan.append(table).append(' ').append(type).append(" key=").append(key)
+                            .append(" rows=").append(rs.getLong("rows"));
+                    if (extra != null && !extra.isEmpty()) plan.append(" (").append(extra).append(')');
+
+                    boolean filesort = extra != null && extra.contains("Using filesort");
+                    // The clustered primary key holds the rows themselves
+                    boolean rowsRead = extra == null || !extra.contains("Using index") || "PRIMARY".equals(key);
+                    if ("ALL".equals(type) && c.access != Access.FULL) problems.add("full table scan of " + table);
+                    if ("index".equals(type) && (c.access == Access.INDEXED || c.access == Access.KEYSET)) {
+                        problems.add("full index scan of " + table);
+                    }
+                    if ("index".equals(type) && c.access == Access.COVERING && rowsRead) {
+                        problems.add("reads the rows of " + table + ", not just an index");
+                    }
+                    if (filesort && c.access != Access.INDEXED) problems.add("sorts instead of reading " + table + " in index order");
+                }
+            }
+        }
+        System.out.println((problems.isEmpty() ? "ok    " : "FAIL  ") + c.name + ": " + plan);
+        for (String p : problems) System.out.println("      " + p);
+        return problems.isEmpty();
+    }
+
+    // --- Sample data ----------------------------------------------------
+
+    private static int count(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(COUNT)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static long clock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(CURRENT_VERSION)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String value(TaskOrder.Key key, Task t) {
+        return key == TaskOrder.Key.TITLE ? t.getTitle() : t.getStatus();
+    }
+
+    // A row from the middle of the table, so ranges after it are typical; a stand-in when empty
+    private static Task middleTask(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id, title, status FROM tasks ORDER BY id LIMIT 1 OFFSET ?")) {
+            ps.setInt(1, count(conn) / 2);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return new Task(rs.getInt(1), rs.getString(2), null, rs.getString(3));
+            }
+        }
+        return new Task(1, "task", null, "Pending");
+    }
+
+    // Adds count generated tasks (through MySqlTaskRepository, so into the database
+    // under test) and refreshes the optimizer statistics
+    private static void seed(Connection conn, int count) throws SQLException {
+        String[] words = { "task", "buy", "milk", "call", "fix", "bug", "write", "report", "review", "plan" };
+        Random rnd = new Random(42);
+        MySqlTaskRepository repo = new MySqlTaskRepository();
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String title = words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)] + " #" + i;
+            batch.add(new Task(0, title, "Note " + words[rnd.nextInt(words.length)],
+                    rnd.nextInt(3) == 0 ? "Completed" : "Pending"));
+            if (batch.size() == 10_000 || i == count - 1) {
+                repo.insertBatch(batch, 10_000);
+                batch.clear();
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE tasks");
+        }
+        System.out.println("Seeded " + count + " tasks");
+    }
+}
@@ -0,0 +1,235 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+// The pool against a driver whose connections the test can break: the borrow bound,
+// what happens to a connection that comes back closed or after an error, idle
+// eviction, and warm-up while the database is down.
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:pooltest:db";
+    private static final FakeDriver DRIVER = new FakeDriver();
+
+    private ConnectionPool pool;
+
+    @BeforeAll
+    static void register() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterAll
+    static void deregister() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @BeforeEach
+    void reset() {
+        DRIVER.opened.clear();
+        DRIVER.attempts.set(0);
+        DRIVER.down = false;
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    // --- Borrowing ------------------------------------------------------
+
+    @Test
+    void borrowsAreBoundedByMaxSize() throws SQLException {
+        pool = new ConnectionPool(URL, "u", "p", 2, 0, 200, 60_000);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        SQLException e = assertThrows(SQLException.class, pool::getConnection);
+        assertTrue(e.getMessage().startsWith("Timed out"), e.getMessage());
+        assertEquals(1, pool.getStats().getTimeouts());
+        assertEquals(2, pool.getStats().getActive());
+
+        // A returned connection is handed out again rather than a new one opened
+        a.close();
+        Connection c = pool.getConnection();
+        assertEquals(2, pool.getStats().getCreated());
+        b.close();
+        c.close();
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    @Test
+    void connectionReturnedClosedIsDiscarded() throws SQLException {
+        pool = new ConnectionPool(URL, "u", "p", 2, 0, 200, 60_000);
+        Connection c = pool.getConnection();
+        // The server dropped it while it was borrowed
+        DRIVER.last().closed = true;
+        c.close();
+        assertEquals(0, pool.getStats().getOpen());
+        assertEquals(0, pool.getStats().getIdle());
+
+        try (Connection next = pool.getConnection()) {
+            assertFalse(next.isClosed());
+        }
+        assertEquals(2, pool.getStats().getCreated());
+    }
+
+    // --- Validation -----------------------------------------------------
+
+    @Test
+    void recentlyReturnedConnectionIsTrusted() throws SQLException {
+        pool = new ConnectionPool(URL, "u", "p", 2, 0, 200, 60_000);
+        pool.getConnection().close();
+        FakeConnection raw = DRIVER.last();
+
+        pool.getConnection().close();
+        assertEquals(0, raw.validations);
+        assertEquals(1, pool.getStats().getCreated());
+    }
+
+    @Test
+    void connectionThatFailedIsRevalidatedOnNextBorrow() throws SQLException {
+        pool = new ConnectionPool(URL, "u", "p", 2, 0, 200, 60_000);
+        Connection c = pool.getConnection();
+        FakeConnection raw = DRIVER.last();
+        raw.broken = true;
+        assertThrows(SQLException.class, c::createStatement);
+        c.close();
+        assertEquals(1, pool.getStats().getIdle());
+
+        // Returned just now, but after an error: checked, found dead, replaced
+        try (Connection next = pool.getConnection()) {
+            assertFalse(next.isClosed());
+        }
+        assertEquals(1, raw.validations);
+        assertTrue(raw.closed);
+        assertEquals(1, pool.getStats().getValidationFailures());
+        assertEquals(2, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getOpen());
+    }
+
+    // --- Eviction -------------------------------------------------------
+
+    @Test
+    void idleConnectionsBeyondMinIdleAreEvicted() throws Exception {
+        // The evictor runs every second at the most
+        pool = new ConnectionPool(URL, "u", "p", 3, 1, 200, 100);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        c.close();
+        assertEquals(3, pool.getStats().getIdle());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.getStats().getEvicted() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        assertEquals(2, pool.getStats().getEvicted());
+        assertEquals(1, pool.getStats().getIdle());
+        assertEquals(1, pool.getStats().getOpen());
+        int closed = 0;
+        for (FakeConnection raw : DRIVER.opened) if (raw.closed) closed++;
+        assertEquals(2, closed);
+    }
+
+    @Test
+    void failedWarmUpIsReportedOnceAndNotRetriedEveryTick() throws Exception {
+        DRIVER.down = true;
+        pool = new ConnectionPool(URL, "u", "p", 2, 1, 200, 100);
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream old = System.err;
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        try {
+            pool.warmUp();
+        } finally {
+            System.setErr(old);
+        }
+        String report = err.toString(StandardCharsets.UTF_8);
+        assertEquals(1, report.lines().count(), report);
+        assertTrue(report.contains("Connection refused"), report);
+        assertEquals(0, pool.getStats().getOpen());
+
+        // The evictor ticks every second but holds off re-warming
+        Thread.sleep(2_500);
+        assertEquals(1, DRIVER.attempts.get());
+
+        // A borrow is not held back, and a later warm-up fills the pool
+        DRIVER.down = false;
+        pool.getConnection().close();
+        pool.warmUp();
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    // --- Fake driver ----------------------------------------------------
+
+    private static final class FakeDriver implements Driver {
+        final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+        volatile boolean down;
+
+        FakeConnection last() {
+            return opened.get(opened.size() - 1);
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) return null;
+            attempts.incrementAndGet();
+            if (down) throw new SQLNonTransientConnectionException("Connection refused\n\nmore detail", "08001");
+            FakeConnection c = new FakeConnection();
+            opened.add(c);
+            return c.proxy;
+        }
+
+        @Override public boolean acceptsURL(String url) { return url.startsWith("jdbc:pooltest:"); }
+        @Override public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) { return new DriverPropertyInfo[0]; }
+        @Override public int getMajorVersion() { return 1; }
+        @Override public int getMinorVersion() { return 0; }
+        @Override public boolean jdbcCompliant() { return false; }
+        @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException { throw new SQLFeatureNotSupportedException(); }
+    }
+
+    // A connection that is valid until closed or broken; a broken one fails every statement
+    private static final class FakeConnection {
+        volatile boolean closed;
+        volatile boolean broken;
+        volatile int validations;
+        final Connection proxy = (Connection) Proxy.newProxyInstance(ConnectionPoolTest.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "close": closed = true; return null;
+                        case "isClosed": return closed;
+                        case "isValid": validations++; return !closed && !broken;
+                        case "getAutoCommit": return true;
+                        case "hashCode": return System.identityHashCode(p);
+                        case "equals": return p == args[0];
+                        case "toString": return "FakeConnection";
+                        default:
+                            if (broken) throw new SQLException("Connection reset");
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
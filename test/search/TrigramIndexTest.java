@@ -0,0 +1,122 @@
+package search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+// The index against a plain contains() scan over the same tasks, through random
+// puts, removes and re-puts (so freed slots get reused by other ids).
+class TrigramIndexTest {
+
+    // Few letters, mixed case: texts share most trigrams, so posting lists overlap a lot
+    private static final String ALPHABET = "abcAB ";
+
+    // --- Slots ----------------------------------------------------------
+
+    @Test
+    void freedSlotIsReusedWithoutLeakingTheOldText() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(new Task(1, "Buy milk", null, "Pending"));
+        index.put(new Task(2, "Call Bob", "about milk", "Pending"));
+        index.put(new Task(3, "Write report", null, "Completed"));
+        index.remove(2);
+        assertArrayEquals(new int[] { 1 }, index.search("milk"));
+
+        // Takes the slot 2 had
+        index.put(new Task(40, "Walk dog", null, "Pending"));
+        assertArrayEquals(new int[0], index.search("bob"));
+        assertArrayEquals(new int[] { 40 }, index.search("dog"));
+        assertArrayEquals(new int[] { 1, 40 }, index.search("pending"));
+
+        // And 2 comes back in yet another slot, with new text
+        index.remove(1);
+        index.put(new Task(2, "Call Alice", null, "Completed"));
+        assertArrayEquals(new int[0], index.search("milk"));
+        assertArrayEquals(new int[] { 2 }, index.search("ali"));
+        assertArrayEquals(new int[] { 2, 3 }, index.search("COMPLETED"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void shortQueriesAreLeftToTheCaller() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(new Task(1, "ab", null, null));
+        assertNull(index.search("ab"));
+        assertNull(index.search(""));
+        assertArrayEquals(new int[0], index.search("abx"));
+    }
+
+    // --- Against a scan -------------------------------------------------
+
+    @Test
+    void randomEditsMatchAContainsScan() {
+        Random rnd = new Random(7);
+        TrigramIndex index = new TrigramIndex();
+        Map<Integer, Task> live = new TreeMap<>();
+        // Small ids plus a few far apart, near the top of the range
+        int[] ids = new int[300];
+        for (int i = 0; i < ids.length; i++) ids[i] = i < 280 ? i : Integer.MAX_VALUE - (i - 280) * 1_000_003;
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = ids[rnd.nextInt(ids.length)];
+            if (rnd.nextInt(3) == 0) {
+                index.remove(id);
+                live.remove(id);
+            } else {
+                Task t = new Task(id, text(rnd, 12), rnd.nextBoolean() ? null : text(rnd, 20),
+                        rnd.nextBoolean() ? "Pending" : "Completed");
+                index.put(t);
+                live.put(id, t);
+            }
+            if (step % 100 == 0) {
+                assertEquals(live.size(), index.size());
+                for (int q = 0; q < 20; q++) {
+                    String query = text(rnd, 3 + (q % 3 == 0 ? 0 : rnd.nextInt(4)));
+                    if (query.length() < TrigramIndex.MIN_QUERY_LENGTH) continue;
+                    assertArrayEquals(scan(live, query), index.search(query), "step " + step + " query '" + query + "'");
+                }
+            }
+        }
+
+        // A rebuild from the survivors answers the same
+        TrigramIndex rebuilt = new TrigramIndex();
+        rebuilt.rebuild(live.values());
+        for (String query : new String[] { "aab", "ab ", "Bba", "abca", "pending", "completed", " a b" }) {
+            assertArrayEquals(index.search(query), rebuilt.search(query), query);
+        }
+    }
+
+    // --- Helpers --------------------------------------------------------
+
+    private static String text(Random rnd, int maxLength) {
+        int n = rnd.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append(ALPHABET.charAt(rnd.nextInt(ALPHABET.length())));
+        return sb.toString();
+    }
+
+    // Sorted ids whose title, description or status contains query, ignoring case
+    private static int[] scan(Map<Integer, Task> live, String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        int[] out = new int[live.size()];
+        int n = 0;
+        for (Task t : live.values()) {
+            if (contains(t.getTitle(), q) || contains(t.getDescription(), q) || contains(t.getStatus(), q)) {
+                out[n++] = t.getId();
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static boolean contains(String field, String q) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(q);
+    }
+}
@@ -0,0 +1,231 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.TaskDAO;
+import dao.TaskMutation;
+import dao.TaskRepository;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import store.LogTaskRepository;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The write-behind queue against the embedded store, with faults injected between the
+// two: what it coalesces, when a write counts as durable, and what happens to a write
+// the store refuses (conflict, bad row, outage).
+class WriteBehindQueueTest {
+
+    // Long enough that the background flusher never fires on its own during a test
+    private static final long NEVER_MS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private LogTaskRepository log;
+    private Faults faults;
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void open() throws Exception {
+        log = LogTaskRepository.open(dir.resolve("tasks.log"));
+        faults = new Faults(log);
+        TaskDAO.setRepository(faults.repo);
+        for (String title : new String[] { "One", "Two", "Three" }) {
+            log.addTask(new Task(0, title, null, "Pending"));
+        }
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        faults.down = false;
+        faults.rejected.clear();
+        if (queue != null) queue.close();
+        TaskDAO.setRepository(null);
+        log.close();
+    }
+
+    // --- Coalescing -----------------------------------------------------
+
+    @Test
+    void changesToOneTaskAreWrittenAsOne() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        queue.update(new Task(1, "One, edited", "notes", "Pending"));
+        queue.updateStatus(new int[] { 1 }, "Completed");
+        queue.updateStatus(new int[] { 1, 2 }, "Completed");
+        assertEquals(2, queue.getPendingCount());
+
+        queue.flush();
+        assertEquals(List.of(2), faults.batchSizes);
+        Task one = log.getTask(1);
+        assertEquals("One, edited", one.getTitle());
+        assertEquals("notes", one.getDescription());
+        assertEquals("Completed", one.getStatus());
+        assertEquals("Completed", log.getTask(2).getStatus());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void overlayShowsPendingChanges() {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        queue.updateStatus(new int[] { 2 }, "Completed");
+        queue.delete(new int[] { 3 });
+
+        List<Task> shown = queue.overlay(log.getAllTasks());
+        assertEquals(2, shown.size());
+        assertEquals("Completed", shown.get(1).getStatus());
+        // Not written yet
+        assertEquals("Pending", log.getTask(2).getStatus());
+        assertEquals(3, log.countTasks());
+    }
+
+    // --- Durability -----------------------------------------------------
+
+    @Test
+    void awaitDurableWaitsForTheFlush() throws Exception {
+        queue = new WriteBehindQueue(100, 50);
+        long seq = queue.update(new Task(2, "Two, edited", null, "Pending"));
+        assertTrue(queue.awaitDurable(seq, 10_000));
+        assertTrue(queue.getDurableSeq() >= seq);
+        assertEquals("Two, edited", log.getTask(2).getTitle());
+    }
+
+    @Test
+    void awaitDurableTimesOutWhileNotDue() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        long seq = queue.update(new Task(2, "Two, edited", null, "Pending"));
+        assertFalse(queue.awaitDurable(seq, 100));
+        assertEquals("Two", log.getTask(2).getTitle());
+        assertEquals(seq, queue.getEnqueuedSeq());
+    }
+
+    // --- Conflicts ------------------------------------------------------
+
+    @Test
+    void conflictOnOtherFieldsIsMergedAndRetried() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        Task base = log.getTask(1);
+        // Someone else changes the description after we read the task
+        assertTrue(log.updateTask(new Task(1, "One", "their notes", "Pending")));
+
+        long seq = queue.update(base, new Task(1, "One, ours", null, "Pending", base.getVersion()));
+        queue.flush();
+        assertTrue(queue.getDurableSeq() >= seq);
+        Task one = log.getTask(1);
+        assertEquals("One, ours", one.getTitle());
+        assertEquals("their notes", one.getDescription());
+        assertEquals(0, queue.getConflictCount());
+        // The first attempt hit the conflict, the merged retry went through
+        assertEquals(List.of(1, 1), faults.batchSizes);
+    }
+
+    @Test
+    void conflictOnTheSameFieldKeepsTheirs() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        Task base = log.getTask(1);
+        assertTrue(log.updateTask(new Task(1, "One, theirs", null, "Pending")));
+
+        queue.update(base, new Task(1, "One, ours", null, "Pending", base.getVersion()));
+        queue.flush();
+        assertEquals("One, theirs", log.getTask(1).getTitle());
+        assertEquals(1, queue.getConflictCount());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    // --- Refused writes -------------------------------------------------
+
+    @Test
+    void badRowIsDroppedWithoutBlockingTheRest() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        faults.rejected.add(2);
+        queue.updateStatus(new int[] { 1, 2, 3 }, "Completed");
+        queue.flush();
+
+        assertEquals("Completed", log.getTask(1).getStatus());
+        assertEquals("Pending", log.getTask(2).getStatus());
+        assertEquals("Completed", log.getTask(3).getStatus());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(0, queue.getPendingCount());
+        // The batch, then one task at a time
+        assertEquals(List.of(3, 1, 1, 1), faults.batchSizes);
+    }
+
+    @Test
+    void outageIsRetriedWithoutLoss() throws Exception {
+        queue = new WriteBehindQueue(100, NEVER_MS);
+        faults.down = true;
+        queue.update(new Task(1, "One, edited", null, "Pending"));
+        queue.updateStatus(new int[] { 2 }, "Completed");
+        assertThrows(SQLNonTransientConnectionException.class, queue::flush);
+        assertEquals(2, queue.getPendingCount());
+
+        // Edits made during the outage go on top of the ones still waiting
+        queue.updateStatus(new int[] { 1 }, "Completed");
+        long seq = queue.delete(new int[] { 3 });
+        assertEquals(3, queue.getPendingCount());
+        assertThrows(SQLNonTransientConnectionException.class, queue::flush);
+
+        faults.down = false;
+        queue.flush();
+        assertTrue(queue.getDurableSeq() >= seq);
+        Task one = log.getTask(1);
+        assertEquals("One, edited", one.getTitle());
+        assertEquals("Completed", one.getStatus());
+        assertEquals("Completed", log.getTask(2).getStatus());
+        assertNull(log.getTask(3));
+        assertEquals(0, queue.getDroppedCount());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    // --- Helpers --------------------------------------------------------
+
+    // The embedded store behind a switch: applyMutations fails like a lost connection
+    // while down, and like a constraint violation for a batch touching a rejected id
+    private static final class Faults {
+        final TaskRepository repo;
+        final List<Integer> batchSizes = new ArrayList<>();
+        final Set<Integer> rejected = ConcurrentHashMap.newKeySet();
+        volatile boolean down;
+
+        Faults(TaskRepository target) {
+            repo = (TaskRepository) Proxy.newProxyInstance(TaskRepository.class.getClassLoader(),
+                    new Class<?>[] { TaskRepository.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("applyMutations")) {
+                            @SuppressWarnings("unchecked")
+                            List<TaskMutation> batch = (List<TaskMutation>) args[0];
+                            check(batch);
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private synchronized void check(List<TaskMutation> batch) throws SQLException {
+            if (down) throw new SQLNonTransientConnectionException("Store unreachable", "08S01");
+            batchSizes.add(batch.size());
+            for (TaskMutation m : batch) {
+                if (rejected.contains(m.getId())) {
+                    throw new SQLIntegrityConstraintViolationException("Task " + m.getId() + " rejected", "23000");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.Task;
+import model.TaskChanges;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The embedded store's recovery paths: what survives a reopen, what a crash mid-append
+// or a damaged frame costs, compaction, and the one-process-at-a-time lock.
+class LogTaskRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    // --- Reopen ---------------------------------------------------------
+
+    @Test
+    void reopenRestoresTasksVersionsAndTombstones() throws IOException {
+        Path log = dir.resolve("tasks.log");
+        long version;
+        try (Store s = new Store(log)) {
+            int a = s.repo.addTask(new Task(0, "Buy milk", "2 litres", "Pending"));
+            int b = s.repo.addTask(new Task(0, "Call Bob", null, "Pending"));
+            int c = s.repo.addTask(new Task(0, "Write report", "Q3", "Pending"));
+            assertTrue(s.repo.updateTask(new Task(a, "Buy milk", "1 litre", "Completed")));
+            s.repo.deleteTask(b);
+            assertEquals(2, s.repo.countTasks());
+            version = s.repo.getCurrentVersion();
+            assertEquals(List.of(a, c), ids(s.repo.getAllTasks()));
+        }
+        try (Store s = new Store(log)) {
+            assertEquals(version, s.repo.getCurrentVersion());
+            List<Task> all = s.repo.getAllTasks();
+            assertEquals(2, all.size());
+            assertEquals("1 litre", all.get(0).getDescription());
+            assertEquals("Completed", all.get(0).getStatus());
+            assertNull(s.repo.getTask(2));
+            // The delete is still a tombstone a delta can report
+            TaskChanges changes = s.repo.getChangesSince(0);
+            assertArrayEquals(new int[] { 2 }, changes.getDeletedIds());
+            // Ids keep counting from where they were
+            assertEquals(4, s.repo.addTask(new Task(0, "After reopen", null, "Pending")));
+        }
+    }
+
+    // --- Damaged tails --------------------------------------------------
+
+    @Test
+    void tornTailIsCutOffAtOpen() throws IOException {
+        Path log = dir.resolve("tasks.log");
+        long intact;
+        try (Store s = new Store(log)) {
+            s.repo.addTask(new Task(0, "Kept", null, "Pending"));
+            intact = s.repo.getLogBytes();
+        }
+        // A crash mid-append: a frame header promising more bytes than were written
+        ByteBuffer torn = ByteBuffer.allocate(LogFile.FRAME_HEADER_BYTES + 10);
+        torn.putInt(500).putInt(0).rewind();
+        append(log, torn);
+        assertEquals(intact + torn.capacity(), Files.size(log));
+
+        try (Store s = new Store(log)) {
+            assertEquals(intact, Files.size(log));
+            assertEquals(List.of("Kept"), titles(s.repo.getAllTasks()));
+            // Appends carry on from the cut
+            s.repo.addTask(new Task(0, "Next", null, "Pending"));
+        }
+        try (Store s = new Store(log)) {
+            assertEquals(List.of("Kept", "Next"), titles(s.repo.getAllTasks()));
+        }
+    }
+
+    @Test
+    void frameWithBadChecksumIsDropped() throws IOException {
+        Path log = dir.resolve("tasks.log");
+        long before;
+        try (Store s = new Store(log)) {
+            s.repo.addTask(new Task(0, "First", null, "Pending"));
+            before = s.repo.getLogBytes();
+            s.repo.addTask(new Task(0, "Second", null, "Pending"));
+        }
+        // Flip one payload byte of the last frame (inside its status text)
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long at = ch.size() - 1;
+            ch.read(b, at);
+            b.put(0, (byte) (b.get(0) ^ 0x20)).rewind();
+            ch.write(b, at);
+        }
+        try (Store s = new Store(log)) {
+            assertEquals(List.of("First"), titles(s.repo.getAllTasks()));
+            assertEquals(before, Files.size(log));
+        }
+    }
+
+    // --- Compaction -----------------------------------------------------
+
+    @Test
+    void compactionKeepsLatestRecordsAndTombstones() throws Exception {
+        Path log = dir.resolve("tasks.log");
+        List<String> expected;
+        long version;
+        try (Store s = new Store(log)) {
+            List<Task> batch = new ArrayList<>();
+            for (int i = 0; i < 200; i++) batch.add(new Task(0, "Task " + i, "Note " + i, "Pending"));
+            s.repo.insertBatch(batch, 50);
+            // Superseded records for every task, then some deletes
+            for (int round = 0; round < 5; round++) {
+                for (int id = 1; id <= 200; id++) {
+                    s.repo.updateTask(new Task(id, "Task " + id + " v" + round, "Note", round % 2 == 0 ? "Completed" : "Pending"));
+                }
+            }
+            s.repo.deleteTasks(new int[] { 3, 50, 199 });
+            expected = rows(s.repo.getAllTasks());
+            version = s.repo.getCurrentVersion();
+
+            long grown = s.repo.getLogBytes();
+            s.repo.compact();
+            assertTrue(s.repo.getLogBytes() < grown / 3, "compacted " + grown + " -> " + s.repo.getLogBytes());
+            assertEquals(expected, rows(s.repo.getAllTasks()));
+            assertEquals(version, s.repo.getCurrentVersion());
+            // Records written after compaction land in the new file
+            s.repo.updateTask(new Task(7, "After compaction", null, "Pending"));
+            expected = rows(s.repo.getAllTasks());
+        }
+        assertTrue(Files.notExists(dir.resolve("tasks.log.compact")));
+        try (Store s = new Store(log)) {
+            assertEquals(expected, rows(s.repo.getAllTasks()));
+            assertEquals(197, s.repo.countTasks());
+            int[] deleted = s.repo.getChangesSince(0).getDeletedIds();
+            assertArrayEquals(new int[] { 3, 50, 199 }, deleted);
+        }
+    }
+
+    // --- Lock -----------------------------------------------------------
+
+    @Test
+    void secondOpenInThisProcessIsRefused() throws IOException {
+        Path log = dir.resolve("tasks.log");
+        try (Store s = new Store(log)) {
+            assertThrows(StoreLockedException.class, () -> LogTaskRepository.open(log));
+        }
+        // Released on close
+        try (Store s = new Store(log)) {
+            assertEquals(0, s.repo.countTasks());
+        }
+    }
+
+    @Test
+    void secondProcessIsRefused() throws Exception {
+        Path log = dir.resolve("tasks.log");
+        try (Store s = new Store(log)) {
+            s.repo.addTask(new Task(0, "Mine", null, "Pending"));
+            assertEquals(SecondProcess.LOCKED, runSecondProcess(log));
+        }
+        assertEquals(SecondProcess.OPENED, runSecondProcess(log));
+    }
+
+    // Tries to open the log from another JVM; exits with what happened
+    static final class SecondProcess {
+        static final int OPENED = 0;
+        static final int LOCKED = 3;
+
+        public static void main(String[] args) throws IOException {
+            try {
+                LogTaskRepository.open(Path.of(args[0])).close();
+            } catch (StoreLockedException e) {
+                System.exit(LOCKED);
+            }
+            System.exit(OPENED);
+        }
+    }
+
+    private static int runSecondProcess(Path log) throws Exception {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process p = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                SecondProcess.class.getName(), log.toString()).inheritIO().start();
+        assertTrue(p.waitFor(60, TimeUnit.SECONDS), "second process did not finish");
+        return p.exitValue();
+    }
+
+    // --- Helpers --------------------------------------------------------
+
+    private static final class Store implements AutoCloseable {
+        final LogTaskRepository repo;
+
+        Store(Path log) throws IOException {
+            repo = LogTaskRepository.open(log);
+        }
+
+        @Override
+        public void close() {
+            repo.close();
+        }
+    }
+
+    private static void append(Path log, ByteBuffer bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) ch.write(bytes);
+        }
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task t : tasks) ids.add(t.getId());
+        return ids;
+    }
+
+    // Tasks have no equals(); compare everything that is stored
+    private static List<String> rows(List<Task> tasks) {
+        List<String> rows = new ArrayList<>();
+        for (Task t : tasks) {
+            rows.add(t.getId() + "|" + t.getTitle() + "|" + t.getDescription() + "|" + t.getStatus() + "|" + t.getVersion());
+        }
+        return rows;
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        List<String> titles = new ArrayList<>();
+        for (Task t : tasks) titles.add(t.getTitle());
+        return titles;
+    }
+}